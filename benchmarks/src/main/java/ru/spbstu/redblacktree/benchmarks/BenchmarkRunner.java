@@ -0,0 +1,62 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * runs benchmarks with the usual JMH command line and the GC profiler, so every result comes with allocation rate,
+ * bytes allocated per operation and collection counts. For example
+ * <pre>
+ * java -jar benchmarks.jar SearchBenchmark.search -p size=1000000 -p keyType=INTEGER
+ * java -jar benchmarks.jar UpdateBenchmark -p distribution=ZIPFIAN -p implementation=RED_BLACK_TREE,TREE_MAP
+ * java -jar benchmarks.jar ConcurrentBenchmark -tc 10,20,40,80
+ * </pre>
+ * Every class runs all combinations of its parameters by default, which takes hours, so narrow them with -p.
+ * Sizes of 10M need the 6 GB heap given to forks.
+ * <p>
+ * JMH takes a single thread count, so the runner adds <code>-tc</code>: a comma separated list of thread counts,
+ * the selected benchmarks run once per count.
+ */
+public final class BenchmarkRunner {
+    static final String THREAD_COUNTS = "-tc";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        int[] threadCounts = {0};
+        int option = jmhArgs.indexOf(THREAD_COUNTS);
+        if (option >= 0) {
+            if (option + 1 == jmhArgs.size()) {
+                throw new IllegalArgumentException(THREAD_COUNTS + " needs a list of thread counts");
+            }
+            threadCounts = Arrays.stream(jmhArgs.get(option + 1).split(",")).mapToInt(Integer::parseInt).toArray();
+            jmhArgs.subList(option, option + 2).clear();
+        }
+        CommandLineOptions commandLine = new CommandLineOptions(jmhArgs.toArray(new String[0]));
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers()) {
+            org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+            return;
+        }
+        for (int threads : threadCounts) {
+            OptionsBuilder builder = new OptionsBuilder();
+            builder.parent(commandLine).addProfiler(GCProfiler.class);
+            if (threads > 0) {
+                builder.threads(threads);
+            }
+            Options options = builder.build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import ru.spbstu.redblacktree.tree.Node;
+import ru.spbstu.redblacktree.tree.binarytree.AbstractBinaryTree;
+import ru.spbstu.redblacktree.tree.binarytree.LinkedBinaryTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.BinarySearchTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTree;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * binary trees which traversals are benchmarked
+ */
+public enum BinaryTreeKind {
+    /**
+     * plain linked tree of the complete shape, keys are placed in order
+     */
+    LINKED_BINARY_TREE {
+        @Override
+        AbstractBinaryTree<Object> build(Object[] keys, int[] order) {
+            LinkedBinaryTree<Object> tree = new LinkedBinaryTree<>();
+            if (keys.length == 0) {
+                return tree;
+            }
+            int middle = keys.length / 2;
+            Node<Object> root = tree.addRoot(keys[middle]);
+            attach(tree, root, keys, 0, middle, middle + 1, keys.length);
+            return tree;
+        }
+    },
+    BINARY_SEARCH_TREE {
+        @Override
+        AbstractBinaryTree<Object> build(Object[] keys, int[] order) {
+            return addAll(new BinarySearchTree<>(), keys, order);
+        }
+    },
+    RED_BLACK_TREE {
+        @Override
+        AbstractBinaryTree<Object> build(Object[] keys, int[] order) {
+            return addAll(new RedBlackTree<>(), keys, order);
+        }
+    };
+
+    /**
+     * @param keys  keys in ascending order
+     * @param order order of adding keys to search trees
+     * @return tree of all <i>keys</i>
+     */
+    abstract AbstractBinaryTree<Object> build(Object[] keys, int[] order);
+
+    /**
+     * @return indices of [0, n) in the order which builds a search tree of the least height: the middle index, then
+     * the middle indices of both halves and so on
+     */
+    static int[] balancedOrder(int n) {
+        int[] order = new int[n];
+        int next = 0;
+        Queue<int[]> ranges = new ArrayDeque<>();
+        ranges.add(new int[]{0, n});
+        while (!ranges.isEmpty()) {
+            int[] range = ranges.poll();
+            if (range[0] >= range[1]) {
+                continue;
+            }
+            int middle = (range[0] + range[1]) >>> 1;
+            order[next++] = middle;
+            ranges.add(new int[]{range[0], middle});
+            ranges.add(new int[]{middle + 1, range[1]});
+        }
+        return order;
+    }
+
+    private static AbstractBinaryTree<Object> addAll(BinarySearchTree<Object> tree, Object[] keys, int[] order) {
+        for (int i : order) {
+            tree.add(keys[i]);
+        }
+        return tree;
+    }
+
+    /**
+     * adds keys of [leftFrom, leftTo) as the left subtree of <i>parent</i> and keys of [rightFrom, rightTo) as the
+     * right one
+     */
+    private static void attach(LinkedBinaryTree<Object> tree, Node<Object> parent, Object[] keys, int leftFrom,
+                               int leftTo, int rightFrom, int rightTo) {
+        if (leftFrom < leftTo) {
+            int middle = (leftFrom + leftTo) >>> 1;
+            Node<Object> left = tree.addLeft(parent, keys[middle]);
+            attach(tree, left, keys, leftFrom, middle, middle + 1, leftTo);
+        }
+        if (rightFrom < rightTo) {
+            int middle = (rightFrom + rightTo) >>> 1;
+            Node<Object> right = tree.addRight(parent, keys[middle]);
+            attach(tree, right, keys, rightFrom, middle, middle + 1, rightTo);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTree;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * comparator calls per operation of the iterative descents of {@link RedBlackTree} and of the recursive ones it had
+ * before, reported as <code>comparisonsPerOperation</code>. Keys of the tree are even, missing keys are odd. An
+ * insert first removes its key and a removal adds its key back afterwards, only the measured operation is counted.
+ * Insertion compared once per level before too, searches and removals by key compared twice
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ComparisonBenchmark {
+    @Param({"1000", "1000000"})
+    int size;
+    @Param
+    Descent descent;
+
+    private RedBlackTree<Integer> tree;
+    private long calls;
+    private Integer[] keys;
+    private Integer[] missingKeys;
+    private int position;
+
+    public enum Descent {
+        /**
+         * the descents of {@link RedBlackTree}
+         */
+        ITERATIVE {
+            @Override
+            RedBlackTree<Integer> create(Comparator<Integer> comparator) {
+                return new RedBlackTree<>(comparator);
+            }
+        },
+        /**
+         * {@link RecursiveDescentTree}
+         */
+        RECURSIVE {
+            @Override
+            RedBlackTree<Integer> create(Comparator<Integer> comparator) {
+                return new RecursiveDescentTree<>(comparator);
+            }
+        };
+
+        abstract RedBlackTree<Integer> create(Comparator<Integer> comparator);
+    }
+
+    /**
+     * comparator calls counted by the benchmark methods
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Comparisons {
+        long counted;
+        long operations;
+
+        public double comparisonsPerOperation() {
+            return operations == 0 ? 0 : (double) counted / operations;
+        }
+
+        void record(long calls) {
+            counted += calls;
+            operations++;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        tree = descent.create((i1, i2) -> {
+            calls++;
+            return Integer.compare(i1, i2);
+        });
+        keys = new Integer[size];
+        missingKeys = new Integer[size];
+        int[] indices = SortedSetState.shuffledIndices(size, new Random(SortedSetState.SEED));
+        for (int i = 0; i < size; i++) {
+            keys[i] = 2 * indices[i];
+            missingKeys[i] = 2 * indices[i] + 1;
+            tree.add(keys[i]);
+        }
+    }
+
+    @Benchmark
+    public Integer search(Comparisons comparisons) {
+        long start = calls;
+        Integer found = tree.search(keys[nextPosition()]);
+        comparisons.record(calls - start);
+        return found;
+    }
+
+    @Benchmark
+    public Integer searchMissing(Comparisons comparisons) {
+        long start = calls;
+        Integer found = tree.search(missingKeys[nextPosition()]);
+        comparisons.record(calls - start);
+        return found;
+    }
+
+    @Benchmark
+    public Object insert(Comparisons comparisons) {
+        Integer key = keys[nextPosition()];
+        tree.remove(key);
+        long start = calls;
+        Object added = tree.add(key);
+        comparisons.record(calls - start);
+        return added;
+    }
+
+    @Benchmark
+    public Integer remove(Comparisons comparisons) {
+        Integer key = keys[nextPosition()];
+        long start = calls;
+        Integer removed = tree.remove(key);
+        comparisons.record(calls - start);
+        tree.add(key);
+        return removed;
+    }
+
+    private int nextPosition() {
+        int current = position;
+        position = current + 1 == size ? 0 : current + 1;
+        return current;
+    }
+}
@@ -0,0 +1,113 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * throughput of a set shared by all threads. Keys are integers of [0, 2 * <i>size</i>), the set starts with the
+ * even ones, and every thread picks keys uniformly, so additions and removals keep it about half full.
+ * <p>
+ * {@link #read} and {@link #write} form a group of nine readers and one writer, which is a 90/10 mix. Run more
+ * groups with the thread count option of {@link BenchmarkRunner}, for example <code>-tc 10,20,40,80</code> runs
+ * 1, 2, 4 and 8 groups.
+ * <p>
+ * {@link #update} is write only, which is where flat combining should pay off, for example
+ * <code>-p implementation=REENTRANT_LOCK,FLAT_COMBINING -tc 8,16,32,64</code>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ConcurrentBenchmark {
+    @Param({"10000", "1000000"})
+    int size;
+    @Param
+    ConcurrentImplementation implementation;
+
+    ConcurrentImplementation.ConcurrentSet set;
+    /**
+     * boxed in advance, so benchmarks allocate no keys
+     */
+    Integer[] keys;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        keys = new Integer[2 * size];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i;
+        }
+        set = implementation.create();
+        for (int i : SortedSetState.shuffledIndices(size, new Random(SortedSetState.SEED))) {
+            set.add(keys[2 * i]);
+        }
+    }
+
+    /**
+     * keys picked by one thread, every thread has its own sequence
+     */
+    @State(Scope.Thread)
+    public static class Picks {
+        int[] stream;
+        int cursor;
+        boolean adding;
+
+        @Setup(Level.Trial)
+        public void pick(ConcurrentBenchmark benchmark, ThreadParams threads) {
+            stream = KeyDistribution.UNIFORM.indices(benchmark.keys.length, SortedSetState.STREAM_LENGTH,
+                    SortedSetState.SEED + threads.getThreadIndex());
+        }
+
+        int next() {
+            int position = cursor;
+            cursor = (cursor + 1) & SortedSetState.STREAM_LENGTH - 1;
+            return stream[position];
+        }
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(9)
+    public boolean read(Picks picks) {
+        return set.contains(keys[picks.next()]);
+    }
+
+    /**
+     * adds and removes picked keys in turn
+     */
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(1)
+    public boolean write(Picks picks) {
+        Integer key = keys[picks.next()];
+        picks.adding = !picks.adding;
+        return picks.adding ? set.add(key) : set.remove(key);
+    }
+
+    /**
+     * adds and removes picked keys in turn, every thread does
+     */
+    @Benchmark
+    @Threads(8)
+    public boolean update(Picks picks) {
+        return write(picks);
+    }
+}
@@ -0,0 +1,172 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.ConcurrentRedBlackTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.FlatCombiningRedBlackTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.ShardedRedBlackTree;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * thread-safe sets under benchmark, a {@link RedBlackTree} behind <code>synchronized</code> is the baseline
+ */
+public enum ConcurrentImplementation {
+    SYNCHRONIZED {
+        @Override
+        ConcurrentSet create() {
+            return new SynchronizedSet();
+        }
+    },
+    /**
+     * a {@link RedBlackTree} behind a plain {@link ReentrantLock}, the lock flat combining is built on
+     */
+    REENTRANT_LOCK {
+        @Override
+        ConcurrentSet create() {
+            return new LockedSet();
+        }
+    },
+    /**
+     * {@link ConcurrentRedBlackTree}, lookups are optimistic reads of its stamped lock
+     */
+    STAMPED_LOCK {
+        @Override
+        ConcurrentSet create() {
+            ConcurrentRedBlackTree<Integer> tree = new ConcurrentRedBlackTree<>();
+            return new ConcurrentSet() {
+                @Override
+                public boolean add(Integer key) {
+                    return tree.add(key);
+                }
+
+                @Override
+                public boolean remove(Integer key) {
+                    return tree.remove(key);
+                }
+
+                @Override
+                public boolean contains(Integer key) {
+                    return tree.contains(key);
+                }
+            };
+        }
+    },
+    FLAT_COMBINING {
+        @Override
+        ConcurrentSet create() {
+            FlatCombiningRedBlackTree<Integer> tree = new FlatCombiningRedBlackTree<>();
+            return new ConcurrentSet() {
+                @Override
+                public boolean add(Integer key) {
+                    return tree.add(key);
+                }
+
+                @Override
+                public boolean remove(Integer key) {
+                    return tree.remove(key);
+                }
+
+                @Override
+                public boolean contains(Integer key) {
+                    return tree.contains(key);
+                }
+            };
+        }
+    },
+    /**
+     * {@link ShardedRedBlackTree} with shards of the default maximum size
+     */
+    SHARDED {
+        @Override
+        ConcurrentSet create() {
+            ShardedRedBlackTree<Integer> tree = new ShardedRedBlackTree<>();
+            return new ConcurrentSet() {
+                @Override
+                public boolean add(Integer key) {
+                    return tree.add(key);
+                }
+
+                @Override
+                public boolean remove(Integer key) {
+                    return tree.remove(key);
+                }
+
+                @Override
+                public boolean contains(Integer key) {
+                    return tree.contains(key);
+                }
+            };
+        }
+    };
+
+    abstract ConcurrentSet create();
+
+    /**
+     * the operations concurrent benchmarks call, every method is safe to call from any thread
+     */
+    interface ConcurrentSet {
+        boolean add(Integer key);
+
+        boolean remove(Integer key);
+
+        boolean contains(Integer key);
+    }
+
+    private static final class SynchronizedSet implements ConcurrentSet {
+        private final RedBlackTree<Integer> tree = new RedBlackTree<>();
+
+        @Override
+        public synchronized boolean add(Integer key) {
+            int size = tree.size();
+            tree.add(key);
+            return tree.size() != size;
+        }
+
+        @Override
+        public synchronized boolean remove(Integer key) {
+            return tree.remove(key) != null;
+        }
+
+        @Override
+        public synchronized boolean contains(Integer key) {
+            return tree.search(key) != null;
+        }
+    }
+
+    private static final class LockedSet implements ConcurrentSet {
+        private final RedBlackTree<Integer> tree = new RedBlackTree<>();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        @Override
+        public boolean add(Integer key) {
+            lock.lock();
+            try {
+                int size = tree.size();
+                tree.add(key);
+                return tree.size() != size;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean remove(Integer key) {
+            lock.lock();
+            try {
+                return tree.remove(key) != null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean contains(Integer key) {
+            lock.lock();
+            try {
+                return tree.search(key) != null;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * memory kept by a set per element. Every invocation adds <i>size</i> keys made in advance to an empty set, then
+ * collects garbage and reports the growth of the used heap divided by <i>size</i> as
+ * <code>retainedBytesPerElement</code>, so keys themselves are not counted. The time of an invocation includes the
+ * collections and means nothing. Bytes allocated per element, arrays outgrown by the array tree among them, are
+ * <code>gc.alloc.rate.norm</code> of the GC profiler divided by <i>size</i>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@State(Scope.Thread)
+public class FootprintBenchmark {
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    @Param({"100000", "1000000", "10000000"})
+    int size;
+    @Param
+    KeyType keyType;
+    @Param({"RED_BLACK_TREE", "ARRAY_RED_BLACK_TREE", "TREE_MAP"})
+    Implementation implementation;
+
+    Object[] keys;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        keys = new Object[size];
+        for (int i : SortedSetState.shuffledIndices(size, new Random(SortedSetState.SEED))) {
+            keys[i] = keyType.key(i);
+        }
+    }
+
+    /**
+     * footprint of the last invocation
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public double retainedBytesPerElement;
+    }
+
+    @Benchmark
+    public Implementation.SortedSet fill(Footprint footprint) {
+        long before = usedHeap();
+        Implementation.SortedSet set = implementation.create();
+        for (Object key : keys) {
+            set.add(key);
+        }
+        footprint.retainedBytesPerElement = (double) (usedHeap() - before) / size;
+        return set;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,78 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * cost of a large tree for the garbage collector. The tree of <i>size</i> long keys out of [0, 2 * <i>size</i>) stays
+ * live during the whole trial.
+ * <p>
+ * {@link #churn} looks up a key, removes it if present or adds it otherwise, and allocates a short-lived buffer like
+ * the rest of an application would. Compare <code>gc.count</code> and <code>gc.time</code> of the GC profiler, the
+ * time spent in pauses, between storages. {@link #fullCollection} times one full collection, which traces all nodes
+ * kept in the heap. The small heap given to forks makes collections frequent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g", "-XX:+UseG1GC"})
+@State(Scope.Thread)
+public class GcPauseBenchmark {
+    private static final int GARBAGE_BYTES = 256;
+
+    @Param({"1000000", "10000000"})
+    int size;
+    @Param
+    LongStorage storage;
+
+    LongStorage.LongSet set;
+    int[] stream;
+    int cursor;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        set = storage.create();
+        for (int i : SortedSetState.shuffledIndices(size, new Random(SortedSetState.SEED))) {
+            set.add(2L * i);
+        }
+        stream = KeyDistribution.UNIFORM.indices(2 * size, SortedSetState.STREAM_LENGTH, SortedSetState.SEED + 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        set.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public byte[] churn() {
+        long key = stream[cursor];
+        cursor = (cursor + 1) & SortedSetState.STREAM_LENGTH - 1;
+        if (!set.remove(key)) {
+            set.add(key);
+        }
+        return new byte[GARBAGE_BYTES];
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 10)
+    public void fullCollection() {
+        System.gc();
+    }
+}
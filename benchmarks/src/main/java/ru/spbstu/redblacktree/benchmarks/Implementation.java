@@ -0,0 +1,152 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import ru.spbstu.redblacktree.tree.Node;
+import ru.spbstu.redblacktree.tree.binarytree.search.BinarySearchTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.indexed.ArrayRedBlackTree;
+
+import java.util.Iterator;
+import java.util.TreeMap;
+
+/**
+ * sorted sets under benchmark, {@link java.util.TreeMap} is the baseline
+ */
+public enum Implementation {
+    RED_BLACK_TREE {
+        @Override
+        SortedSet create() {
+            return new SearchTreeSet(new RedBlackTree<>());
+        }
+    },
+    BINARY_SEARCH_TREE {
+        @Override
+        SortedSet create() {
+            return new SearchTreeSet(new BinarySearchTree<>());
+        }
+    },
+    /**
+     * {@link ArrayRedBlackTree}, nodes in parallel arrays instead of objects
+     */
+    ARRAY_RED_BLACK_TREE {
+        @Override
+        SortedSet create() {
+            return new ArrayTreeSet();
+        }
+    },
+    TREE_MAP {
+        @Override
+        SortedSet create() {
+            return new TreeMapSet();
+        }
+    };
+
+    abstract SortedSet create();
+
+    /**
+     * the operations benchmarks call, so every implementation is called the same way
+     */
+    interface SortedSet extends Iterable<Object> {
+        void add(Object key);
+
+        void remove(Object key);
+
+        boolean contains(Object key);
+    }
+
+    private static final class SearchTreeSet implements SortedSet {
+        private final BinarySearchTree<Object> tree;
+
+        SearchTreeSet(BinarySearchTree<Object> tree) {
+            this.tree = tree;
+        }
+
+        @Override
+        public void add(Object key) {
+            tree.add(key);
+        }
+
+        /**
+         * finds the node first, since {@link BinarySearchTree#remove(Object)} fails on missing keys
+         */
+        @Override
+        public void remove(Object key) {
+            Node<Object> node = tree.treeSearch(tree.root(), key);
+            if (node != null) {
+                tree.remove(node);
+            }
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return tree.search(key) != null;
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return tree.iterator();
+        }
+
+        @Override
+        public String toString() {
+            return tree.toString();
+        }
+    }
+
+    private static final class ArrayTreeSet implements SortedSet {
+        private final ArrayRedBlackTree<Object> tree = new ArrayRedBlackTree<>();
+
+        @Override
+        public void add(Object key) {
+            tree.add(key);
+        }
+
+        @Override
+        public void remove(Object key) {
+            tree.remove(key);
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return tree.contains(key);
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return tree.iterator();
+        }
+
+        @Override
+        public String toString() {
+            return tree.toString();
+        }
+    }
+
+    private static final class TreeMapSet implements SortedSet {
+        private final TreeMap<Object, Boolean> map = new TreeMap<>();
+
+        @Override
+        public void add(Object key) {
+            map.put(key, Boolean.TRUE);
+        }
+
+        @Override
+        public void remove(Object key) {
+            map.remove(key);
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return map.containsKey(key);
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return map.keySet().iterator();
+        }
+
+        @Override
+        public String toString() {
+            return map.keySet().toString();
+        }
+    }
+}
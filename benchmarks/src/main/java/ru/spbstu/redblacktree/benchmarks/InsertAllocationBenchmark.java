@@ -0,0 +1,68 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * bytes allocated per insert, which is <code>gc.alloc.rate.norm</code> of the GC profiler: keys are made in advance,
+ * so a new key should cost one node and a present key nothing. {@link #insert} fills an empty set with {@link #SIZE}
+ * keys in random order, {@link #insertPresent} adds keys the filled set already has
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class InsertAllocationBenchmark {
+    static final int SIZE = 10_000;
+
+    @Param({"RED_BLACK_TREE", "BINARY_SEARCH_TREE", "TREE_MAP"})
+    Implementation implementation;
+
+    Object[] keys;
+    Implementation.SortedSet filled;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        keys = new Object[SIZE];
+        int[] order = SortedSetState.shuffledIndices(SIZE, new Random(SortedSetState.SEED));
+        for (int i = 0; i < SIZE; i++) {
+            keys[i] = order[i];
+        }
+        filled = insert();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public Implementation.SortedSet insert() {
+        Implementation.SortedSet set = implementation.create();
+        for (Object key : keys) {
+            set.add(key);
+        }
+        return set;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public Implementation.SortedSet insertPresent() {
+        for (Object key : keys) {
+            filled.add(key);
+        }
+        return filled;
+    }
+}
@@ -0,0 +1,55 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import java.util.Random;
+
+/**
+ * orders in which benchmarks pick keys out of <i>n</i> keys
+ */
+public enum KeyDistribution {
+    /**
+     * keys one after another in ascending order, wrapping around
+     */
+    SEQUENTIAL {
+        @Override
+        int[] indices(int n, int count, long seed) {
+            int[] indices = new int[count];
+            for (int i = 0; i < count; i++) {
+                indices[i] = i % n;
+            }
+            return indices;
+        }
+    },
+    UNIFORM {
+        @Override
+        int[] indices(int n, int count, long seed) {
+            Random random = new Random(seed);
+            int[] indices = new int[count];
+            for (int i = 0; i < count; i++) {
+                indices[i] = random.nextInt(n);
+            }
+            return indices;
+        }
+    },
+    /**
+     * few hot keys picked most of the time, scattered over the whole key range
+     */
+    ZIPFIAN {
+        @Override
+        int[] indices(int n, int count, long seed) {
+            ZipfianGenerator generator = new ZipfianGenerator(n, seed);
+            int[] indices = new int[count];
+            for (int i = 0; i < count; i++) {
+                indices[i] = generator.nextScrambled();
+            }
+            return indices;
+        }
+    };
+
+    /**
+     * @param n     number of keys
+     * @param count number of picks
+     * @param seed  seed of random picks
+     * @return <i>count</i> indices in [0, n)
+     */
+    abstract int[] indices(int n, int count, long seed);
+}
@@ -0,0 +1,40 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+/**
+ * key types of the benchmarks. Keys are made from indices and keep their order, so the keys of even indices can
+ * fill a tree while the keys of odd indices fall between them and are missing
+ */
+public enum KeyType {
+    INTEGER {
+        @Override
+        Comparable<?> key(int index) {
+            return index;
+        }
+    },
+    DOUBLE {
+        @Override
+        Comparable<?> key(int index) {
+            return index * 0.5;
+        }
+    },
+    /**
+     * zero-padded decimal strings, so the string order is the order of indices
+     */
+    STRING {
+        @Override
+        Comparable<?> key(int index) {
+            String digits = Integer.toString(index);
+            StringBuilder key = new StringBuilder("key-");
+            for (int i = digits.length(); i < 10; i++) {
+                key.append('0');
+            }
+            return key.append(digits).toString();
+        }
+    };
+
+    /**
+     * @param index non-negative index
+     * @return key which is greater than the keys of lesser indices
+     */
+    abstract Comparable<?> key(int index);
+}
@@ -0,0 +1,63 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTree;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * bulk loading of unsorted keys by {@link RedBlackTree#loadUnsorted(Object[], ForkJoinPool)} in pools of
+ * different parallelism. The pool of parallelism 1 is the sequential baseline, parallelism above the number of cores
+ * shows the cost of oversubscription
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+    @Param({"1000000", "10000000"})
+    int size;
+    @Param({"1", "4", "16", "32"})
+    int parallelism;
+
+    Integer[] elements;
+    ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        elements = new Integer[size];
+        int[] indices = SortedSetState.shuffledIndices(size, new Random(SortedSetState.SEED));
+        for (int i = 0; i < size; i++) {
+            elements[i] = indices[i];
+        }
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public RedBlackTree<Integer> loadUnsorted() {
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        tree.loadUnsorted(elements, pool);
+        return tree;
+    }
+}
@@ -0,0 +1,110 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.indexed.OffHeapLongRedBlackTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.primitive.LongRedBlackTree;
+
+/**
+ * places where a tree of long keys keeps its nodes
+ */
+public enum LongStorage {
+    /**
+     * {@link RedBlackTree} of boxed keys: a node and a box per key
+     */
+    GENERIC_HEAP {
+        @Override
+        LongSet create() {
+            RedBlackTree<Long> tree = new RedBlackTree<>();
+            return new LongSet() {
+                @Override
+                public boolean add(long key) {
+                    int size = tree.size();
+                    tree.add(key);
+                    return tree.size() != size;
+                }
+
+                @Override
+                public boolean remove(long key) {
+                    return tree.remove(key) != null;
+                }
+
+                @Override
+                public boolean contains(long key) {
+                    return tree.search(key) != null;
+                }
+            };
+        }
+    },
+    /**
+     * {@link LongRedBlackTree}: a node per key
+     */
+    PRIMITIVE_HEAP {
+        @Override
+        LongSet create() {
+            LongRedBlackTree tree = new LongRedBlackTree();
+            return new LongSet() {
+                @Override
+                public boolean add(long key) {
+                    return tree.add(key);
+                }
+
+                @Override
+                public boolean remove(long key) {
+                    return tree.remove(key);
+                }
+
+                @Override
+                public boolean contains(long key) {
+                    return tree.contains(key);
+                }
+            };
+        }
+    },
+    /**
+     * {@link OffHeapLongRedBlackTree}: records in direct buffers, nothing for the collector to trace
+     */
+    OFF_HEAP {
+        @Override
+        LongSet create() {
+            OffHeapLongRedBlackTree tree = new OffHeapLongRedBlackTree();
+            return new LongSet() {
+                @Override
+                public boolean add(long key) {
+                    return tree.add(key);
+                }
+
+                @Override
+                public boolean remove(long key) {
+                    return tree.remove(key);
+                }
+
+                @Override
+                public boolean contains(long key) {
+                    return tree.contains(key);
+                }
+
+                @Override
+                public void close() {
+                    tree.close();
+                }
+            };
+        }
+    };
+
+    abstract LongSet create();
+
+    interface LongSet extends AutoCloseable {
+        boolean add(long key);
+
+        boolean remove(long key);
+
+        boolean contains(long key);
+
+        /**
+         * releases memory kept outside of the heap, if any
+         */
+        @Override
+        default void close() {
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTree;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * union of two trees of <i>size</i> / 2 interleaved keys each, so the result has <i>size</i> elements and every
+ * split cuts both trees. {@link #parallelUnion} runs in the common pool, set its parallelism with
+ * <code>-jvmArgsAppend -Djava.util.concurrent.ForkJoinPool.common.parallelism=N</code>.
+ * <p>
+ * The default of 100M elements needs the 16 GB heap given to forks, pass a smaller size with
+ * <code>-p size=...</code> and a smaller heap with <code>-jvmArgsAppend</code> on smaller machines. The heap stays
+ * below 32 GB, so references remain compressed
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms16g", "-Xmx16g"})
+@State(Scope.Benchmark)
+public class MergeBenchmark {
+    @Param({"100000000"})
+    int size;
+
+    Integer[] evens;
+    Integer[] odds;
+    RedBlackTree<Integer> tree;
+    RedBlackTree<Integer> other;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        evens = new Integer[size - size / 2];
+        odds = new Integer[size / 2];
+        for (int i = 0; i < size; i++) {
+            if ((i & 1) == 0) {
+                evens[i / 2] = i;
+            } else {
+                odds[i / 2] = i;
+            }
+        }
+        other = new RedBlackTree<>();
+        other.loadSorted(odds);
+    }
+
+    /**
+     * builds the tree to merge into again, the previous one has been changed by the merge
+     */
+    @Setup(Level.Iteration)
+    public void reload() {
+        tree = null;
+        System.gc();
+        tree = new RedBlackTree<>();
+        tree.loadSorted(evens);
+    }
+
+    @Benchmark
+    public RedBlackTree<Integer> union() {
+        tree.union(other);
+        return tree;
+    }
+
+    @Benchmark
+    public RedBlackTree<Integer> parallelUnion() {
+        tree.parallelUnion(other);
+        return tree;
+    }
+}
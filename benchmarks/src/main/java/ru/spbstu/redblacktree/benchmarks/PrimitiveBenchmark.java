@@ -0,0 +1,82 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * trees generated from templates against the generic tree of boxed keys. Lookups and iteration run over a filled
+ * tree, {@link #fill} builds one from scratch, so the GC profiler shows bytes allocated per tree
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@State(Scope.Thread)
+public class PrimitiveBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    int size;
+    @Param
+    PrimitiveType type;
+    @Param({"true", "false"})
+    boolean primitive;
+
+    PrimitiveType.KeySet set;
+    Object keys;
+    int[] order;
+    int[] stream;
+    int cursor;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        keys = primitive ? type.primitiveKeys(size) : type.boxedKeys(size);
+        order = SortedSetState.shuffledIndices(size, new Random(SortedSetState.SEED));
+        set = create();
+        for (int i : order) {
+            set.add(i);
+        }
+        stream = KeyDistribution.UNIFORM.indices(size, SortedSetState.STREAM_LENGTH, SortedSetState.SEED + 1);
+    }
+
+    @Benchmark
+    public boolean search() {
+        int position = cursor;
+        cursor = (cursor + 1) & SortedSetState.STREAM_LENGTH - 1;
+        return set.contains(stream[position]);
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        set.iterate(blackhole);
+    }
+
+    /**
+     * adds all keys in random order to an empty tree
+     */
+    @Benchmark
+    public PrimitiveType.KeySet fill() {
+        PrimitiveType.KeySet filled = create();
+        for (int i : order) {
+            filled.add(i);
+        }
+        return filled;
+    }
+
+    private PrimitiveType.KeySet create() {
+        return primitive ? type.primitive(keys) : type.generic((Object[]) keys);
+    }
+}
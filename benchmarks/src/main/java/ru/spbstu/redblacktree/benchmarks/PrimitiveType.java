@@ -0,0 +1,197 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import org.openjdk.jmh.infra.Blackhole;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.primitive.DoubleRedBlackTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.primitive.IntRedBlackTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.primitive.LongRedBlackTree;
+
+import java.util.PrimitiveIterator;
+
+/**
+ * key types of the trees generated from templates. Every type makes a set of its primitive tree and a set of the
+ * generic {@link RedBlackTree} of the boxed keys, so both are called the same way. Keys are made apart from sets, so
+ * building a set allocates nothing but the tree
+ */
+public enum PrimitiveType {
+    INT {
+        @Override
+        Object primitiveKeys(int size) {
+            int[] keys = new int[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = 2 * i;
+            }
+            return keys;
+        }
+
+        @Override
+        KeySet primitive(Object primitiveKeys) {
+            int[] keys = (int[]) primitiveKeys;
+            IntRedBlackTree tree = new IntRedBlackTree();
+            return new KeySet() {
+                @Override
+                public void add(int index) {
+                    tree.add(keys[index]);
+                }
+
+                @Override
+                public boolean contains(int index) {
+                    return tree.contains(keys[index]);
+                }
+
+                @Override
+                public void iterate(Blackhole blackhole) {
+                    for (PrimitiveIterator.OfInt iterator = tree.iterator(); iterator.hasNext(); ) {
+                        blackhole.consume(iterator.nextInt());
+                    }
+                }
+            };
+        }
+
+        @Override
+        Object boxedKey(int index) {
+            return 2 * index;
+        }
+    },
+    LONG {
+        @Override
+        Object primitiveKeys(int size) {
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = 2L * i;
+            }
+            return keys;
+        }
+
+        @Override
+        KeySet primitive(Object primitiveKeys) {
+            long[] keys = (long[]) primitiveKeys;
+            LongRedBlackTree tree = new LongRedBlackTree();
+            return new KeySet() {
+                @Override
+                public void add(int index) {
+                    tree.add(keys[index]);
+                }
+
+                @Override
+                public boolean contains(int index) {
+                    return tree.contains(keys[index]);
+                }
+
+                @Override
+                public void iterate(Blackhole blackhole) {
+                    for (PrimitiveIterator.OfLong iterator = tree.iterator(); iterator.hasNext(); ) {
+                        blackhole.consume(iterator.nextLong());
+                    }
+                }
+            };
+        }
+
+        @Override
+        Object boxedKey(int index) {
+            return 2L * index;
+        }
+    },
+    DOUBLE {
+        @Override
+        Object primitiveKeys(int size) {
+            double[] keys = new double[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = i * 0.5;
+            }
+            return keys;
+        }
+
+        @Override
+        KeySet primitive(Object primitiveKeys) {
+            double[] keys = (double[]) primitiveKeys;
+            DoubleRedBlackTree tree = new DoubleRedBlackTree();
+            return new KeySet() {
+                @Override
+                public void add(int index) {
+                    tree.add(keys[index]);
+                }
+
+                @Override
+                public boolean contains(int index) {
+                    return tree.contains(keys[index]);
+                }
+
+                @Override
+                public void iterate(Blackhole blackhole) {
+                    for (PrimitiveIterator.OfDouble iterator = tree.iterator(); iterator.hasNext(); ) {
+                        blackhole.consume(iterator.nextDouble());
+                    }
+                }
+            };
+        }
+
+        @Override
+        Object boxedKey(int index) {
+            return index * 0.5;
+        }
+    };
+
+    /**
+     * @param size number of keys
+     * @return array of <i>size</i> ascending keys of the primitive type
+     */
+    abstract Object primitiveKeys(int size);
+
+    /**
+     * @param primitiveKeys keys made by {@link #primitiveKeys}
+     * @return empty set of the primitive tree, adding keys of <i>primitiveKeys</i>
+     */
+    abstract KeySet primitive(Object primitiveKeys);
+
+    abstract Object boxedKey(int index);
+
+    /**
+     * @param size number of keys
+     * @return <i>size</i> ascending keys, boxed in advance
+     */
+    Object[] boxedKeys(int size) {
+        Object[] keys = new Object[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = boxedKey(i);
+        }
+        return keys;
+    }
+
+    /**
+     * @param keys keys made by {@link #boxedKeys}
+     * @return empty set of the generic tree, adding keys of <i>keys</i>
+     */
+    KeySet generic(Object[] keys) {
+        RedBlackTree<Object> tree = new RedBlackTree<>();
+        return new KeySet() {
+            @Override
+            public void add(int index) {
+                tree.add(keys[index]);
+            }
+
+            @Override
+            public boolean contains(int index) {
+                return tree.search(keys[index]) != null;
+            }
+
+            @Override
+            public void iterate(Blackhole blackhole) {
+                for (Object key : tree) {
+                    blackhole.consume(key);
+                }
+            }
+        };
+    }
+
+    /**
+     * a tree and its keys, addressed by index
+     */
+    interface KeySet {
+        void add(int index);
+
+        boolean contains(int index);
+
+        void iterate(Blackhole blackhole);
+    }
+}
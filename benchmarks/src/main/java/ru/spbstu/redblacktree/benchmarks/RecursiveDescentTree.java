@@ -0,0 +1,64 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import ru.spbstu.redblacktree.tree.Node;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTree;
+
+import java.util.Comparator;
+
+import static java.util.Objects.isNull;
+
+/**
+ * {@link RedBlackTree} with the recursive descents the tree had before they were made iterative: {@link #treeSearch}
+ * compares twice per level, {@link #search} runs it twice and {@link #add(Node, Object)} recurses once per level.
+ * Rebalancing is the current one, so both trees have the same shape
+ *
+ * @param <E> element
+ */
+final class RecursiveDescentTree<E> extends RedBlackTree<E> {
+    RecursiveDescentTree(Comparator<? super E> comparator) {
+        super(comparator);
+    }
+
+    @Override
+    public Node<E> treeSearch(Node<E> n, E val) {
+        if (isNull(n)) {
+            return null;
+        }
+        if (compare(n.getElement(), val) == 0) {
+            return n;
+        }
+        if (compare(n.getElement(), val) < 0) {
+            if (!isNull(right(n))) {
+                return treeSearch(right(n), val);
+            }
+        } else {
+            return treeSearch(left(n), val);
+        }
+        return null;
+    }
+
+    @Override
+    public E search(E val) {
+        if (treeSearch(root(), val) != null) {
+            return treeSearch(root(), val).getElement();
+        }
+        return null;
+    }
+
+    @Override
+    public Node<E> add(Node<E> n, E val) {
+        int compare = compare(n.getElement(), val);
+        if (compare > 0) {
+            if (isNull(left(n))) {
+                return addLeft(n, val);
+            }
+            return add(left(n), val);
+        } else if (compare < 0) {
+            if (isNull(right(n))) {
+                return addRight(n, val);
+            }
+            return add(right(n), val);
+        }
+        return n;
+    }
+}
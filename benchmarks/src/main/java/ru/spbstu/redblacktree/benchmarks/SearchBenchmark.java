@@ -0,0 +1,45 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * lookups and full iteration of a filled set
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class SearchBenchmark extends SortedSetState {
+    /**
+     * looks up a key of the set
+     */
+    @Benchmark
+    public boolean search() {
+        return set.contains(keys[stream[nextPosition()]]);
+    }
+
+    /**
+     * looks up a missing key next to a key of the set
+     */
+    @Benchmark
+    public boolean searchMissing() {
+        return set.contains(missingKeys[nextPosition()]);
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Object key : set) {
+            blackhole.consume(key);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.ShardedRedBlackTree;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ShardedRedBlackTree} by maximum shard size. Keys and picks are those of {@link ConcurrentBenchmark}, which
+ * compares the sharded tree with the other thread-safe trees.
+ * <p>
+ * {@link #update} and {@link #scan} form a group of three writers and one reader scanning {@link #SCAN_LENGTH}
+ * elements from a picked key, so iterators resume across shards while the writers split them. Small shards split
+ * often and make scans cross more shards, large ones make writers of near keys contend. Run more groups with
+ * <code>-tc</code>, for example <code>-tc 4,8,16</code>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ShardedBenchmark {
+    static final int SCAN_LENGTH = 1_000;
+
+    @Param({"1000000"})
+    int size;
+    @Param({"1024", "65536", "1048576"})
+    int maxShardSize;
+
+    ShardedRedBlackTree<Integer> tree;
+    Integer[] keys;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        keys = new Integer[2 * size];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i;
+        }
+        tree = new ShardedRedBlackTree<>(null, maxShardSize);
+        for (int i : SortedSetState.shuffledIndices(size, new Random(SortedSetState.SEED))) {
+            tree.add(keys[2 * i]);
+        }
+    }
+
+    /**
+     * keys picked by one thread, every thread has its own sequence
+     */
+    @State(Scope.Thread)
+    public static class Picks {
+        int[] stream;
+        int cursor;
+        boolean adding;
+
+        @Setup(Level.Trial)
+        public void pick(ShardedBenchmark benchmark, ThreadParams threads) {
+            stream = KeyDistribution.UNIFORM.indices(benchmark.keys.length, SortedSetState.STREAM_LENGTH,
+                    SortedSetState.SEED + threads.getThreadIndex());
+        }
+
+        int next() {
+            int position = cursor;
+            cursor = (cursor + 1) & SortedSetState.STREAM_LENGTH - 1;
+            return stream[position];
+        }
+    }
+
+    /**
+     * adds and removes picked keys in turn
+     */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public boolean update(Picks picks) {
+        Integer key = keys[picks.next()];
+        picks.adding = !picks.adding;
+        return picks.adding ? tree.add(key) : tree.remove(key);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void scan(Picks picks, Blackhole blackhole) {
+        Iterator<Integer> iterator = tree.rangeIterator(keys[picks.next()], true, null, false);
+        for (int i = 0; i < SCAN_LENGTH && iterator.hasNext(); i++) {
+            blackhole.consume(iterator.next());
+        }
+    }
+}
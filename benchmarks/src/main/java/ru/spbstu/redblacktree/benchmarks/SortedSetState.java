@@ -0,0 +1,86 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * a sorted set of <i>size</i> keys of even indices, added in random order, and a stream of picked indices of these
+ * keys. Keys of odd indices are missing from the set
+ */
+@State(Scope.Thread)
+public abstract class SortedSetState {
+    /**
+     * number of picked indices, the stream is reused in a loop
+     */
+    static final int STREAM_LENGTH = 1 << 16;
+    static final long SEED = 42;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int size;
+    @Param
+    KeyDistribution distribution;
+    @Param
+    KeyType keyType;
+    @Param
+    Implementation implementation;
+
+    Implementation.SortedSet set;
+    /**
+     * keys of the set, the one of index i has index 2i in {@link #keyType}
+     */
+    Object[] keys;
+    int[] stream;
+    /**
+     * missing keys next to the picked ones, made in advance so benchmarks allocate no keys
+     */
+    Object[] missingKeys;
+    int cursor;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        keys = new Object[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = keyType.key(2 * i);
+        }
+        set = implementation.create();
+        for (int i : shuffledIndices(size, new Random(SEED))) {
+            set.add(keys[i]);
+        }
+        stream = distribution.indices(size, STREAM_LENGTH, SEED + 1);
+        missingKeys = new Object[STREAM_LENGTH];
+        for (int i = 0; i < STREAM_LENGTH; i++) {
+            missingKeys[i] = keyType.key(2 * stream[i] + 1);
+        }
+    }
+
+    /**
+     * @return position of the next pick in {@link #stream} and {@link #missingKeys}
+     */
+    int nextPosition() {
+        int position = cursor;
+        cursor = (cursor + 1) & STREAM_LENGTH - 1;
+        return position;
+    }
+
+    /**
+     * @return indices of [0, n) in random order
+     */
+    static int[] shuffledIndices(int n, Random random) {
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = indices[i];
+            indices[i] = indices[j];
+            indices[j] = swap;
+        }
+        return indices;
+    }
+}
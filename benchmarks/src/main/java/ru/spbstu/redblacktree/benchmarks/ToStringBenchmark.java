@@ -0,0 +1,65 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.spbstu.redblacktree.tree.binarytree.AbstractBinaryTree;
+
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * drawing of a tree by {@link AbstractBinaryTree#toString()}. A drawing has a row per level and 2^height cells in a
+ * row, so trees are built of the least height and sizes stop at 100K, where a drawing already takes tens of
+ * megabytes. The sorted key list of {@link TreeMap} is the baseline
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class ToStringBenchmark {
+    @Param({"1000", "10000", "100000"})
+    int size;
+    @Param
+    KeyType keyType;
+    /**
+     * one of {@link BinaryTreeKind} names or TREE_MAP
+     */
+    @Param({"LINKED_BINARY_TREE", "BINARY_SEARCH_TREE", "RED_BLACK_TREE", "TREE_MAP"})
+    String tree;
+
+    private Object built;
+
+    @Setup(Level.Trial)
+    public void build() {
+        Object[] keys = new Object[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = keyType.key(i);
+        }
+        if ("TREE_MAP".equals(tree)) {
+            TreeMap<Object, Boolean> map = new TreeMap<>();
+            for (Object key : keys) {
+                map.put(key, Boolean.TRUE);
+            }
+            built = map.keySet();
+        } else {
+            built = BinaryTreeKind.valueOf(tree).build(keys, BinaryTreeKind.balancedOrder(size));
+        }
+    }
+
+    @Benchmark
+    public String draw() {
+        return built.toString();
+    }
+}
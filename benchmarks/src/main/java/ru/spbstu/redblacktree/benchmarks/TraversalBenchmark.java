@@ -0,0 +1,86 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.spbstu.redblacktree.tree.Node;
+import ru.spbstu.redblacktree.tree.binarytree.AbstractBinaryTree;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * full traversals of a tree in every order. Search trees get their keys in random order
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class TraversalBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int size;
+    @Param
+    KeyType keyType;
+    @Param
+    BinaryTreeKind tree;
+
+    private AbstractBinaryTree<Object> built;
+
+    @Setup(Level.Trial)
+    public void build() {
+        Object[] keys = new Object[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = keyType.key(i);
+        }
+        built = tree.build(keys, SortedSetState.shuffledIndices(size, new Random(SortedSetState.SEED)));
+    }
+
+    @Benchmark
+    public void inOrder(Blackhole blackhole) {
+        consume(built.inOrderIterator(), blackhole);
+    }
+
+    @Benchmark
+    public void preOrder(Blackhole blackhole) {
+        consume(built.preOrderIterator(), blackhole);
+    }
+
+    @Benchmark
+    public void postOrder(Blackhole blackhole) {
+        consume(built.postOrderIterator(), blackhole);
+    }
+
+    @Benchmark
+    public void breadthFirst(Blackhole blackhole) {
+        consume(built.breadthFirstIterator(), blackhole);
+    }
+
+    /**
+     * the element iterator, which search trees implement by successor links
+     */
+    @Benchmark
+    public void elements(Blackhole blackhole) {
+        for (Object element : built) {
+            blackhole.consume(element);
+        }
+    }
+
+    private static void consume(Iterator<Node<Object>> nodes, Blackhole blackhole) {
+        while (nodes.hasNext()) {
+            blackhole.consume(nodes.next());
+        }
+    }
+}
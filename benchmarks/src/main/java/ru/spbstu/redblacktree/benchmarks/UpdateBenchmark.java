@@ -0,0 +1,72 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * additions of missing keys and removals of present keys in batches. Every invocation starts from the filled set:
+ * the setup before it undoes the previous batch outside of the measurement, so the size stays the same. The GC
+ * profiler counts allocations of the setup too, so bytes per operation of {@link #remove()} include the nodes added
+ * back
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class UpdateBenchmark extends SortedSetState {
+    static final int BATCH = 1_000;
+    private final Object[] missingBatch = new Object[BATCH];
+    private final Object[] presentBatch = new Object[BATCH];
+    private boolean added;
+    private boolean removed;
+
+    @Setup(Level.Invocation)
+    public void nextBatch() {
+        if (added) {
+            for (Object key : missingBatch) {
+                set.remove(key);
+            }
+            added = false;
+        }
+        if (removed) {
+            for (Object key : presentBatch) {
+                set.add(key);
+            }
+            removed = false;
+        }
+        for (int i = 0; i < BATCH; i++) {
+            int position = nextPosition();
+            missingBatch[i] = missingKeys[position];
+            presentBatch[i] = keys[stream[position]];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void add() {
+        for (Object key : missingBatch) {
+            set.add(key);
+        }
+        added = true;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void remove() {
+        for (Object key : presentBatch) {
+            set.remove(key);
+        }
+        removed = true;
+    }
+}
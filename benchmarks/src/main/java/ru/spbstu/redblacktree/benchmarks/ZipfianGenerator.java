@@ -0,0 +1,67 @@
+package ru.spbstu.redblacktree.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Zipf-distributed ranks in [0, n) with the constant 0.99, as generated by Gray et al. "Quickly generating
+ * billion-record synthetic databases". The zeta constant takes O(n) once, every rank takes O(1)
+ */
+final class ZipfianGenerator {
+    private static final double THETA = 0.99;
+    /**
+     * multiplying by it modulo n permutes [0, n) if n is coprime with it, as the power-of-ten sizes of benchmarks are
+     */
+    private static final long SCRAMBLE = 2_654_435_761L;
+    private final int n;
+    private final Random random;
+    private final double zetaN;
+    private final double alpha;
+    private final double eta;
+    private final boolean scramblePermutes;
+
+    ZipfianGenerator(int n, long seed) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be positive");
+        }
+        this.n = n;
+        this.random = new Random(seed);
+        this.zetaN = zeta(n);
+        this.alpha = 1 / (1 - THETA);
+        this.eta = (1 - Math.pow(2.0 / n, 1 - THETA)) / (1 - zeta(2) / zetaN);
+        this.scramblePermutes = gcd(SCRAMBLE % n, n) == 1;
+    }
+
+    /**
+     * @return rank, 0 is the most frequent one
+     */
+    int next() {
+        double u = random.nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1) {
+            return 0;
+        } else if (uz < 1 + Math.pow(0.5, THETA)) {
+            return Math.min(1, n - 1);
+        }
+        return (int) Math.min(n - 1, (long) (n * Math.pow(eta * u - eta + 1, alpha)));
+    }
+
+    /**
+     * @return rank mapped to an index, so hot indices are not all at the start of the range
+     */
+    int nextScrambled() {
+        int rank = next();
+        return scramblePermutes ? (int) (rank * SCRAMBLE % n) : rank;
+    }
+
+    private static double zeta(int n) {
+        double sum = 0;
+        for (int i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, THETA);
+        }
+        return sum;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
@@ -0,0 +1,363 @@
+package ru.spbstu.redblacktree.storage;
+
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.CheckpointableRedBlackTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.CheckpointableRedBlackTree.DirtyRange;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import static java.util.Objects.isNull;
+
+/**
+ * incremental checkpoints of a {@link CheckpointableRedBlackTree} in a directory: a base {@link TreeSnapshot}
+ * followed by deltas which hold only the regions changed since the previous checkpoint, so a checkpoint writes
+ * O(k) elements for k changes instead of the whole tree.
+ * <p>
+ * A delta file consists of a header
+ * <pre>[int magic][int version][int fixed element size or -1][int number of ranges]</pre>
+ * followed by ranges of
+ * <pre>[byte bounds][least element][greatest element][int number of elements][elements]</pre>
+ * where a bound is omitted if the range is unbounded on that side, and by the int CRC32 of everything before it.
+ * The manifest lists the base and the deltas in order and is replaced atomically after the new file and the directory
+ * entry of the new file are forced, so a crash during a checkpoint leaves the previous checkpoint readable. A full
+ * snapshot is written instead of a delta if the tree was rewritten by a bulk operation or the manifest already has
+ * {@link #getMaxDeltas()} deltas, the files of the old checkpoint are deleted then, once the replaced manifest is
+ * forced to the directory.
+ * <p>
+ * The store is not thread-safe, the tree must not be changed during {@link #checkpoint} or {@link #restore}.
+ *
+ * @param <E> element
+ */
+public class CheckpointStore<E> {
+    public static final int DEFAULT_MAX_DELTAS = 16;
+    static final String MANIFEST = "MANIFEST";
+    private static final int MANIFEST_MAGIC = 0x52424d46;
+    private static final int DELTA_MAGIC = 0x5242444c;
+    private static final int VERSION = 1;
+    private static final int LOW_BOUNDED = 1;
+    private static final int HIGH_BOUNDED = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private final Path directory;
+    private final ElementCodec<E> codec;
+    private final int maxDeltas;
+    /**
+     * sequence number of the base snapshot, 0 if there is no checkpoint yet
+     */
+    private long base;
+    private final List<Long> deltas = new ArrayList<>();
+    private long lastSequence;
+
+    private CheckpointStore(Path directory, ElementCodec<E> codec, int maxDeltas) {
+        this.directory = directory;
+        this.codec = codec;
+        this.maxDeltas = maxDeltas;
+    }
+
+    /**
+     * @see #open(Path, ElementCodec, int)
+     */
+    public static <E> CheckpointStore<E> open(Path directory, ElementCodec<E> codec) throws IOException {
+        return open(directory, codec, DEFAULT_MAX_DELTAS);
+    }
+
+    /**
+     * opens the store in <i>directory</i>, creating the directory if it does not exist
+     *
+     * @param directory directory of the checkpoint files
+     * @param codec     element codec
+     * @param maxDeltas number of deltas after which the next checkpoint is a full snapshot
+     * @return store
+     * @throws IOException if the directory cannot be created or the manifest cannot be read
+     */
+    public static <E> CheckpointStore<E> open(Path directory, ElementCodec<E> codec, int maxDeltas)
+            throws IOException {
+        if (maxDeltas <= 0) {
+            throw new IllegalArgumentException("max deltas must be positive");
+        }
+        Files.createDirectories(directory);
+        CheckpointStore<E> store = new CheckpointStore<>(directory, codec, maxDeltas);
+        store.readManifest();
+        return store;
+    }
+
+    /**
+     * writes the changes of <i>tree</i> since its previous checkpoint and marks the tree clean. Nothing is written
+     * if the tree has not changed
+     *
+     * @param tree tree to checkpoint, the same tree (or the one restored from this store) every time
+     * @return the number of written elements
+     * @throws IOException if the checkpoint cannot be written, the tree keeps its marks then
+     */
+    public int checkpoint(CheckpointableRedBlackTree<E> tree) throws IOException {
+        int written;
+        if (base == 0 || tree.isRewritten() || deltas.size() >= maxDeltas) {
+            long sequence = lastSequence + 1;
+            TreeSnapshot.write(tree, codec, baseFile(sequence));
+            List<Path> obsolete = checkpointFiles();
+            writeManifest(sequence, new ArrayList<>());
+            for (Path file : obsolete) {
+                Files.deleteIfExists(file);
+            }
+            lastSequence = sequence;
+            base = sequence;
+            deltas.clear();
+            written = tree.size();
+        } else if (tree.isDirty()) {
+            long sequence = lastSequence + 1;
+            written = writeDelta(tree.dirtyRanges(), deltaFile(sequence));
+            List<Long> newDeltas = new ArrayList<>(deltas);
+            newDeltas.add(sequence);
+            writeManifest(base, newDeltas);
+            lastSequence = sequence;
+            deltas.add(sequence);
+        } else {
+            written = 0;
+        }
+        tree.markClean();
+        return written;
+    }
+
+    /**
+     * builds <i>tree</i> from the base snapshot and applies the deltas in order. The tree is marked clean, so it
+     * can be checkpointed to this store again
+     *
+     * @param tree empty tree ordered the same way as the checkpointed one
+     * @return false if there is no checkpoint yet
+     * @throws IOException           if a file cannot be read or is damaged
+     * @throws IllegalStateException if the tree is not empty
+     */
+    public boolean restore(CheckpointableRedBlackTree<E> tree) throws IOException {
+        if (base == 0) {
+            if (tree.size() != 0) {
+                throw new IllegalStateException("tree is not empty");
+            }
+            return false;
+        }
+        TreeSnapshot.read(baseFile(base), codec, tree);
+        try {
+            for (long delta : deltas) {
+                applyDelta(deltaFile(delta), tree);
+            }
+        } catch (IOException | RuntimeException e) {
+            tree.clear();
+            throw e;
+        }
+        tree.markClean();
+        return true;
+    }
+
+    /**
+     * @return the number of deltas after the base snapshot
+     */
+    public int deltaCount() {
+        return deltas.size();
+    }
+
+    public int getMaxDeltas() {
+        return maxDeltas;
+    }
+
+    private Path baseFile(long sequence) {
+        return directory.resolve("base-" + sequence + ".snapshot");
+    }
+
+    private Path deltaFile(long sequence) {
+        return directory.resolve("delta-" + sequence + ".delta");
+    }
+
+    private List<Path> checkpointFiles() {
+        List<Path> files = new ArrayList<>();
+        if (base != 0) {
+            files.add(baseFile(base));
+        }
+        for (long delta : deltas) {
+            files.add(deltaFile(delta));
+        }
+        return files;
+    }
+
+    private int writeDelta(List<DirtyRange<E>> ranges, Path file) throws IOException {
+        int written = 0;
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE), crc));
+            out.writeInt(DELTA_MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(codec.fixedSize());
+            out.writeInt(ranges.size());
+            for (DirtyRange<E> range : ranges) {
+                int bounds = (isNull(range.getLow()) ? 0 : LOW_BOUNDED) | (isNull(range.getHigh()) ? 0 : HIGH_BOUNDED);
+                out.writeByte(bounds);
+                if (!isNull(range.getLow())) {
+                    writeElement(range.getLow(), out);
+                }
+                if (!isNull(range.getHigh())) {
+                    writeElement(range.getHigh(), out);
+                }
+                out.writeInt(range.getElements().size());
+                for (E element : range.getElements()) {
+                    writeElement(element, out);
+                }
+                written += range.getElements().size();
+            }
+            out.writeInt((int) crc.getValue());
+            out.flush();
+            channel.force(true);
+        }
+        return written;
+    }
+
+    private void applyDelta(Path file, CheckpointableRedBlackTree<E> tree) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream stream = Files.newInputStream(file)) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(
+                    new BufferedInputStream(stream, BUFFER_SIZE), crc));
+            if (in.readInt() != DELTA_MAGIC) {
+                throw new IOException("not a checkpoint delta");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported delta version " + version);
+            }
+            if (in.readInt() != codec.fixedSize()) {
+                throw new IOException("delta was written with another codec");
+            }
+            int count = in.readInt();
+            List<E> lows = new ArrayList<>();
+            List<E> highs = new ArrayList<>();
+            List<List<E>> contents = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                int bounds = in.readByte();
+                lows.add((bounds & LOW_BOUNDED) == 0 ? null : readElement(in));
+                highs.add((bounds & HIGH_BOUNDED) == 0 ? null : readElement(in));
+                int size = in.readInt();
+                if (size < 0) {
+                    throw new IOException("delta is damaged: negative number of elements");
+                }
+                List<E> elements = new ArrayList<>();
+                for (int j = 0; j < size; j++) {
+                    elements.add(readElement(in));
+                }
+                contents.add(elements);
+            }
+            int expected = (int) crc.getValue();
+            if (in.readInt() != expected) {
+                throw new IOException("delta is damaged: checksum mismatch");
+            }
+            //ranges are applied only after the whole file is verified
+            for (int i = 0; i < count; i++) {
+                tree.replaceRange(lows.get(i), highs.get(i), contents.get(i));
+            }
+        }
+    }
+
+    private void writeElement(E element, DataOutputStream out) throws IOException {
+        int size = codec.encodedSize(element);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        codec.encode(element, buffer);
+        if (codec.fixedSize() == ElementCodec.VARIABLE_SIZE) {
+            out.writeInt(size);
+        }
+        out.write(buffer.array(), 0, size);
+    }
+
+    private E readElement(DataInputStream in) throws IOException {
+        int size = codec.fixedSize() == ElementCodec.VARIABLE_SIZE ? in.readInt() : codec.fixedSize();
+        if (size < 0) {
+            throw new IOException("delta is damaged: negative element size");
+        }
+        byte[] bytes = new byte[size];
+        in.readFully(bytes);
+        return codec.decode(ByteBuffer.wrap(bytes));
+    }
+
+    private void readManifest() throws IOException {
+        Path file = directory.resolve(MANIFEST);
+        if (!Files.exists(file)) {
+            return;
+        }
+        CRC32 crc = new CRC32();
+        try (InputStream stream = Files.newInputStream(file)) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(new BufferedInputStream(stream), crc));
+            if (in.readInt() != MANIFEST_MAGIC) {
+                throw new IOException("not a checkpoint manifest");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported manifest version " + version);
+            }
+            long baseSequence = in.readLong();
+            int count = in.readInt();
+            if (baseSequence <= 0 || count < 0) {
+                throw new IOException("manifest is damaged");
+            }
+            List<Long> deltaSequences = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                deltaSequences.add(in.readLong());
+            }
+            int expected = (int) crc.getValue();
+            if (in.readInt() != expected) {
+                throw new IOException("manifest is damaged: checksum mismatch");
+            }
+            base = baseSequence;
+            deltas.addAll(deltaSequences);
+            lastSequence = deltas.isEmpty() ? base : Math.max(base, deltas.get(deltas.size() - 1));
+        }
+    }
+
+    /**
+     * writes the manifest next to the current one and moves it over the current one. The directory is forced before,
+     * so the files the manifest lists are durable, and after the move, so the files the old manifest listed can be
+     * deleted
+     */
+    private void writeManifest(long baseSequence, List<Long> deltaSequences) throws IOException {
+        forceDirectory();
+        Path temporary = directory.resolve(MANIFEST + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel)), crc));
+            out.writeInt(MANIFEST_MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(baseSequence);
+            out.writeInt(deltaSequences.size());
+            for (long delta : deltaSequences) {
+                out.writeLong(delta);
+            }
+            out.writeInt((int) crc.getValue());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory();
+    }
+
+    /**
+     * forces the entries of the directory, file creations and renames are not durable until then
+     */
+    private void forceDirectory() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package ru.spbstu.redblacktree.storage;
+
+import ru.spbstu.redblacktree.tree.binarytree.search.BinarySearchTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static java.util.Objects.isNull;
+
+/**
+ * thread-safe {@link RedBlackTree} which logs every change to a {@link WriteAheadLog} with group commit.
+ * <p>
+ * A change is appended to the log and applied to the tree under the write lock, so the log keeps the order of
+ * changes. The writer then releases the lock and waits for a force of the log, which is shared with all writers
+ * that appended in the meantime. A successful {@link #add} or {@link #remove} is therefore durable, while the cost of
+ * a force is split among concurrent writers. Readers see changes before they are durable, and a change stays applied
+ * if the force fails.
+ *
+ * @param <E> element
+ */
+public class DurableRedBlackTree<E> implements Closeable {
+    private final RedBlackTree<E> tree;
+    private final WriteAheadLog<E> log;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private DurableRedBlackTree(RedBlackTree<E> tree, WriteAheadLog<E> log) {
+        this.tree = tree;
+        this.log = log;
+    }
+
+    /**
+     * opens the log and restores the tree from it, elements are ordered by their natural ordering
+     *
+     * @see #open(Path, ElementCodec, Comparator, GroupCommit)
+     */
+    public static <E> DurableRedBlackTree<E> open(Path file, ElementCodec<E> codec, GroupCommit groupCommit)
+            throws IOException {
+        return open(file, codec, null, groupCommit);
+    }
+
+    /**
+     * opens or creates the log and restores the tree from it
+     *
+     * @param file        log file
+     * @param codec       element codec
+     * @param comparator  element comparator (or null for the natural ordering)
+     * @param groupCommit batching of forces
+     * @return tree with the replayed elements
+     * @throws IOException if the log cannot be opened
+     */
+    public static <E> DurableRedBlackTree<E> open(Path file, ElementCodec<E> codec, Comparator<? super E> comparator,
+                                                  GroupCommit groupCommit) throws IOException {
+        RedBlackTree<E> tree = new RedBlackTree<>(comparator);
+        return new DurableRedBlackTree<>(tree, WriteAheadLog.open(file, codec, groupCommit, tree));
+    }
+
+    /**
+     * @param val element to add
+     * @return true if the tree did not contain <i>val</i>
+     * @throws IOException if the change cannot be logged. The tree is not changed if the record cannot be appended,
+     *                     but if it cannot be forced, the change is already applied and visible to readers and may
+     *                     be lost on a crash
+     */
+    public boolean add(E val) throws IOException {
+        if (isNull(val)) {
+            throw new IllegalArgumentException(BinarySearchTree.NULL_NODE_MSG);
+        }
+        long position;
+        lock.writeLock().lock();
+        try {
+            if (!isNull(tree.search(val))) {
+                return false;
+            }
+            position = log.appendAdd(val);
+            tree.add(val);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.awaitDurable(position);
+        return true;
+    }
+
+    /**
+     * @param val element to remove
+     * @return true if the tree contained <i>val</i>
+     * @throws IOException if the change cannot be logged. The tree is not changed if the record cannot be appended,
+     *                     but if it cannot be forced, the change is already applied and visible to readers and may
+     *                     be lost on a crash
+     */
+    public boolean remove(E val) throws IOException {
+        long position;
+        lock.writeLock().lock();
+        try {
+            if (isNull(tree.search(val))) {
+                return false;
+            }
+            position = log.appendRemove(val);
+            tree.remove(val);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.awaitDurable(position);
+        return true;
+    }
+
+    /**
+     * @param val value to search
+     * @return true if the tree contains <i>val</i>
+     */
+    public boolean contains(E val) {
+        lock.readLock().lock();
+        try {
+            return !isNull(tree.search(val));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of elements
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tree.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.readLock().lock();
+        try {
+            return tree.asNavigableSet().toString();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * closes the log, the tree must not be changed afterwards
+     *
+     * @throws IOException if the log cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            log.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package ru.spbstu.redblacktree.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * converts elements to bytes and back for on-disk storage
+ *
+ * @param <E> element
+ */
+public interface ElementCodec<E> {
+    /**
+     * {@link #fixedSize()} of codecs which encode elements to different numbers of bytes
+     */
+    int VARIABLE_SIZE = -1;
+
+    ElementCodec<Integer> INTEGER = new ElementCodec<Integer>() {
+        @Override
+        public int fixedSize() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public int encodedSize(Integer element) {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void encode(Integer element, ByteBuffer target) {
+            target.putInt(element);
+        }
+
+        @Override
+        public Integer decode(ByteBuffer source) {
+            return source.getInt();
+        }
+    };
+
+    ElementCodec<Long> LONG = new ElementCodec<Long>() {
+        @Override
+        public int fixedSize() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public int encodedSize(Long element) {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void encode(Long element, ByteBuffer target) {
+            target.putLong(element);
+        }
+
+        @Override
+        public Long decode(ByteBuffer source) {
+            return source.getLong();
+        }
+    };
+
+    ElementCodec<Double> DOUBLE = new ElementCodec<Double>() {
+        @Override
+        public int fixedSize() {
+            return Double.BYTES;
+        }
+
+        @Override
+        public int encodedSize(Double element) {
+            return Double.BYTES;
+        }
+
+        @Override
+        public void encode(Double element, ByteBuffer target) {
+            target.putDouble(element);
+        }
+
+        @Override
+        public Double decode(ByteBuffer source) {
+            return source.getDouble();
+        }
+    };
+
+    /**
+     * UTF-8 bytes of a string, the length is known from the record. Encoding goes char by char without
+     * intermediate arrays. A string with an unpaired surrogate has no UTF-8 form, so {@link #encodedSize} rejects it
+     * with {@link IllegalArgumentException} before anything is written
+     */
+    ElementCodec<String> STRING = new ElementCodec<String>() {
+        @Override
+        public int encodedSize(String element) {
+            int size = 0;
+            for (int i = 0; i < element.length(); i++) {
+                char c = element.charAt(i);
+                if (c < 0x80) {
+                    size++;
+                } else if (c < 0x800) {
+                    size += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < element.length()
+                        && Character.isLowSurrogate(element.charAt(i + 1))) {
+                    size += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    throw new IllegalArgumentException("unpaired surrogate at index " + i);
+                } else {
+                    size += 3;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public void encode(String element, ByteBuffer target) {
+            for (int i = 0; i < element.length(); i++) {
+                char c = element.charAt(i);
+                if (c < 0x80) {
+                    target.put((byte) c);
+                } else if (c < 0x800) {
+                    target.put((byte) (0xc0 | c >> 6)).put((byte) (0x80 | c & 0x3f));
+                } else if (Character.isHighSurrogate(c) && i + 1 < element.length()
+                        && Character.isLowSurrogate(element.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, element.charAt(++i));
+                    target.put((byte) (0xf0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3f))
+                            .put((byte) (0x80 | codePoint >> 6 & 0x3f)).put((byte) (0x80 | codePoint & 0x3f));
+                } else if (Character.isSurrogate(c)) {
+                    throw new IllegalArgumentException("unpaired surrogate at index " + i);
+                } else {
+                    target.put((byte) (0xe0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3f))
+                            .put((byte) (0x80 | c & 0x3f));
+                }
+            }
+        }
+
+        @Override
+        public String decode(ByteBuffer source) {
+            byte[] bytes = new byte[source.remaining()];
+            source.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * @return number of bytes of every encoded element (or {@link #VARIABLE_SIZE} if it depends on the element)
+     */
+    default int fixedSize() {
+        return VARIABLE_SIZE;
+    }
+
+    /**
+     * @param element element to encode
+     * @return number of bytes {@link #encode} writes for <i>element</i>
+     */
+    int encodedSize(E element);
+
+    /**
+     * writes <i>element</i> at the position of <i>target</i>
+     *
+     * @param element element to encode
+     * @param target  buffer with at least {@link #encodedSize} bytes remaining
+     */
+    void encode(E element, ByteBuffer target);
+
+    /**
+     * reads an element from the remaining bytes of <i>source</i>
+     *
+     * @param source bytes of exactly one encoded element
+     * @return decoded element
+     */
+    E decode(ByteBuffer source);
+}
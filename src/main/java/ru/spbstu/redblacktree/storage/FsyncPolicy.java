@@ -0,0 +1,26 @@
+package ru.spbstu.redblacktree.storage;
+
+/**
+ * when a {@link WriteAheadLog} forces appended records from the OS cache to the device. Every record reaches the
+ * OS as soon as it is appended, so it survives a crash of the process under any policy
+ */
+public enum FsyncPolicy {
+    /**
+     * force after every record, nothing is lost on power failure
+     */
+    ALWAYS,
+    /**
+     * force on append once the interval has passed since the last force, records of the last interval may be lost
+     * on power failure
+     */
+    INTERVAL,
+    /**
+     * group commit: a writer waits until one force covers its record together with the records of concurrent
+     * writers, nothing is lost on power failure. Batching is set by {@link GroupCommit}
+     */
+    GROUP,
+    /**
+     * force only on {@link WriteAheadLog#sync()} and on close, the OS decides when to write the rest
+     */
+    NEVER
+}
@@ -0,0 +1,37 @@
+package ru.spbstu.redblacktree.storage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * settings of {@link FsyncPolicy#GROUP}: how many waiting writers make a batch and how long the first of them waits
+ * for the others before forcing the log
+ */
+public final class GroupCommit {
+    public static final GroupCommit DEFAULT = new GroupCommit(64, 1, TimeUnit.MILLISECONDS);
+    private final int batchSize;
+    private final long maxDelayNanos;
+
+    /**
+     * @param batchSize number of waiting writers which is forced without further delay
+     * @param maxDelay  longest time to wait for a batch to fill
+     * @param unit      unit of <i>maxDelay</i>
+     * @throws IllegalArgumentException if <i>batchSize</i> is not positive or <i>maxDelay</i> is negative
+     */
+    public GroupCommit(int batchSize, long maxDelay, TimeUnit unit) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batch size must be positive");
+        } else if (maxDelay < 0) {
+            throw new IllegalArgumentException("delay is negative");
+        }
+        this.batchSize = batchSize;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getMaxDelayNanos() {
+        return maxDelayNanos;
+    }
+}
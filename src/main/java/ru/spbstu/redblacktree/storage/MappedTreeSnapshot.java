@@ -0,0 +1,494 @@
+package ru.spbstu.redblacktree.storage;
+
+import ru.spbstu.redblacktree.tree.binarytree.search.ReadableSearchTree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.zip.CRC32;
+
+import static java.util.Objects.isNull;
+
+/**
+ * read-only sorted set served right from a memory-mapped {@link TreeSnapshot} file.
+ * <p>
+ * Opening reads only the header, so it takes the same time for any number of elements, and the mapped pages are
+ * shared through the page cache by every process that maps the file. Elements are sorted in the file, so searches
+ * are binary searches that decode O(log n) elements, found by their index: directly for codecs of a fixed size and
+ * through the offsets at the end of the file otherwise. Ranges and views are index intervals, iteration decodes the
+ * elements one by one.
+ * <p>
+ * The snapshot is immutable and safe to read from several threads. The mapping is released by the garbage collector,
+ * since unmapping it while a reader still uses it would crash the JVM. Files larger than 2 GB cannot be mapped.
+ *
+ * @param <E> element
+ */
+public class MappedTreeSnapshot<E> implements ReadableSearchTree<E> {
+    private static final String OUT_OF_RANGE_MSG = "element out of range";
+    private final ByteBuffer data;
+    private final ElementCodec<E> codec;
+    private final Comparator<? super E> comparator;
+    private final int size;
+    private final int fixedSize;
+    /**
+     * position of the element offsets if elements have no fixed size
+     */
+    private final int offsets;
+
+    private MappedTreeSnapshot(ByteBuffer data, ElementCodec<E> codec, Comparator<? super E> comparator)
+            throws IOException {
+        this.data = data;
+        this.codec = codec;
+        this.comparator = comparator;
+        if (data.getInt(0) != TreeSnapshot.MAGIC) {
+            throw new IOException("not a tree snapshot");
+        }
+        int version = data.getInt(Integer.BYTES);
+        fixedSize = data.getInt(2 * Integer.BYTES);
+        if (fixedSize != codec.fixedSize()) {
+            throw new IOException("snapshot was written with another codec");
+        } else if (version != TreeSnapshot.VERSION && (version != TreeSnapshot.UNINDEXED_VERSION
+                || fixedSize == ElementCodec.VARIABLE_SIZE)) {
+            throw new IOException("unsupported snapshot version " + version);
+        }
+        long count = data.getLong(3 * Integer.BYTES);
+        long elementsEnd = fixedSize == ElementCodec.VARIABLE_SIZE
+                ? data.capacity() - Integer.BYTES - count * Long.BYTES
+                : TreeSnapshot.HEADER_SIZE + count * fixedSize;
+        if (count < 0 || count > Integer.MAX_VALUE || elementsEnd < TreeSnapshot.HEADER_SIZE
+                || fixedSize != ElementCodec.VARIABLE_SIZE && elementsEnd + Integer.BYTES != data.capacity()) {
+            throw new IOException("snapshot is damaged: size of the file does not match number of elements");
+        }
+        size = (int) count;
+        offsets = fixedSize == ElementCodec.VARIABLE_SIZE ? (int) elementsEnd : -1;
+    }
+
+    /**
+     * maps the snapshot of elements in natural ordering
+     *
+     * @see #open(Path, ElementCodec, Comparator)
+     */
+    public static <E> MappedTreeSnapshot<E> open(Path file, ElementCodec<E> codec) throws IOException {
+        return open(file, codec, null);
+    }
+
+    /**
+     * maps the snapshot file and reads its header
+     *
+     * @param file       snapshot file
+     * @param codec      element codec the snapshot was written with
+     * @param comparator comparator the snapshot was ordered by (or null for the natural ordering)
+     * @return snapshot reading elements from the mapped file
+     * @throws IOException if the file cannot be mapped or its header is wrong
+     */
+    public static <E> MappedTreeSnapshot<E> open(Path file, ElementCodec<E> codec, Comparator<? super E> comparator)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException("snapshot is too large to be mapped");
+            } else if (fileSize < TreeSnapshot.HEADER_SIZE + Integer.BYTES) {
+                throw new IOException("not a tree snapshot");
+            }
+            return new MappedTreeSnapshot<>(channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize), codec,
+                    comparator);
+        }
+    }
+
+    /**
+     * checks the checksum of the whole file, which reads every page of it
+     *
+     * @throws IOException if the checksum does not match
+     */
+    public void verify() throws IOException {
+        ByteBuffer view = data.duplicate();
+        view.limit(data.capacity() - Integer.BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(view);
+        if ((int) crc.getValue() != data.getInt(data.capacity() - Integer.BYTES)) {
+            throw new IOException("snapshot is damaged: checksum mismatch");
+        }
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public E search(E val) {
+        ByteBuffer view = data.duplicate();
+        int index = boundIndex(view, val, true);
+        if (index == size) {
+            return null;
+        }
+        E element = element(view, index);
+        return compare(element, val) == 0 ? element : null;
+    }
+
+    @Override
+    public E floor(E val) {
+        return asNavigableSet().floor(val);
+    }
+
+    @Override
+    public E ceiling(E val) {
+        return asNavigableSet().ceiling(val);
+    }
+
+    @Override
+    public E higher(E val) {
+        return asNavigableSet().higher(val);
+    }
+
+    @Override
+    public E lower(E val) {
+        return asNavigableSet().lower(val);
+    }
+
+    @Override
+    public E first() {
+        return asNavigableSet().first();
+    }
+
+    @Override
+    public E last() {
+        return asNavigableSet().last();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return asNavigableSet().iterator();
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return asNavigableSet().descendingIterator();
+    }
+
+    /**
+     * @return read-only view of all elements
+     */
+    @Override
+    public NavigableSet<E> asNavigableSet() {
+        return new IndexRange(0, size, false, null, false, null, false);
+    }
+
+    @Override
+    public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        return asNavigableSet().subSet(fromElement, fromInclusive, toElement, toInclusive);
+    }
+
+    @Override
+    public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+        return asNavigableSet().headSet(toElement, inclusive);
+    }
+
+    @Override
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+        return asNavigableSet().tailSet(fromElement, inclusive);
+    }
+
+    @Override
+    public String toString() {
+        return asNavigableSet().toString();
+    }
+
+    /**
+     * @param view  duplicate of {@link #data} owned by the caller
+     * @param index index of the element in ascending order
+     * @return decoded element
+     */
+    private E element(ByteBuffer view, int index) {
+        int offset;
+        int length;
+        view.clear();
+        if (fixedSize == ElementCodec.VARIABLE_SIZE) {
+            int record = (int) view.getLong(offsets + index * Long.BYTES);
+            offset = record + Integer.BYTES;
+            length = view.getInt(record);
+        } else {
+            offset = TreeSnapshot.HEADER_SIZE + index * fixedSize;
+            length = fixedSize;
+        }
+        view.position(offset).limit(offset + length);
+        return codec.decode(view);
+    }
+
+    /**
+     * @param inclusive true to search the least element greater than or equal to <i>val</i>, false to search the
+     *                  least element strictly greater than it
+     * @return index of the found element (or {@link #size} if there is no such element)
+     */
+    private int boundIndex(ByteBuffer view, E val, boolean inclusive) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int middle = (lo + hi) >>> 1;
+            int compare = compare(element(view, middle), val);
+            if (compare < 0 || compare == 0 && !inclusive) {
+                lo = middle + 1;
+            } else {
+                hi = middle;
+            }
+        }
+        return lo;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(E val1, E val2) {
+        return isNull(comparator) ? ((Comparable<E>) val1).compareTo(val2) : comparator.compare(val1, val2);
+    }
+
+    /**
+     * read-only view of the elements with indices from <i>from</i> inclusive to <i>to</i> exclusive, possibly in
+     * descending order. The view also keeps its bounds in ascending order, <i>lo</i> and <i>hi</i> are null if
+     * unbounded, since bounds of nested views must lie within them as in {@link java.util.TreeMap}
+     */
+    private class IndexRange extends AbstractSet<E> implements NavigableSet<E> {
+        private final int from;
+        private final int to;
+        private final boolean descending;
+        private final E lo;
+        private final boolean loInclusive;
+        private final E hi;
+        private final boolean hiInclusive;
+
+        IndexRange(int from, int to, boolean descending, E lo, boolean loInclusive, E hi, boolean hiInclusive) {
+            this.from = from;
+            this.to = Math.max(from, to);
+            this.descending = descending;
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object o) {
+            if (isNull(o)) {
+                return false;
+            }
+            try {
+                ByteBuffer view = data.duplicate();
+                int index = boundIndex(view, (E) o, true);
+                return index >= from && index < to && compare(element(view, index), (E) o) == 0;
+            } catch (ClassCastException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new IndexIterator(descending);
+        }
+
+        @Override
+        public Iterator<E> descendingIterator() {
+            return new IndexIterator(!descending);
+        }
+
+        @Override
+        public Comparator<? super E> comparator() {
+            return descending ? Collections.reverseOrder(comparator) : comparator;
+        }
+
+        @Override
+        public E first() {
+            return existing(descending ? to - 1 : from);
+        }
+
+        @Override
+        public E last() {
+            return existing(descending ? from : to - 1);
+        }
+
+        @Override
+        public E lower(E e) {
+            return descending ? elementOrNull(lowIndex(e, false)) : elementOrNull(lowIndex(e, true) - 1);
+        }
+
+        @Override
+        public E floor(E e) {
+            return descending ? elementOrNull(lowIndex(e, true)) : elementOrNull(lowIndex(e, false) - 1);
+        }
+
+        @Override
+        public E ceiling(E e) {
+            return descending ? elementOrNull(lowIndex(e, false) - 1) : elementOrNull(lowIndex(e, true));
+        }
+
+        @Override
+        public E higher(E e) {
+            return descending ? elementOrNull(lowIndex(e, true) - 1) : elementOrNull(lowIndex(e, false));
+        }
+
+        @Override
+        public E pollFirst() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public E pollLast() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public NavigableSet<E> descendingSet() {
+            return new IndexRange(from, to, !descending, lo, loInclusive, hi, hiInclusive);
+        }
+
+        @Override
+        public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+            int compare = compare(fromElement, toElement);
+            if (descending ? compare < 0 : compare > 0) {
+                throw new IllegalArgumentException("fromElement > toElement");
+            }
+            checkBound(fromElement, fromInclusive);
+            checkBound(toElement, toInclusive);
+            if (descending) {
+                return new IndexRange(lowIndex(toElement, toInclusive), lowIndex(fromElement, !fromInclusive), true,
+                        toElement, toInclusive, fromElement, fromInclusive);
+            }
+            return new IndexRange(lowIndex(fromElement, fromInclusive), lowIndex(toElement, !toInclusive), false,
+                    fromElement, fromInclusive, toElement, toInclusive);
+        }
+
+        @Override
+        public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+            checkBound(toElement, inclusive);
+            if (descending) {
+                return new IndexRange(lowIndex(toElement, inclusive), to, true, toElement, inclusive, hi, hiInclusive);
+            }
+            return new IndexRange(from, lowIndex(toElement, !inclusive), false, lo, loInclusive, toElement, inclusive);
+        }
+
+        @Override
+        public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+            checkBound(fromElement, inclusive);
+            if (descending) {
+                return new IndexRange(from, lowIndex(fromElement, !inclusive), true, lo, loInclusive, fromElement,
+                        inclusive);
+            }
+            return new IndexRange(lowIndex(fromElement, inclusive), to, false, fromElement, inclusive, hi,
+                    hiInclusive);
+        }
+
+        @Override
+        public SortedSet<E> subSet(E fromElement, E toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> headSet(E toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> tailSet(E fromElement) {
+            return tailSet(fromElement, true);
+        }
+
+        /**
+         * @param inclusive true for the index of the least element greater than or equal to <i>e</i>, false for the
+         *                  least element strictly greater than it
+         * @return the index clamped to the view
+         */
+        private int lowIndex(E e, boolean inclusive) {
+            if (isNull(e)) {
+                throw new NullPointerException();
+            }
+            return Math.max(from, Math.min(to, boundIndex(data.duplicate(), e, inclusive)));
+        }
+
+        /**
+         * new bound of a nested view must lie within the closed range of this view, and an inclusive one within the
+         * view itself, so a nested view never reaches beyond an excluded bound
+         */
+        private void checkBound(E e, boolean inclusive) {
+            if (isNull(e)) {
+                throw new NullPointerException();
+            }
+            if (inclusive ? tooLow(e) || tooHigh(e)
+                    : !isNull(lo) && compare(e, lo) < 0 || !isNull(hi) && compare(e, hi) > 0) {
+                throw new IllegalArgumentException(OUT_OF_RANGE_MSG);
+            }
+        }
+
+        private boolean tooLow(E e) {
+            if (isNull(lo)) {
+                return false;
+            }
+            int compare = compare(e, lo);
+            return compare < 0 || compare == 0 && !loInclusive;
+        }
+
+        private boolean tooHigh(E e) {
+            if (isNull(hi)) {
+                return false;
+            }
+            int compare = compare(e, hi);
+            return compare > 0 || compare == 0 && !hiInclusive;
+        }
+
+        private E elementOrNull(int index) {
+            return index < from || index >= to ? null : element(data.duplicate(), index);
+        }
+
+        private E existing(int index) {
+            if (from == to) {
+                throw new NoSuchElementException();
+            }
+            return element(data.duplicate(), index);
+        }
+
+        /**
+         * decodes elements of the view one by one
+         */
+        private class IndexIterator implements Iterator<E> {
+            private final ByteBuffer view = data.duplicate();
+            private final boolean backward;
+            private int next;
+
+            IndexIterator(boolean backward) {
+                this.backward = backward;
+                this.next = backward ? to - 1 : from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return backward ? next >= from : next < to;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                E element = element(view, next);
+                next += backward ? -1 : 1;
+                return element;
+            }
+        }
+    }
+}
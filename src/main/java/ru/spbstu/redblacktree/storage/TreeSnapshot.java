@@ -0,0 +1,304 @@
+package ru.spbstu.redblacktree.storage;
+
+import ru.spbstu.redblacktree.tree.Node;
+import ru.spbstu.redblacktree.tree.binarytree.search.BinarySearchTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTree;
+import ru.spbstu.redblacktree.utils.BufferUtils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+import static java.util.Objects.isNull;
+
+/**
+ * binary snapshot of a search tree: elements in ascending order, written and read through a {@link FileChannel}
+ * with a direct buffer.
+ * <p>
+ * The file consists of a header
+ * <pre>[int magic][int version][int fixed element size or -1][long number of elements]</pre>
+ * followed by the encoded elements, each one prefixed with its int length if the codec has no fixed size, by the
+ * long file offsets of these elements if they have no fixed size, and by the int CRC32 of everything before it.
+ * The offsets let {@link MappedTreeSnapshot} find any element without reading the ones before it, version 1 files
+ * have no offsets.
+ * <p>
+ * Export walks the tree by successor links and encodes elements right into the buffer, so it allocates nothing per
+ * element. Import decodes elements one at a time into {@link RedBlackTree#loadSorted}, which builds the tree in
+ * linear time.
+ */
+public final class TreeSnapshot {
+    static final int MAGIC = 0x52425354;
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 3 * Integer.BYTES + Long.BYTES;
+    /**
+     * the last version without offsets of variable-size elements
+     */
+    static final int UNINDEXED_VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 18;
+
+    private TreeSnapshot() {
+    }
+
+    /**
+     * writes elements of <i>tree</i> to <i>file</i>, replacing its content, and forces the file to the device
+     *
+     * @param tree  tree to export
+     * @param codec element codec
+     * @param file  snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    public static <E> void write(BinarySearchTree<E> tree, ElementCodec<E> codec, Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32 crc = new CRC32();
+            int fixedSize = codec.fixedSize();
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(fixedSize).putLong(tree.size());
+            for (Node<E> node = tree.firstNode(); !isNull(node); node = tree.successor(node)) {
+                E element = node.getElement();
+                int size = fixedSize == ElementCodec.VARIABLE_SIZE ? codec.encodedSize(element) : fixedSize;
+                int recordSize = fixedSize == ElementCodec.VARIABLE_SIZE ? Integer.BYTES + size : size;
+                if (buffer.remaining() < recordSize) {
+                    drain(buffer, channel, crc);
+                }
+                ByteBuffer target = recordSize <= buffer.capacity() ? buffer : ByteBuffer.allocate(recordSize);
+                int start = target.position();
+                if (fixedSize == ElementCodec.VARIABLE_SIZE) {
+                    target.putInt(size);
+                }
+                codec.encode(element, target);
+                if (target.position() - start != recordSize) {
+                    throw new IllegalStateException("codec wrote " + (target.position() - start) + " bytes instead of "
+                            + recordSize);
+                }
+                if (target != buffer) {
+                    drain(target, channel, crc);
+                }
+            }
+            if (fixedSize == ElementCodec.VARIABLE_SIZE) {
+                writeOffsets(tree, codec, buffer, channel, crc);
+            }
+            drain(buffer, channel, crc);
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } finally {
+            BufferUtils.free(buffer);
+        }
+    }
+
+    /**
+     * builds <i>tree</i> from the snapshot in <i>file</i> in linear time. The tree stays empty if the snapshot
+     * is rejected
+     *
+     * @param file  snapshot file
+     * @param codec element codec the snapshot was written with
+     * @param tree  empty tree ordered the same way as the exported one
+     * @throws IOException           if the file cannot be read, is not a snapshot of this version or is damaged
+     * @throws IllegalStateException if the tree is not empty
+     */
+    public static <E> void read(Path file, ElementCodec<E> codec, RedBlackTree<E> tree) throws IOException {
+        if (tree.size() != 0) {
+            throw new IllegalStateException("tree is not empty");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            SnapshotReader<E> reader = new SnapshotReader<>(channel, codec);
+            try {
+                long count = reader.readHeader();
+                tree.loadSorted(reader, (int) count);
+                reader.skipOffsets(count);
+                reader.checkTrailer();
+            } catch (UncheckedIOException e) {
+                tree.clear();
+                throw e.getCause();
+            } catch (IllegalArgumentException e) {
+                tree.clear();
+                throw new IOException("snapshot is damaged: " + e.getMessage(), e);
+            } catch (IOException | RuntimeException e) {
+                tree.clear();
+                throw e;
+            } finally {
+                BufferUtils.free(reader.in);
+            }
+        }
+    }
+
+    /**
+     * walks the tree again to write the offset of every element, so no offsets are kept in memory
+     */
+    private static <E> void writeOffsets(BinarySearchTree<E> tree, ElementCodec<E> codec, ByteBuffer buffer,
+                                         FileChannel channel, CRC32 crc) throws IOException {
+        long offset = HEADER_SIZE;
+        for (Node<E> node = tree.firstNode(); !isNull(node); node = tree.successor(node)) {
+            if (buffer.remaining() < Long.BYTES) {
+                drain(buffer, channel, crc);
+            }
+            buffer.putLong(offset);
+            offset += Integer.BYTES + codec.encodedSize(node.getElement());
+        }
+    }
+
+    /**
+     * writes the content of <i>buffer</i> to <i>channel</i> and clears it
+     */
+    private static void drain(ByteBuffer buffer, FileChannel channel, CRC32 crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer);
+        buffer.rewind();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * decodes elements from the channel through a direct buffer, checksumming the bytes as they are consumed
+     *
+     * @param <E> element
+     */
+    private static final class SnapshotReader<E> implements Iterator<E> {
+        private final FileChannel channel;
+        private final ElementCodec<E> codec;
+        private final CRC32 crc = new CRC32();
+        private ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        /**
+         * position in {@link #in} up to which the bytes are checksummed
+         */
+        private int digested;
+        private long remaining;
+        private int version;
+
+        SnapshotReader(FileChannel channel, ElementCodec<E> codec) {
+            this.channel = channel;
+            this.codec = codec;
+            in.limit(0);
+        }
+
+        /**
+         * @return number of elements
+         */
+        long readHeader() throws IOException {
+            require(HEADER_SIZE);
+            if (in.getInt() != MAGIC) {
+                throw new IOException("not a tree snapshot");
+            }
+            version = in.getInt();
+            if (version != VERSION && version != UNINDEXED_VERSION) {
+                throw new IOException("unsupported snapshot version " + version);
+            }
+            if (in.getInt() != codec.fixedSize()) {
+                throw new IOException("snapshot was written with another codec");
+            }
+            remaining = in.getLong();
+            if (remaining < 0 || remaining > Integer.MAX_VALUE) {
+                throw new IOException("snapshot is damaged: wrong number of elements " + remaining);
+            }
+            return remaining;
+        }
+
+        /**
+         * checksums the offsets of <i>count</i> elements without using them
+         */
+        void skipOffsets(long count) throws IOException {
+            if (version == UNINDEXED_VERSION || codec.fixedSize() != ElementCodec.VARIABLE_SIZE) {
+                return;
+            }
+            for (long bytes = count * Long.BYTES; bytes > 0; ) {
+                int chunk = (int) Math.min(bytes, in.capacity());
+                require(chunk);
+                in.position(in.position() + chunk);
+                bytes -= chunk;
+            }
+        }
+
+        void checkTrailer() throws IOException {
+            digest();
+            require(Integer.BYTES);
+            if (in.getInt() != (int) crc.getValue()) {
+                throw new IOException("snapshot is damaged: checksum mismatch");
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public E next() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            try {
+                int size = codec.fixedSize();
+                if (size == ElementCodec.VARIABLE_SIZE) {
+                    require(Integer.BYTES);
+                    size = in.getInt();
+                    if (size < 0) {
+                        throw new IOException("snapshot is damaged: negative element size");
+                    }
+                }
+                require(size);
+                int limit = in.limit();
+                int end = in.position() + size;
+                in.limit(end);
+                E element = codec.decode(in);
+                in.limit(limit);
+                in.position(end);
+                remaining--;
+                return element;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * makes at least <i>bytes</i> bytes available in {@link #in}
+         *
+         * @throws EOFException if the file ends before
+         */
+        private void require(int bytes) throws IOException {
+            if (in.remaining() >= bytes) {
+                return;
+            }
+            digest();
+            if (in.capacity() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocateDirect(bytes);
+                larger.put(in);
+                BufferUtils.free(in);
+                in = larger;
+            } else {
+                in.compact();
+            }
+            while (in.position() < bytes) {
+                if (channel.read(in) < 0) {
+                    throw new EOFException("snapshot is truncated");
+                }
+            }
+            in.flip();
+            digested = 0;
+        }
+
+        /**
+         * checksums the bytes consumed since the last call
+         */
+        private void digest() {
+            int position = in.position();
+            int limit = in.limit();
+            in.position(digested).limit(position);
+            crc.update(in);
+            in.limit(limit).position(position);
+            digested = position;
+        }
+    }
+}
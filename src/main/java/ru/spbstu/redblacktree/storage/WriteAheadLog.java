@@ -0,0 +1,522 @@
+package ru.spbstu.redblacktree.storage;
+
+import ru.spbstu.redblacktree.tree.Node;
+import ru.spbstu.redblacktree.tree.binarytree.search.BinarySearchTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import static java.util.Objects.isNull;
+
+/**
+ * append-only log of {@link BinarySearchTree} mutations. Call {@link #logAdd} or {@link #logRemove} before
+ * changing the tree, and {@link #open} replays the log into an empty tree after a restart.
+ * <p>
+ * The file starts with a magic number and a version, followed by records of
+ * <pre>[int payload length][byte operation][payload][int CRC32 of operation and payload]</pre>
+ * A write interrupted by a crash leaves a record that is cut short or fails its checksum, so replay stops at the
+ * first such record and truncates the file there before new records are appended.
+ * <p>
+ * Replay collects consecutive additions of ascending elements into runs. Into a {@link RedBlackTree} a long run is
+ * built by {@link RedBlackTree#loadSorted} and merged by {@link RedBlackTree#union}, so it is not rebalanced record
+ * by record. Other trees get the records one by one.
+ * <p>
+ * Under {@link FsyncPolicy#GROUP} writers do not force the file themselves. The first writer to wait becomes the
+ * leader: it waits until {@link GroupCommit#getBatchSize()} writers are waiting or the delay is over, forces
+ * everything appended so far once and wakes up all writers covered by that force. Writers that arrive during the
+ * force wait for the next leader.
+ *
+ * @param <E> element
+ */
+public class WriteAheadLog<E> implements Closeable {
+    public static final long DEFAULT_INTERVAL_MILLIS = 1_000;
+    private static final int MAGIC = 0x52424c47;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    /**
+     * bytes of a record besides the payload: length, operation and checksum
+     */
+    private static final int RECORD_OVERHEAD = 2 * Integer.BYTES + 1;
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * shorter runs of additions are replayed one by one
+     */
+    private static final int MIN_SORTED_RUN = 64;
+    private final FileChannel channel;
+    private final ElementCodec<E> codec;
+    private final FsyncPolicy policy;
+    private final long intervalNanos;
+    private final GroupCommit groupCommit;
+    private final CRC32 crc = new CRC32();
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final Condition commitChanged = commitLock.newCondition();
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long lastSync = System.nanoTime();
+    private long replayedRecords;
+    private boolean closed;
+    /**
+     * end of the last appended record
+     */
+    private volatile long writtenPosition;
+    /**
+     * end of the records known to be forced, guarded by {@link #commitLock}
+     */
+    private long durablePosition;
+    /**
+     * true while a leader collects or forces a batch, guarded by {@link #commitLock}
+     */
+    private boolean forcing;
+    /**
+     * writers waiting for their records to be forced, guarded by {@link #commitLock}
+     */
+    private int waitingWriters;
+
+    private WriteAheadLog(FileChannel channel, ElementCodec<E> codec, FsyncPolicy policy, long intervalMillis,
+                          GroupCommit groupCommit) {
+        if (intervalMillis < 0) {
+            throw new IllegalArgumentException("interval is negative");
+        }
+        this.channel = channel;
+        this.codec = codec;
+        this.policy = policy;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.groupCommit = groupCommit;
+    }
+
+    /**
+     * opens the log with {@link #DEFAULT_INTERVAL_MILLIS}
+     *
+     * @see #open(Path, ElementCodec, FsyncPolicy, long, BinarySearchTree)
+     */
+    public static <E> WriteAheadLog<E> open(Path file, ElementCodec<E> codec, FsyncPolicy policy,
+                                            BinarySearchTree<E> tree) throws IOException {
+        return open(file, codec, policy, DEFAULT_INTERVAL_MILLIS, tree);
+    }
+
+    /**
+     * opens or creates the log file, replays its records into <i>tree</i> and cuts off a torn tail
+     *
+     * @param file           log file
+     * @param codec          element codec
+     * @param policy         when appended records are forced to the device
+     * @param intervalMillis least interval between forces for {@link FsyncPolicy#INTERVAL}
+     * @param tree           tree to replay the records into, normally empty
+     * @return log positioned after the last valid record
+     * @throws IOException if the file cannot be read or written, or is not a log of this version
+     */
+    public static <E> WriteAheadLog<E> open(Path file, ElementCodec<E> codec, FsyncPolicy policy,
+                                            long intervalMillis, BinarySearchTree<E> tree) throws IOException {
+        return open(file, codec, policy, intervalMillis, GroupCommit.DEFAULT, tree);
+    }
+
+    /**
+     * opens the log with {@link FsyncPolicy#GROUP}
+     *
+     * @param groupCommit batching of forces
+     * @see #open(Path, ElementCodec, FsyncPolicy, long, BinarySearchTree)
+     */
+    public static <E> WriteAheadLog<E> open(Path file, ElementCodec<E> codec, GroupCommit groupCommit,
+                                            BinarySearchTree<E> tree) throws IOException {
+        return open(file, codec, FsyncPolicy.GROUP, DEFAULT_INTERVAL_MILLIS, groupCommit, tree);
+    }
+
+    private static <E> WriteAheadLog<E> open(Path file, ElementCodec<E> codec, FsyncPolicy policy,
+                                             long intervalMillis, GroupCommit groupCommit,
+                                             BinarySearchTree<E> tree) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            WriteAheadLog<E> log = new WriteAheadLog<>(channel, codec, policy, intervalMillis, groupCommit);
+            log.recover(tree);
+            return log;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * appends addition of <i>element</i>, under {@link FsyncPolicy#GROUP} waits until the record is forced
+     *
+     * @param element element about to be added
+     * @throws IOException if the record cannot be written
+     */
+    public void logAdd(E element) throws IOException {
+        long position = appendAdd(element);
+        if (policy == FsyncPolicy.GROUP) {
+            awaitDurable(position);
+        }
+    }
+
+    /**
+     * appends removal of <i>element</i>, under {@link FsyncPolicy#GROUP} waits until the record is forced
+     *
+     * @param element element about to be removed
+     * @throws IOException if the record cannot be written
+     */
+    public void logRemove(E element) throws IOException {
+        long position = appendRemove(element);
+        if (policy == FsyncPolicy.GROUP) {
+            awaitDurable(position);
+        }
+    }
+
+    /**
+     * appends addition of <i>element</i> without waiting for a group commit, so the caller can release its own
+     * locks before {@link #awaitDurable}
+     *
+     * @param element element about to be added
+     * @return position after the record
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized long appendAdd(E element) throws IOException {
+        return append(ADD, element);
+    }
+
+    /**
+     * appends removal of <i>element</i> without waiting for a group commit, so the caller can release its own
+     * locks before {@link #awaitDurable}
+     *
+     * @param element element about to be removed
+     * @return position after the record
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized long appendRemove(E element) throws IOException {
+        return append(REMOVE, element);
+    }
+
+    /**
+     * waits until records up to <i>position</i> are forced, forcing them as the leader of a group commit if no
+     * other writer does
+     *
+     * @param position position returned by {@link #appendAdd} or {@link #appendRemove}
+     * @throws IOException if the records cannot be forced or the thread is interrupted
+     */
+    public void awaitDurable(long position) throws IOException {
+        commitLock.lock();
+        try {
+            if (durablePosition >= position) {
+                return;
+            }
+            waitingWriters++;
+            commitChanged.signalAll();
+            try {
+                while (durablePosition < position) {
+                    if (forcing) {
+                        commitChanged.await();
+                    } else {
+                        forceBatch();
+                    }
+                }
+            } finally {
+                waitingWriters--;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for group commit");
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * forces appended records to the device
+     *
+     * @throws IOException if the records cannot be forced
+     */
+    public synchronized void sync() throws IOException {
+        checkOpen();
+        long position = writtenPosition;
+        channel.force(false);
+        lastSync = System.nanoTime();
+        commitLock.lock();
+        try {
+            durablePosition = Math.max(durablePosition, position);
+            commitChanged.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * @return number of records replayed when the log was opened
+     */
+    public long replayedRecords() {
+        return replayedRecords;
+    }
+
+    /**
+     * @return size of the log file in bytes
+     * @throws IOException if the size cannot be read
+     */
+    public synchronized long size() throws IOException {
+        checkOpen();
+        return channel.size();
+    }
+
+    /**
+     * forces appended records to the device and closes the file
+     *
+     * @throws IOException if the records cannot be forced or the file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * waits for a batch to fill and forces it without holding {@link #commitLock}. Called under the lock
+     */
+    private void forceBatch() throws IOException, InterruptedException {
+        forcing = true;
+        try {
+            long remaining = groupCommit.getMaxDelayNanos();
+            while (waitingWriters < groupCommit.getBatchSize() && remaining > 0) {
+                remaining = commitChanged.awaitNanos(remaining);
+            }
+            //every counted writer has appended its record already
+            long position = writtenPosition;
+            commitLock.unlock();
+            try {
+                channel.force(false);
+            } finally {
+                commitLock.lock();
+            }
+            durablePosition = Math.max(durablePosition, position);
+        } finally {
+            forcing = false;
+            commitChanged.signalAll();
+        }
+    }
+
+    private long append(byte operation, E element) throws IOException {
+        checkOpen();
+        if (isNull(element)) {
+            throw new IllegalArgumentException(BinarySearchTree.NULL_NODE_MSG);
+        }
+        int length = codec.encodedSize(element);
+        if (buffer.capacity() < RECORD_OVERHEAD + length) {
+            buffer = ByteBuffer.allocate(RECORD_OVERHEAD + length);
+        }
+        buffer.clear();
+        buffer.putInt(length).put(operation);
+        codec.encode(element, buffer);
+        if (buffer.position() != Integer.BYTES + 1 + length) {
+            throw new IllegalStateException("codec wrote " + (buffer.position() - Integer.BYTES - 1)
+                    + " bytes instead of " + length);
+        }
+        crc.reset();
+        crc.update(buffer.array(), Integer.BYTES, 1 + length);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        long start = channel.position();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            //a part of the record would hide the records appended after it from replay
+            try {
+                channel.truncate(start);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        writtenPosition = channel.position();
+        if (policy == FsyncPolicy.ALWAYS
+                || policy == FsyncPolicy.INTERVAL && System.nanoTime() - lastSync >= intervalNanos) {
+            sync();
+        }
+        return writtenPosition;
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("log is closed");
+        }
+    }
+
+    /**
+     * replays valid records into <i>tree</i>, truncates the file after them and positions it for appending
+     */
+    private void recover(BinarySearchTree<E> tree) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            channel.truncate(0);
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+            channel.position(HEADER_SIZE);
+            writtenPosition = HEADER_SIZE;
+            durablePosition = HEADER_SIZE;
+            return;
+        }
+        RecordReader reader = new RecordReader();
+        if (!reader.request(HEADER_SIZE) || reader.in.getInt() != MAGIC) {
+            throw new IOException("not a write-ahead log");
+        }
+        int version = reader.in.getInt();
+        if (version != VERSION) {
+            throw new IOException("unsupported log version " + version);
+        }
+        Replay replay = new Replay(tree);
+        long end = HEADER_SIZE;
+        while (reader.request(Integer.BYTES)) {
+            ByteBuffer in = reader.in;
+            int start = in.position();
+            int length = in.getInt(start);
+            if (length < 0 || length > size - end - RECORD_OVERHEAD || !reader.request(RECORD_OVERHEAD + length)) {
+                break;
+            }
+            start = in.position();
+            ByteBuffer body = in.duplicate();
+            body.position(start + Integer.BYTES).limit(start + Integer.BYTES + 1 + length);
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != in.getInt(start + Integer.BYTES + 1 + length)) {
+                break;
+            }
+            byte operation = in.get(start + Integer.BYTES);
+            body.position(start + Integer.BYTES + 1);
+            E element = codec.decode(body.slice());
+            if (operation == ADD) {
+                replay.add(element);
+            } else if (operation == REMOVE) {
+                replay.remove(element);
+            } else {
+                throw new IOException("unknown operation " + operation + " at " + end);
+            }
+            in.position(start + RECORD_OVERHEAD + length);
+            end += RECORD_OVERHEAD + length;
+            replayedRecords++;
+        }
+        replay.flush();
+        if (end < size) {
+            channel.truncate(end);
+            channel.force(true);
+        }
+        channel.position(end);
+        writtenPosition = end;
+        durablePosition = end;
+    }
+
+    /**
+     * reads the file sequentially through a buffer that grows for records longer than it
+     */
+    private final class RecordReader {
+        private ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+        private long position;
+
+        RecordReader() {
+            in.limit(0);
+        }
+
+        /**
+         * @param bytes number of bytes needed
+         * @return true if at least <i>bytes</i> are remaining in {@link #in}, false if the file ends before
+         */
+        boolean request(int bytes) throws IOException {
+            if (in.remaining() >= bytes) {
+                return true;
+            }
+            if (in.capacity() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(bytes, 2 * in.capacity()));
+                larger.put(in);
+                in = larger;
+            } else {
+                in.compact();
+            }
+            while (in.position() < bytes) {
+                int read = channel.read(in, position);
+                if (read < 0) {
+                    break;
+                }
+                position += read;
+            }
+            in.flip();
+            return in.remaining() >= bytes;
+        }
+    }
+
+    /**
+     * applies replayed records to the tree, collecting ascending additions into runs
+     */
+    private final class Replay {
+        private final BinarySearchTree<E> tree;
+        private final List<E> run = new ArrayList<>();
+
+        Replay(BinarySearchTree<E> tree) {
+            this.tree = tree;
+        }
+
+        void add(E element) {
+            if (!run.isEmpty() && compare(run.get(run.size() - 1), element) >= 0) {
+                flush();
+            }
+            run.add(element);
+        }
+
+        /**
+         * removes <i>element</i> if the tree has it, a log may record removals of absent elements and
+         * {@link BinarySearchTree#remove(Object)} rejects them
+         */
+        void remove(E element) {
+            flush();
+            Node<E> node = tree.treeSearch(tree.root(), element);
+            if (!isNull(node)) {
+                tree.remove(node);
+            }
+        }
+
+        void flush() {
+            if (run.size() >= MIN_SORTED_RUN && tree instanceof RedBlackTree) {
+                RedBlackTree<E> balanced = (RedBlackTree<E>) tree;
+                if (balanced.size() == 0) {
+                    balanced.loadSorted(run.iterator(), run.size());
+                } else {
+                    RedBlackTree<E> sorted = new RedBlackTree<>(tree.comparator());
+                    sorted.loadSorted(run.iterator(), run.size());
+                    balanced.union(sorted);
+                }
+            } else {
+                for (E element : run) {
+                    tree.add(element);
+                }
+            }
+            run.clear();
+        }
+
+        @SuppressWarnings("unchecked")
+        private int compare(E val1, E val2) {
+            Comparator<? super E> comparator = tree.comparator();
+            return isNull(comparator) ? ((Comparable<E>) val1).compareTo(val2) : comparator.compare(val1, val2);
+        }
+    }
+}
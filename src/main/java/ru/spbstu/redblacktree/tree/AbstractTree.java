@@ -1,6 +1,8 @@
 package ru.spbstu.redblacktree.tree;
 
 import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.util.Objects.isNull;
 
@@ -17,76 +19,154 @@ public abstract class AbstractTree<E> implements Tree<E> {
 
     @Override
     public Iterator<E> iterator() {
-        return new ElementIterator();
+        return new ElementIterator(nodes().iterator());
+    }
+
+    /**
+     * @return a sequential stream of the tree's elements in the order of {@link #spliterator()}
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * @return a parallel stream of the tree's elements in the order of {@link #spliterator()}
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
     }
 
     /**
      * @return an iterable collection of nodes of the tree in preOrder
      */
     public Collection<Node<E>> preOrder() {
-        List<Node<E>> nodes = new ArrayList<>();
-        if (isNull(root())) {
-            return nodes;
-        }
-        return preOrder(root(), nodes);
+        return collect(preOrderIterator());
     }
 
-    private Collection<Node<E>> preOrder(Node<E> node, Collection<Node<E>> nodes) {
-        if (isNull(node)) {
-            return nodes;
-        }
-        nodes.add(node);
-        for (Node<E> n : children(node)) {
-            preOrder(n, nodes);
+    /**
+     * @return an iterator walking nodes of the tree in preOrder without copying them
+     */
+    public Iterator<Node<E>> preOrderIterator() {
+        Deque<Node<E>> stack = new ArrayDeque<>();
+        if (!isNull(root())) {
+            stack.push(root());
         }
-        return nodes;
+        return new Iterator<Node<E>>() {
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public Node<E> next() {
+                if (stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<E> node = stack.pop();
+                List<Node<E>> children = new ArrayList<>(children(node));
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    stack.push(children.get(i));
+                }
+                return node;
+            }
+        };
     }
 
     /**
      * @return an iterable collection of nodes of the tree in postOrder
      */
     public Collection<Node<E>> postOrder() {
-        List<Node<E>> nodes = new ArrayList<>();
-        if (isNull(root())) {
-            return nodes;
-        }
-        return postOrder(root(), nodes);
+        return collect(postOrderIterator());
     }
 
-    private Collection<Node<E>> postOrder(Node<E> node, Collection<Node<E>> nodes) {
-        if (isNull(node)) {
-            return nodes;
-        }
-        for (Node<E> n : children(node)) {
-            postOrder(n, nodes);
+    /**
+     * @return an iterator walking nodes of the tree in postOrder without copying them
+     */
+    public Iterator<Node<E>> postOrderIterator() {
+        Deque<Iterator<Node<E>>> stack = new ArrayDeque<>();
+        Deque<Node<E>> path = new ArrayDeque<>();
+        if (!isNull(root())) {
+            path.push(root());
+            stack.push(children(root()).iterator());
         }
-        nodes.add(node);
-        return nodes;
+        return new Iterator<Node<E>>() {
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public Node<E> next() {
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                while (stack.peek().hasNext()) {
+                    Node<E> child = stack.peek().next();
+                    path.push(child);
+                    stack.push(children(child).iterator());
+                }
+                stack.pop();
+                return path.pop();
+            }
+        };
     }
 
     /**
      * @return an iterable collection of nodes of the tree in breadth-first order
      */
     public Collection<Node<E>> breadthFirst() {
+        return collect(breadthFirstIterator());
+    }
+
+    /**
+     * @return an iterator walking nodes of the tree in breadth-first order. Keeps at most one level of the tree
+     */
+    public Iterator<Node<E>> breadthFirstIterator() {
         Queue<Node<E>> queue = new ArrayDeque<>();
-        Collection<Node<E>> nodes = new ArrayList<>();
-        if (isNull(root())) {
-            return nodes;
+        if (!isNull(root())) {
+            queue.offer(root());
         }
-        queue.offer(root());
-        while (!queue.isEmpty()) {
-            Node<E> node = queue.poll();
-            nodes.add(node);
-            queue.addAll(children(node));
+        return new Iterator<Node<E>>() {
+            @Override
+            public boolean hasNext() {
+                return !queue.isEmpty();
+            }
+
+            @Override
+            public Node<E> next() {
+                if (queue.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<E> node = queue.poll();
+                queue.addAll(children(node));
+                return node;
+            }
+        };
+    }
+
+    /**
+     * copies nodes produced by <i>iterator</i> into new list
+     *
+     * @param iterator nodes to copy
+     * @return list of nodes
+     */
+    protected Collection<Node<E>> collect(Iterator<Node<E>> iterator) {
+        List<Node<E>> nodes = new ArrayList<>();
+        while (iterator.hasNext()) {
+            nodes.add(iterator.next());
         }
         return nodes;
     }
 
     /**
-     * adapts the iteration produced by {@link Tree#nodes()}
+     * adapts the iteration produced by a node iterator
      */
-    private class ElementIterator implements Iterator<E> {
-        private final Iterator<Node<E>> iterator = nodes().iterator();
+    protected class ElementIterator implements Iterator<E> {
+        private final Iterator<Node<E>> iterator;
+
+        public ElementIterator(Iterator<Node<E>> iterator) {
+            this.iterator = iterator;
+        }
 
         @Override
         public boolean hasNext() {
@@ -2,12 +2,18 @@ package ru.spbstu.redblacktree.tree.binarytree;
 
 import ru.spbstu.redblacktree.tree.AbstractTree;
 import ru.spbstu.redblacktree.tree.Node;
-import ru.spbstu.redblacktree.utils.CollectionUtils;
+import ru.spbstu.redblacktree.utils.Transformer;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 import static java.lang.Math.max;
 import static java.lang.System.lineSeparator;
@@ -58,27 +64,184 @@ public abstract class AbstractBinaryTree<E> extends AbstractTree<E> implements B
         return 1;
     }
 
+    /**
+     * @return an iterable collection of nodes of the tree in inOrder
+     */
     public Collection<Node<E>> inOrder() {
-        List<Node<E>> nodes = new ArrayList<>();
-        if (isNull(root())) {
-            return nodes;
+        return collect(inOrderIterator());
+    }
+
+    /**
+     * @return an iterator walking nodes of the tree in inOrder. Follows parent links, so it keeps only the next node
+     */
+    public Iterator<Node<E>> inOrderIterator() {
+        return new NodeIterator(isNull(root()) ? null : leftmost(root()), this::successor);
+    }
+
+    /**
+     * @return an iterator walking nodes of the tree in preOrder. Follows parent links, so it keeps only the next node
+     */
+    @Override
+    public Iterator<Node<E>> preOrderIterator() {
+        return new NodeIterator(root(), this::preOrderNext);
+    }
+
+    /**
+     * @return an iterator walking nodes of the tree in postOrder. Follows parent links, so it keeps only the next
+     * node
+     */
+    @Override
+    public Iterator<Node<E>> postOrderIterator() {
+        return new NodeIterator(isNull(root()) ? null : firstLeaf(root()), this::postOrderNext);
+    }
+
+    /**
+     * @return an iterator walking nodes of the tree in breadth-first order. Keeps at most one level of the tree
+     */
+    @Override
+    public Iterator<Node<E>> breadthFirstIterator() {
+        Queue<Node<E>> queue = new ArrayDeque<>();
+        if (!isNull(root())) {
+            queue.offer(root());
         }
-        return inOrder(root(), nodes);
+        return new Iterator<Node<E>>() {
+            @Override
+            public boolean hasNext() {
+                return !queue.isEmpty();
+            }
+
+            @Override
+            public Node<E> next() {
+                Node<E> node = queue.remove();
+                if (!isNull(left(node))) {
+                    queue.offer(left(node));
+                }
+                if (!isNull(right(node))) {
+                    queue.offer(right(node));
+                }
+                return node;
+            }
+        };
     }
 
-    private Collection<Node<E>> inOrder(Node<E> node, Collection<Node<E>> nodes) {
-        if (isNull(node)) {
-            return nodes;
+    /**
+     * @param n node
+     * @return node following <i>n</i> in inOrder (or null if <i>n</i> is the last one)
+     */
+    public Node<E> successor(Node<E> n) {
+        Node<E> right = right(n);
+        if (!isNull(right)) {
+            return leftmost(right);
+        }
+        Node<E> node = n;
+        Node<E> parent = parent(node);
+        while (!isNull(parent) && node == right(parent)) {
+            node = parent;
+            parent = parent(node);
         }
-        inOrder(left(node), nodes);
-        nodes.add(node);
-        inOrder(right(node), nodes);
-        return nodes;
+        return parent;
     }
 
+    /**
+     * @param n node
+     * @return node preceding <i>n</i> in inOrder (or null if <i>n</i> is the first one)
+     */
+    public Node<E> predecessor(Node<E> n) {
+        Node<E> left = left(n);
+        if (!isNull(left)) {
+            return rightmost(left);
+        }
+        Node<E> node = n;
+        Node<E> parent = parent(node);
+        while (!isNull(parent) && node == left(parent)) {
+            node = parent;
+            parent = parent(node);
+        }
+        return parent;
+    }
+
+    private Node<E> preOrderNext(Node<E> n) {
+        if (!isNull(left(n))) {
+            return left(n);
+        }
+        if (!isNull(right(n))) {
+            return right(n);
+        }
+        Node<E> node = n;
+        Node<E> parent = parent(node);
+        while (!isNull(parent)) {
+            if (node == left(parent) && !isNull(right(parent))) {
+                return right(parent);
+            }
+            node = parent;
+            parent = parent(node);
+        }
+        return null;
+    }
+
+    private Node<E> postOrderNext(Node<E> n) {
+        Node<E> parent = parent(n);
+        if (!isNull(parent) && n == left(parent) && !isNull(right(parent))) {
+            return firstLeaf(right(parent));
+        }
+        return parent;
+    }
+
+    /**
+     * @param n subtree's root
+     * @return the leftmost node of <i>n</i>'s subtree
+     */
+    private Node<E> leftmost(Node<E> n) {
+        Node<E> node = n;
+        for (Node<E> left = left(node); !isNull(left); left = left(node)) {
+            node = left;
+        }
+        return node;
+    }
+
+    /**
+     * @param n subtree's root
+     * @return the rightmost node of <i>n</i>'s subtree
+     */
+    private Node<E> rightmost(Node<E> n) {
+        Node<E> node = n;
+        for (Node<E> right = right(node); !isNull(right); right = right(node)) {
+            node = right;
+        }
+        return node;
+    }
+
+    /**
+     * @param n subtree's root
+     * @return the first node of <i>n</i>'s subtree in postOrder
+     */
+    private Node<E> firstLeaf(Node<E> n) {
+        Node<E> node = n;
+        while (true) {
+            if (!isNull(left(node))) {
+                node = left(node);
+            } else if (!isNull(right(node))) {
+                node = right(node);
+            } else {
+                return node;
+            }
+        }
+    }
+
+    /**
+     * @return an iterator for all elements in the tree in inOrder
+     */
     @Override
     public Iterator<E> iterator() {
-        return CollectionUtils.transformIntoNew(nodes(), Node::getElement).iterator();
+        return new ElementIterator(inOrderIterator());
+    }
+
+    /**
+     * @return a spliterator over elements in inOrder that splits by handing off left subtrees
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new SubtreeSpliterator(root(), size(), Spliterator.ORDERED | Spliterator.SIZED, null);
     }
 
     @Override
@@ -95,11 +258,33 @@ public abstract class AbstractBinaryTree<E> extends AbstractTree<E> implements B
         return getHeight(root(), 0, 1);
     }
 
+    /**
+     * calculates height of <i>node</i>'s subtree level by level
+     *
+     * @param node       subtree's root
+     * @param depth      depth of <i>node</i>
+     * @param treeHeight minimal height to return
+     * @return depth of the deepest level under <i>node</i> or <i>treeHeight</i> if it is greater
+     */
     public int getHeight(Node<E> node, int depth, int treeHeight) {
-        if (isNull(node)) {
-            return max(depth, treeHeight);
+        int height = depth;
+        Queue<Node<E>> level = new ArrayDeque<>();
+        if (!isNull(node)) {
+            level.offer(node);
         }
-        return getHeight(left(node), depth + 1, getHeight(right(node), depth + 1, treeHeight));
+        while (!level.isEmpty()) {
+            height++;
+            for (int i = level.size(); i > 0; i--) {
+                Node<E> n = level.poll();
+                if (!isNull(left(n))) {
+                    level.offer(left(n));
+                }
+                if (!isNull(right(n))) {
+                    level.offer(right(n));
+                }
+            }
+        }
+        return max(height, treeHeight);
     }
 
     /**
@@ -108,11 +293,11 @@ public abstract class AbstractBinaryTree<E> extends AbstractTree<E> implements B
      * @return length
      */
     protected int maxStrLength() {
-        Collection<String> nodes = CollectionUtils.transformIntoNew(breadthFirst(), Object::toString);
         int longest = 0;
-        for (String str : nodes) {
-            if (str.length() > longest) {
-                longest = str.length();
+        for (Iterator<Node<E>> nodes = inOrderIterator(); nodes.hasNext(); ) {
+            int length = nodes.next().toString().length();
+            if (length > longest) {
+                longest = length;
             }
         }
         return longest;
@@ -219,4 +404,146 @@ public abstract class AbstractBinaryTree<E> extends AbstractTree<E> implements B
      * @return old root
      */
     protected abstract Node<E> setRoot(Node<E> node);
+
+    /**
+     * iterates nodes starting from the first one and moving to the next by the given step
+     */
+    private class NodeIterator implements Iterator<Node<E>> {
+        private final Transformer<Node<E>, Node<E>> step;
+        private Node<E> next;
+
+        NodeIterator(Node<E> first, Transformer<Node<E>, Node<E>> step) {
+            this.next = first;
+            this.step = step;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !isNull(next);
+        }
+
+        @Override
+        public Node<E> next() {
+            if (isNull(next)) {
+                throw new NoSuchElementException();
+            }
+            Node<E> current = next;
+            next = step.transform(current);
+            return current;
+        }
+    }
+
+    /**
+     * spliterator over one node followed by a subtree, both in inOrder. Splitting hands off the head and the left
+     * subtree, while the subtree's root and its right subtree remain:
+     *
+     * <pre>
+     *  head, n          ==>  head, l    and    n, r
+     *       / \
+     *      l   r
+     * </pre>
+     * <p>
+     * Once traversal started the spliterator follows parent links and can't be split anymore.
+     */
+    protected class SubtreeSpliterator implements Spliterator<E> {
+        private final Comparator<? super E> comparator;
+        private Node<E> head;
+        private Node<E> subtree;
+        private long estimatedSize;
+        private int characteristics;
+        private boolean started;
+        private Node<E> next;
+        private Node<E> last;
+
+        /**
+         * @param subtree         root of the subtree to traverse
+         * @param estimatedSize   number of elements in the subtree (exact if {@link #SIZED} is reported)
+         * @param characteristics characteristics of this spliterator
+         * @param comparator      comparator reported if elements are {@link #SORTED}
+         */
+        public SubtreeSpliterator(Node<E> subtree, long estimatedSize, int characteristics,
+                                  Comparator<? super E> comparator) {
+            this(null, subtree, estimatedSize, characteristics, comparator);
+        }
+
+        private SubtreeSpliterator(Node<E> head, Node<E> subtree, long estimatedSize, int characteristics,
+                                   Comparator<? super E> comparator) {
+            this.head = head;
+            this.subtree = subtree;
+            this.estimatedSize = estimatedSize;
+            this.characteristics = characteristics;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (isNull(action)) {
+                throw new NullPointerException();
+            }
+            start();
+            if (isNull(next)) {
+                return false;
+            }
+            Node<E> current = next;
+            if (current == last) {
+                next = null;
+            } else if (current == head) {
+                next = leftmost(subtree);
+            } else {
+                next = successor(current);
+            }
+            action.accept(current.getElement());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            while (tryAdvance(action)) {
+            }
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            if (started || isNull(subtree) || isNull(left(subtree))) {
+                return null;
+            }
+            SubtreeSpliterator prefix = new SubtreeSpliterator(head, left(subtree), estimatedSize >>>= 1,
+                    characteristics &= ~(SIZED | SUBSIZED), comparator);
+            head = subtree;
+            subtree = right(subtree);
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimatedSize;
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+
+        @Override
+        public Comparator<? super E> getComparator() {
+            if (hasCharacteristics(SORTED)) {
+                return comparator;
+            }
+            throw new IllegalStateException();
+        }
+
+        private void start() {
+            if (started) {
+                return;
+            }
+            started = true;
+            if (isNull(subtree)) {
+                next = head;
+                last = head;
+            } else {
+                next = isNull(head) ? leftmost(subtree) : head;
+                last = rightmost(subtree);
+            }
+        }
+    }
 }
@@ -2,7 +2,6 @@ package ru.spbstu.redblacktree.tree.binarytree;
 
 import ru.spbstu.redblacktree.tree.Node;
 
-import java.util.NoSuchElementException;
 import java.util.Objects;
 
 import static java.util.Objects.isNull;
@@ -31,10 +30,21 @@ public class LinkedBinaryTree<E> extends AbstractBinaryTree<E> {
         throw new IllegalArgumentException("wrong node");
     }
 
+    /**
+     * creates new detached node storing element <i>e</i>. Every node of the tree is created by this method, so
+     * subclasses needing their own node type override it instead of replacing nodes after they are added
+     *
+     * @param e element
+     * @return created node
+     */
+    protected NodeImpl<E> createNode(E e) {
+        return new NodeImpl<>(e);
+    }
+
     @Override
     public Node<E> addRoot(E e) {
         if (size() == 0 && isNull(root)) {
-            root = new NodeImpl<>(e);
+            root = createNode(e);
             length = 1;
             return root;
         }
@@ -55,7 +65,7 @@ public class LinkedBinaryTree<E> extends AbstractBinaryTree<E> {
 
     @Override
     public Node<E> addLeft(Node<E> n, E e) {
-        Node<E> newNode = new NodeImpl<>(e);
+        Node<E> newNode = createNode(e);
 
         if (!isNull(left(n))) {
             Node<E> oldLeft = left(n);
@@ -68,7 +78,7 @@ public class LinkedBinaryTree<E> extends AbstractBinaryTree<E> {
 
     @Override
     public Node<E> addRight(Node<E> n, E e) {
-        Node<E> newNode = new NodeImpl<>(e);
+        Node<E> newNode = createNode(e);
 
         if (!isNull(right(n))) {
             Node<E> oldRight = right(n);
@@ -105,14 +115,14 @@ public class LinkedBinaryTree<E> extends AbstractBinaryTree<E> {
         if (childrenNumber(n) == 2) {
             throw new IllegalArgumentException("cannot delete node with two children");
         }
-        Node<E> newChild = null;
-        try {
-            newChild = children(n).iterator().next();
-        } catch (NoSuchElementException ignore) {
-        }
+        Node<E> newChild = isNull(left(n)) ? right(n) : left(n);
         Node<E> parent = parent(n);
         if (isNull(parent)) {
-            root = newChild;
+            if (isNull(newChild)) {
+                root = null;
+            } else {
+                setRoot(newChild);
+            }
         } else if (left(parent) == n) {
             setLeft(parent, newChild);
         } else {
@@ -147,6 +157,28 @@ public class LinkedBinaryTree<E> extends AbstractBinaryTree<E> {
         return length;
     }
 
+    /**
+     * replaces all nodes of the tree by the detached subtree of <i>root</i>
+     *
+     * @param root root of the subtree (or null to make the tree empty)
+     * @param size number of nodes in the subtree
+     */
+    protected void setContent(Node<E> root, int size) {
+        if (!isNull(root)) {
+            validate(root).parent = null;
+        }
+        this.root = root;
+        length = size;
+    }
+
+    /**
+     * removes all nodes from the tree
+     */
+    public void clear() {
+        root = null;
+        length = 0;
+    }
+
     /**
      * sets <i>node</i>'s new left child, null is acceptable
      *
@@ -2,12 +2,18 @@ package ru.spbstu.redblacktree.tree.binarytree.search;
 
 import ru.spbstu.redblacktree.tree.Node;
 import ru.spbstu.redblacktree.tree.binarytree.LinkedBinaryTree;
+import ru.spbstu.redblacktree.utils.OperationCounters;
+import ru.spbstu.redblacktree.utils.OperationCounters.Counter;
 
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
 
 import static java.util.Objects.isNull;
 
-public class BinarySearchTree<E> extends LinkedBinaryTree<E> {
+public class BinarySearchTree<E> extends LinkedBinaryTree<E> implements ReadableSearchTree<E> {
     public static final String NULL_NODE_MSG = "cannot add null to search tree";
     private Comparator<? super E> comparator;
 
@@ -18,6 +24,22 @@ public class BinarySearchTree<E> extends LinkedBinaryTree<E> {
         this.comparator = comparator;
     }
 
+    /**
+     * @return comparator used to order elements, or null if elements are {@link Comparable}
+     */
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    /**
+     * @return a spliterator over sorted elements that splits by handing off left subtrees
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new SubtreeSpliterator(root(), size(), Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SORTED |
+                Spliterator.DISTINCT | Spliterator.NONNULL, comparator);
+    }
+
     /**
      * removes <i>node</i> from tree. Allows remove n with two children
      *
@@ -65,10 +87,25 @@ public class BinarySearchTree<E> extends LinkedBinaryTree<E> {
      * @return leftmost node
      */
     protected Node<E> findLeftmost(Node<E> n) {
-        if (isNull(left(n))) {
-            return n;
+        Node<E> leftmost = n;
+        for (Node<E> left = left(leftmost); !isNull(left); left = left(leftmost)) {
+            leftmost = left;
+        }
+        return leftmost;
+    }
+
+    /**
+     * searches rightmost node in <i>node</i>'s subtree
+     *
+     * @param n root of subtree to search
+     * @return rightmost node
+     */
+    protected Node<E> findRightmost(Node<E> n) {
+        Node<E> rightmost = n;
+        for (Node<E> right = right(rightmost); !isNull(right); right = right(rightmost)) {
+            rightmost = right;
         }
-        return findLeftmost(left(n));
+        return rightmost;
     }
 
     /**
@@ -81,6 +118,9 @@ public class BinarySearchTree<E> extends LinkedBinaryTree<E> {
      * -1 if right is greater
      */
     protected int compare(E val1, E val2) {
+        if (OperationCounters.ENABLED) {
+            OperationCounters.increment(Counter.COMPARISONS);
+        }
         if (isNull(val1) || isNull(val2)) {
             throw new IllegalStateException("cannot compare nulls");
         }
@@ -102,27 +142,202 @@ public class BinarySearchTree<E> extends LinkedBinaryTree<E> {
      * @return node containing searched value
      */
     public Node<E> treeSearch(Node<E> n, E val) {
-        if (isNull(n)) {
-            return null;
-        }
-        if (compare(n.getElement(), val) == 0) {
-            return n;
-        }
-        if (compare(n.getElement(), val) < 0) {
-            if (!isNull(right(n))) {
-                return treeSearch(right(n), val);
+        Node<E> node = n;
+        int length = 0;
+        while (!isNull(node)) {
+            length++;
+            int compare = compare(node.getElement(), val);
+            if (compare == 0) {
+                countSearch(length);
+                return node;
             }
-        } else {
-            return treeSearch(left(n), val);
+            node = compare < 0 ? right(node) : left(node);
         }
+        countSearch(length);
         return null;
     }
 
     public E search(E val) {
-        if (treeSearch(root(), val) != null) {
-            return treeSearch(root(), val).getElement();
+        Node<E> node = treeSearch(root(), val);
+        return isNull(node) ? null : node.getElement();
+    }
+
+    /**
+     * @param val value to search
+     * @return node with the greatest element less than or equal to <i>val</i> (or null if there is no such node)
+     */
+    public Node<E> floorNode(E val) {
+        return boundNode(val, false, true);
+    }
+
+    /**
+     * @param val value to search
+     * @return node with the least element greater than or equal to <i>val</i> (or null if there is no such node)
+     */
+    public Node<E> ceilingNode(E val) {
+        return boundNode(val, true, true);
+    }
+
+    /**
+     * @param val value to search
+     * @return node with the least element strictly greater than <i>val</i> (or null if there is no such node)
+     */
+    public Node<E> higherNode(E val) {
+        return boundNode(val, true, false);
+    }
+
+    /**
+     * @param val value to search
+     * @return node with the greatest element strictly less than <i>val</i> (or null if there is no such node)
+     */
+    public Node<E> lowerNode(E val) {
+        return boundNode(val, false, false);
+    }
+
+    /**
+     * @return node with the least element (or null if the tree is empty)
+     */
+    public Node<E> firstNode() {
+        return isNull(root()) ? null : findLeftmost(root());
+    }
+
+    /**
+     * @return node with the greatest element (or null if the tree is empty)
+     */
+    public Node<E> lastNode() {
+        return isNull(root()) ? null : findRightmost(root());
+    }
+
+    /**
+     * @param val value to search
+     * @return the greatest element less than or equal to <i>val</i> (or null if there is no such element)
+     */
+    public E floor(E val) {
+        return elementOrNull(floorNode(val));
+    }
+
+    /**
+     * @param val value to search
+     * @return the least element greater than or equal to <i>val</i> (or null if there is no such element)
+     */
+    public E ceiling(E val) {
+        return elementOrNull(ceilingNode(val));
+    }
+
+    /**
+     * @param val value to search
+     * @return the least element strictly greater than <i>val</i> (or null if there is no such element)
+     */
+    public E higher(E val) {
+        return elementOrNull(higherNode(val));
+    }
+
+    /**
+     * @param val value to search
+     * @return the greatest element strictly less than <i>val</i> (or null if there is no such element)
+     */
+    public E lower(E val) {
+        return elementOrNull(lowerNode(val));
+    }
+
+    /**
+     * @return the least element
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E first() {
+        return exists(firstNode()).getElement();
+    }
+
+    /**
+     * @return the greatest element
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E last() {
+        return exists(lastNode()).getElement();
+    }
+
+    /**
+     * @return an iterator over elements in descending order
+     */
+    public Iterator<E> descendingIterator() {
+        return asNavigableSet().descendingIterator();
+    }
+
+    /**
+     * @return a live {@link NavigableSet} view of the tree. Changes of the tree are visible in the view and adding
+     * or removing elements through the view changes the tree
+     */
+    public NavigableSet<E> asNavigableSet() {
+        return new BinarySearchTreeSet<>(this);
+    }
+
+    /**
+     * @param fromElement   low endpoint
+     * @param fromInclusive true if the low endpoint is included in the view
+     * @param toElement     high endpoint
+     * @param toInclusive   true if the high endpoint is included in the view
+     * @return a live view of the elements between <i>fromElement</i> and <i>toElement</i>
+     * @see NavigableSet#subSet(Object, boolean, Object, boolean)
+     */
+    public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        return asNavigableSet().subSet(fromElement, fromInclusive, toElement, toInclusive);
+    }
+
+    /**
+     * @param toElement high endpoint
+     * @param inclusive true if the high endpoint is included in the view
+     * @return a live view of the elements less than (or equal to) <i>toElement</i>
+     * @see NavigableSet#headSet(Object, boolean)
+     */
+    public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+        return asNavigableSet().headSet(toElement, inclusive);
+    }
+
+    /**
+     * @param fromElement low endpoint
+     * @param inclusive   true if the low endpoint is included in the view
+     * @return a live view of the elements greater than (or equal to) <i>fromElement</i>
+     * @see NavigableSet#tailSet(Object, boolean)
+     */
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+        return asNavigableSet().tailSet(fromElement, inclusive);
+    }
+
+    /**
+     * finds the nearest node to <i>val</i> in a single descent
+     *
+     * @param val       value to search
+     * @param above     true to search the nearest greater node, false to search the nearest less node
+     * @param inclusive true if node containing <i>val</i> itself is acceptable
+     * @return found node (or null if there is no such node)
+     */
+    private Node<E> boundNode(E val, boolean above, boolean inclusive) {
+        Node<E> bound = null;
+        Node<E> node = root();
+        while (!isNull(node)) {
+            int compare = compare(node.getElement(), val);
+            if (compare == 0 && inclusive) {
+                return node;
+            }
+            if (above ? compare > 0 : compare < 0) {
+                bound = node;
+                node = above ? left(node) : right(node);
+            } else {
+                node = above ? right(node) : left(node);
+            }
         }
-        return null;
+        return bound;
+    }
+
+    private E elementOrNull(Node<E> node) {
+        return isNull(node) ? null : node.getElement();
+    }
+
+    private Node<E> exists(Node<E> node) {
+        if (isNull(node)) {
+            throw new NoSuchElementException();
+        }
+        return node;
     }
 
     /**
@@ -193,21 +408,40 @@ public class BinarySearchTree<E> extends LinkedBinaryTree<E> {
         }
     }
 
+    /**
+     * adds new leaf to <i>n</i>'s subtree accordingly it's value
+     *
+     * @param n   subtree's root
+     * @param val value to add
+     * @return added leaf or node already containing <i>val</i>
+     */
     @Override
     public Node<E> add(Node<E> n, E val) {
         checkVal(val);
-        int compare = compare(n.getElement(), val);
-        if (compare > 0) {
-            if (isNull(left(n))) {
-                return addLeft(n, val);
+        Node<E> node = n;
+        int length = 0;
+        while (true) {
+            length++;
+            int compare = compare(node.getElement(), val);
+            if (compare == 0) {
+                countSearch(length);
+                return node;
             }
-            return add(left(n), val);
-        } else if (compare < 0) {
-            if (isNull(right(n))) {
-                return addRight(n, val);
+            Node<E> next = compare > 0 ? left(node) : right(node);
+            if (isNull(next)) {
+                countSearch(length);
+                return compare > 0 ? addLeft(node, val) : addRight(node, val);
             }
-            return add(right(n), val);
+            node = next;
+        }
+    }
+
+    /**
+     * counts a descent which visited <i>length</i> nodes if {@link OperationCounters} are enabled
+     */
+    private static void countSearch(int length) {
+        if (OperationCounters.ENABLED) {
+            OperationCounters.searchPath(length);
         }
-        return n;
     }
 }
@@ -0,0 +1,366 @@
+package ru.spbstu.redblacktree.tree.binarytree.search;
+
+import ru.spbstu.redblacktree.tree.Node;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+import static java.util.Objects.isNull;
+
+/**
+ * live {@link NavigableSet} view of a {@link BinarySearchTree}, possibly restricted to a range of elements and
+ * possibly in descending order. Nothing is copied: navigation descends the tree once and iteration walks
+ * from the first node in range by successor links, so iterating <i>k</i> elements takes O(log n + k)
+ *
+ * @param <E> element
+ */
+public class BinarySearchTreeSet<E> extends AbstractSet<E> implements NavigableSet<E> {
+    private static final String OUT_OF_RANGE_MSG = "element out of range";
+    private final BinarySearchTree<E> tree;
+    private final boolean fromStart;
+    private final E lo;
+    private final boolean loInclusive;
+    private final boolean toEnd;
+    private final E hi;
+    private final boolean hiInclusive;
+    private final boolean descending;
+
+    /**
+     * creates a view of the whole <i>tree</i> in ascending order
+     *
+     * @param tree tree to view
+     */
+    public BinarySearchTreeSet(BinarySearchTree<E> tree) {
+        this(tree, true, null, true, true, null, true, false);
+    }
+
+    private BinarySearchTreeSet(BinarySearchTree<E> tree, boolean fromStart, E lo, boolean loInclusive,
+                                boolean toEnd, E hi, boolean hiInclusive, boolean descending) {
+        if (!fromStart && !toEnd && tree.compare(lo, hi) > 0) {
+            throw new IllegalArgumentException("fromElement > toElement");
+        }
+        this.tree = tree;
+        this.fromStart = fromStart;
+        this.lo = lo;
+        this.loInclusive = loInclusive;
+        this.toEnd = toEnd;
+        this.hi = hi;
+        this.hiInclusive = hiInclusive;
+        this.descending = descending;
+    }
+
+    /**
+     * @param e element
+     * @return true if <i>e</i> is within the bounds of the view
+     */
+    public boolean inRange(E e) {
+        return !tooLow(e) && !tooHigh(e);
+    }
+
+    @Override
+    public int size() {
+        if (fromStart && toEnd) {
+            return tree.size();
+        }
+        int size = 0;
+        for (Node<E> node = lowestNode(); !isNull(node); node = nextInRange(node)) {
+            size++;
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return isNull(lowestNode());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object o) {
+        try {
+            return !isNull(o) && inRange((E) o) && !isNull(tree.treeSearch(tree.root(), (E) o));
+        } catch (ClassCastException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean add(E e) {
+        if (!inRange(e)) {
+            throw new IllegalArgumentException(OUT_OF_RANGE_MSG);
+        }
+        int oldSize = tree.size();
+        tree.add(e);
+        return tree.size() != oldSize;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object o) {
+        if (!contains(o)) {
+            return false;
+        }
+        tree.remove(tree.treeSearch(tree.root(), (E) o));
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        if (fromStart && toEnd) {
+            tree.clear();
+            return;
+        }
+        Node<E> node = lowestNode();
+        while (!isNull(node)) {
+            Node<E> next = nextInRange(node);
+            tree.remove(node);
+            node = next;
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new RangeIterator(descending);
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return new RangeIterator(!descending);
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return descending ? Collections.reverseOrder(tree.comparator()) : tree.comparator();
+    }
+
+    @Override
+    public E first() {
+        return exists(descending ? highestNode() : lowestNode()).getElement();
+    }
+
+    @Override
+    public E last() {
+        return exists(descending ? lowestNode() : highestNode()).getElement();
+    }
+
+    @Override
+    public E lower(E e) {
+        return elementOrNull(descending ? higherNode(e) : lowerNode(e));
+    }
+
+    @Override
+    public E floor(E e) {
+        return elementOrNull(descending ? ceilingNode(e) : floorNode(e));
+    }
+
+    @Override
+    public E ceiling(E e) {
+        return elementOrNull(descending ? floorNode(e) : ceilingNode(e));
+    }
+
+    @Override
+    public E higher(E e) {
+        return elementOrNull(descending ? lowerNode(e) : higherNode(e));
+    }
+
+    @Override
+    public E pollFirst() {
+        return poll(descending ? highestNode() : lowestNode());
+    }
+
+    @Override
+    public E pollLast() {
+        return poll(descending ? lowestNode() : highestNode());
+    }
+
+    @Override
+    public NavigableSet<E> descendingSet() {
+        return new BinarySearchTreeSet<>(tree, fromStart, lo, loInclusive, toEnd, hi, hiInclusive, !descending);
+    }
+
+    @Override
+    public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        checkBound(fromElement, fromInclusive);
+        checkBound(toElement, toInclusive);
+        if (descending) {
+            return new BinarySearchTreeSet<>(tree, false, toElement, toInclusive, false, fromElement, fromInclusive,
+                    true);
+        }
+        return new BinarySearchTreeSet<>(tree, false, fromElement, fromInclusive, false, toElement, toInclusive,
+                false);
+    }
+
+    @Override
+    public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+        checkBound(toElement, inclusive);
+        if (descending) {
+            return new BinarySearchTreeSet<>(tree, false, toElement, inclusive, toEnd, hi, hiInclusive, true);
+        }
+        return new BinarySearchTreeSet<>(tree, fromStart, lo, loInclusive, false, toElement, inclusive, false);
+    }
+
+    @Override
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+        checkBound(fromElement, inclusive);
+        if (descending) {
+            return new BinarySearchTreeSet<>(tree, fromStart, lo, loInclusive, false, fromElement, inclusive, true);
+        }
+        return new BinarySearchTreeSet<>(tree, false, fromElement, inclusive, toEnd, hi, hiInclusive, false);
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    private boolean tooLow(E e) {
+        if (fromStart) {
+            return false;
+        }
+        int compare = tree.compare(e, lo);
+        return compare < 0 || compare == 0 && !loInclusive;
+    }
+
+    private boolean tooHigh(E e) {
+        if (toEnd) {
+            return false;
+        }
+        int compare = tree.compare(e, hi);
+        return compare > 0 || compare == 0 && !hiInclusive;
+    }
+
+    /**
+     * new bound of a nested view must lie within the closed range of this view, and an inclusive one within the
+     * view itself, so a nested view never reaches beyond an excluded bound
+     */
+    private void checkBound(E e, boolean inclusive) {
+        if (isNull(e)) {
+            throw new NullPointerException();
+        }
+        if (inclusive ? !inRange(e) : !fromStart && tree.compare(e, lo) < 0 || !toEnd && tree.compare(e, hi) > 0) {
+            throw new IllegalArgumentException(OUT_OF_RANGE_MSG);
+        }
+    }
+
+    /**
+     * @return node with the least element in range (or null if the view is empty)
+     */
+    private Node<E> lowestNode() {
+        Node<E> node = fromStart ? tree.firstNode() : loInclusive ? tree.ceilingNode(lo) : tree.higherNode(lo);
+        return isNull(node) || tooHigh(node.getElement()) ? null : node;
+    }
+
+    /**
+     * @return node with the greatest element in range (or null if the view is empty)
+     */
+    private Node<E> highestNode() {
+        Node<E> node = toEnd ? tree.lastNode() : hiInclusive ? tree.floorNode(hi) : tree.lowerNode(hi);
+        return isNull(node) || tooLow(node.getElement()) ? null : node;
+    }
+
+    private Node<E> nextInRange(Node<E> node) {
+        Node<E> next = tree.successor(node);
+        return isNull(next) || tooHigh(next.getElement()) ? null : next;
+    }
+
+    private Node<E> previousInRange(Node<E> node) {
+        Node<E> previous = tree.predecessor(node);
+        return isNull(previous) || tooLow(previous.getElement()) ? null : previous;
+    }
+
+    private Node<E> ceilingNode(E e) {
+        return tooLow(e) ? lowestNode() : inRangeOrNull(tree.ceilingNode(e));
+    }
+
+    private Node<E> higherNode(E e) {
+        return tooLow(e) ? lowestNode() : inRangeOrNull(tree.higherNode(e));
+    }
+
+    private Node<E> floorNode(E e) {
+        return tooHigh(e) ? highestNode() : inRangeOrNull(tree.floorNode(e));
+    }
+
+    private Node<E> lowerNode(E e) {
+        return tooHigh(e) ? highestNode() : inRangeOrNull(tree.lowerNode(e));
+    }
+
+    private Node<E> inRangeOrNull(Node<E> node) {
+        return isNull(node) || !inRange(node.getElement()) ? null : node;
+    }
+
+    private E poll(Node<E> node) {
+        return isNull(node) ? null : tree.remove(node);
+    }
+
+    private E elementOrNull(Node<E> node) {
+        return isNull(node) ? null : node.getElement();
+    }
+
+    private Node<E> exists(Node<E> node) {
+        if (isNull(node)) {
+            throw new NoSuchElementException();
+        }
+        return node;
+    }
+
+    /**
+     * walks nodes in range one by one, in ascending or descending order. Removal through the iterator is
+     * supported, other structural changes of the tree during iteration are detected by the size of the tree
+     */
+    private class RangeIterator implements Iterator<E> {
+        private final boolean backward;
+        private Node<E> next;
+        private Node<E> lastReturned;
+        private int expectedSize;
+
+        RangeIterator(boolean backward) {
+            this.backward = backward;
+            this.next = backward ? highestNode() : lowestNode();
+            this.expectedSize = tree.size();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !isNull(next);
+        }
+
+        @Override
+        public E next() {
+            if (isNull(next)) {
+                throw new NoSuchElementException();
+            }
+            if (tree.size() != expectedSize) {
+                throw new ConcurrentModificationException();
+            }
+            lastReturned = next;
+            next = backward ? previousInRange(next) : nextInRange(next);
+            return lastReturned.getElement();
+        }
+
+        @Override
+        public void remove() {
+            if (isNull(lastReturned)) {
+                throw new IllegalStateException();
+            }
+            tree.remove(lastReturned);
+            lastReturned = null;
+            expectedSize = tree.size();
+        }
+    }
+}
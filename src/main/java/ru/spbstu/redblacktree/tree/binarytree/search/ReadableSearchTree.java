@@ -0,0 +1,97 @@
+package ru.spbstu.redblacktree.tree.binarytree.search;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+
+/**
+ * read methods of a sorted set of distinct elements, shared by {@link BinarySearchTree} and read-only stores of
+ * sorted elements, so readers do not depend on how the elements are kept
+ *
+ * @param <E> element
+ */
+public interface ReadableSearchTree<E> extends Iterable<E> {
+    /**
+     * @return comparator used to order elements, or null if elements are {@link Comparable}
+     */
+    Comparator<? super E> comparator();
+
+    /**
+     * @return the number of elements
+     */
+    int size();
+
+    /**
+     * @param val value to search
+     * @return element equal to <i>val</i> (or null if there is no such element)
+     */
+    E search(E val);
+
+    /**
+     * @param val value to search
+     * @return the greatest element less than or equal to <i>val</i> (or null if there is no such element)
+     */
+    E floor(E val);
+
+    /**
+     * @param val value to search
+     * @return the least element greater than or equal to <i>val</i> (or null if there is no such element)
+     */
+    E ceiling(E val);
+
+    /**
+     * @param val value to search
+     * @return the least element strictly greater than <i>val</i> (or null if there is no such element)
+     */
+    E higher(E val);
+
+    /**
+     * @param val value to search
+     * @return the greatest element strictly less than <i>val</i> (or null if there is no such element)
+     */
+    E lower(E val);
+
+    /**
+     * @return the least element
+     * @throws NoSuchElementException if there are no elements
+     */
+    E first();
+
+    /**
+     * @return the greatest element
+     * @throws NoSuchElementException if there are no elements
+     */
+    E last();
+
+    /**
+     * @return an iterator over elements in ascending order
+     */
+    @Override
+    Iterator<E> iterator();
+
+    /**
+     * @return an iterator over elements in descending order
+     */
+    Iterator<E> descendingIterator();
+
+    /**
+     * @return {@link NavigableSet} view of the elements
+     */
+    NavigableSet<E> asNavigableSet();
+
+    /**
+     * @see NavigableSet#subSet(Object, boolean, Object, boolean)
+     */
+    NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive);
+
+    /**
+     * @see NavigableSet#headSet(Object, boolean)
+     */
+    NavigableSet<E> headSet(E toElement, boolean inclusive);
+
+    /**
+     * @see NavigableSet#tailSet(Object, boolean)
+     */
+    NavigableSet<E> tailSet(E fromElement, boolean inclusive);
+}
@@ -2,10 +2,21 @@ package ru.spbstu.redblacktree.tree.binarytree.search.balanced;
 
 import ru.spbstu.redblacktree.tree.Node;
 import ru.spbstu.redblacktree.tree.binarytree.search.BinarySearchTree;
+import ru.spbstu.redblacktree.utils.OperationCounters;
+import ru.spbstu.redblacktree.utils.OperationCounters.Counter;
+
+import java.util.Comparator;
 
 import static java.util.Objects.isNull;
 
 public abstract class BalanceAbleTree<E> extends BinarySearchTree<E> {
+    public BalanceAbleTree() {
+    }
+
+    public BalanceAbleTree(Comparator<? super E> comparator) {
+        super(comparator);
+    }
+
     /**
      * sets new relationship between parent and child. This method is used by
      * {@link #rotate(Node)} for node and its grandparent,
@@ -33,6 +44,18 @@ public abstract class BalanceAbleTree<E> extends BinarySearchTree<E> {
             setLeft(parent, right(child));
             setRight(child, parent);
         }
+        refresh(parent);
+        refresh(child);
+    }
+
+    /**
+     * updates data that <i>n</i> keeps about its subtree after <i>n</i>'s children changed. Called by
+     * {@link #relink(Node, Node, boolean)} for the new child first and then for the new parent. Does nothing by
+     * default
+     *
+     * @param n node which subtree changed
+     */
+    protected void refresh(Node<E> n) {
     }
 
     /**
@@ -41,6 +64,9 @@ public abstract class BalanceAbleTree<E> extends BinarySearchTree<E> {
      * @param node node to rotate above its parent
      */
     protected void rotate(Node<E> node) {
+        if (OperationCounters.ENABLED) {
+            OperationCounters.increment(Counter.ROTATIONS);
+        }
         Node<E> parent = getNoNullParent(node);
         boolean makeLeftChild = node == right(parent);
         relink(parent, node, makeLeftChild);
@@ -0,0 +1,308 @@
+package ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree;
+
+import ru.spbstu.redblacktree.tree.Node;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.util.Objects.isNull;
+
+/**
+ * red-black tree which remembers where it changed since the last {@link #markClean()}, so a checkpoint can write
+ * only the changed regions instead of the whole tree.
+ * <p>
+ * An added element is marked as changed. A removed element leaves a gap between its neighbours, so both neighbours
+ * are marked (or the edge of the tree if there is no neighbour). Every node also keeps whether its subtree has a
+ * marked node. Marks are set on the path to the root after a change and are recalculated by {@link #refresh(Node)}
+ * for both nodes of every rotation, so {@link #dirtyRanges()} descends only into changed subtrees and takes
+ * O(k log n) for k marked nodes.
+ * <p>
+ * Bulk changes ({@link #loadSorted}, set operations, {@link #clear()}) are not tracked, the tree is
+ * {@link #isRewritten() rewritten} after them. Nodes added directly by {@link #addLeft(Node, Object)} or
+ * {@link #addRight(Node, Object)} are not marked.
+ *
+ * @param <E> element
+ */
+public class CheckpointableRedBlackTree<E> extends RedBlackTree<E> {
+    private boolean headDirty;
+    private boolean tailDirty;
+    private boolean rewritten;
+
+    public CheckpointableRedBlackTree() {
+    }
+
+    public CheckpointableRedBlackTree(Comparator<? super E> comparator) {
+        super(comparator);
+    }
+
+    @Override
+    public Node<E> add(E val) {
+        int oldSize = size();
+        Node<E> node = super.add(val);
+        if (size() != oldSize) {
+            mark(node);
+        }
+        return node;
+    }
+
+    @Override
+    public E remove(Node<E> n) {
+        E element = super.remove(n);
+        markGap(element);
+        return element;
+    }
+
+    @Override
+    public E set(Node<E> n, E e) {
+        E old = super.set(n, e);
+        mark(n);
+        markGap(old);
+        return old;
+    }
+
+    @Override
+    protected void setContent(Node<E> root, int size) {
+        super.setContent(root, size);
+        rewritten = true;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        rewritten = true;
+    }
+
+    /**
+     * @return true if the tree was changed by a bulk operation since the last {@link #markClean()}, so its changes
+     * are unknown and the whole tree has to be written
+     */
+    public boolean isRewritten() {
+        return rewritten;
+    }
+
+    /**
+     * @return true if the tree has changed since the last {@link #markClean()}
+     */
+    public boolean isDirty() {
+        return rewritten || headDirty || tailDirty || !isNull(root()) && cpValidate(root()).dirty;
+    }
+
+    /**
+     * lists changed regions in ascending order. Each region holds all current elements between its bounds, so
+     * replacing the elements between the bounds of every region of an older copy of the tree by the elements of the
+     * region makes the copy equal to the tree. Meaningless if the tree is {@link #isRewritten() rewritten}
+     *
+     * @return disjoint regions which cover every change since the last {@link #markClean()}
+     */
+    public List<DirtyRange<E>> dirtyRanges() {
+        List<Node<E>> marked = new ArrayList<>();
+        collectMarked(root(), marked);
+        List<DirtyRange<E>> ranges = new ArrayList<>();
+        if (marked.isEmpty()) {
+            if (headDirty || tailDirty) {
+                //only removals of the edge elements are left, that means the tree is empty
+                ranges.add(new DirtyRange<>(null, null, Collections.<E>emptyList()));
+            }
+            return ranges;
+        }
+        List<E> elements = new ArrayList<>();
+        Node<E> first = marked.get(0);
+        for (int i = 0; i < marked.size(); i++) {
+            Node<E> node = marked.get(i);
+            elements.add(node.getElement());
+            Node<E> next = successor(node);
+            if (i + 1 == marked.size() || marked.get(i + 1) != next) {
+                E low = headDirty && isNull(predecessor(first)) ? null : first.getElement();
+                E high = tailDirty && isNull(next) ? null : node.getElement();
+                ranges.add(new DirtyRange<>(low, high, elements));
+                elements = new ArrayList<>();
+                if (i + 1 < marked.size()) {
+                    first = marked.get(i + 1);
+                }
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * forgets all changes. Takes O(k log n) for k marked nodes, or O(n) if the tree is rewritten
+     */
+    public void markClean() {
+        if (rewritten) {
+            clearAll(root());
+        } else {
+            clearMarked(root());
+        }
+        headDirty = false;
+        tailDirty = false;
+        rewritten = false;
+    }
+
+    /**
+     * replaces all elements between <i>low</i> and <i>high</i> (inclusive) by <i>elements</i>. Used to apply a
+     * {@link DirtyRange} to an older copy of the tree
+     *
+     * @param low      the least bound (or null if the range is unbounded below)
+     * @param high     the greatest bound (or null if the range is unbounded above)
+     * @param elements new elements of the range
+     * @throws IllegalArgumentException if one of <i>elements</i> is out of the range
+     */
+    public void replaceRange(E low, E high, Collection<? extends E> elements) {
+        for (E element : elements) {
+            if (!isNull(low) && compare(element, low) < 0 || !isNull(high) && compare(element, high) > 0) {
+                throw new IllegalArgumentException("element " + element + " is out of the range");
+            }
+        }
+        Node<E> node = isNull(low) ? firstNode() : ceilingNode(low);
+        while (!isNull(node) && (isNull(high) || compare(node.getElement(), high) <= 0)) {
+            E element = node.getElement();
+            remove(node);
+            node = higherNode(element);
+        }
+        for (E element : elements) {
+            add(element);
+        }
+    }
+
+    @Override
+    protected void refresh(Node<E> n) {
+        CPNode<E> node = cpValidate(n);
+        node.dirty = node.changed || isDirty(left(n)) || isDirty(right(n));
+    }
+
+    @Override
+    protected CPNode<E> createNode(E e) {
+        return new CPNode<>(e);
+    }
+
+    /**
+     * marks <i>n</i> as changed and its ancestors as having a changed subtree
+     */
+    private void mark(Node<E> n) {
+        cpValidate(n).changed = true;
+        for (Node<E> node = n; !isNull(node); node = parent(node)) {
+            cpValidate(node).dirty = true;
+        }
+    }
+
+    /**
+     * marks the neighbours of the removed <i>element</i>, the search path of <i>element</i> may have changed, but
+     * the gap between the neighbours contains it anyway
+     */
+    private void markGap(E element) {
+        Node<E> lower = lowerNode(element);
+        Node<E> higher = higherNode(element);
+        if (isNull(lower)) {
+            headDirty = true;
+        } else {
+            mark(lower);
+        }
+        if (isNull(higher)) {
+            tailDirty = true;
+        } else {
+            mark(higher);
+        }
+    }
+
+    private boolean isDirty(Node<E> n) {
+        return !isNull(n) && cpValidate(n).dirty;
+    }
+
+    private void collectMarked(Node<E> n, List<Node<E>> marked) {
+        if (!isDirty(n)) {
+            return;
+        }
+        collectMarked(left(n), marked);
+        if (cpValidate(n).changed) {
+            marked.add(n);
+        }
+        collectMarked(right(n), marked);
+    }
+
+    private void clearMarked(Node<E> n) {
+        if (!isDirty(n)) {
+            return;
+        }
+        CPNode<E> node = cpValidate(n);
+        node.changed = false;
+        node.dirty = false;
+        clearMarked(left(n));
+        clearMarked(right(n));
+    }
+
+    private void clearAll(Node<E> n) {
+        if (isNull(n)) {
+            return;
+        }
+        CPNode<E> node = cpValidate(n);
+        node.changed = false;
+        node.dirty = false;
+        clearAll(left(n));
+        clearAll(right(n));
+    }
+
+    /**
+     * validates the node is an instance of supported {@link CPNode} type and casts to it
+     *
+     * @param n given node
+     * @return casted {@link CPNode} node
+     */
+    private CPNode<E> cpValidate(Node<E> n) {
+        if (n instanceof CPNode) {
+            return (CPNode<E>) n;
+        } else if (isNull(n)) {
+            throw new IllegalArgumentException("node can't be null");
+        }
+        throw new IllegalArgumentException("wrong node");
+    }
+
+    /**
+     * changed region of the tree
+     *
+     * @param <E> element
+     */
+    public static final class DirtyRange<E> {
+        private final E low;
+        private final E high;
+        private final List<E> elements;
+
+        DirtyRange(E low, E high, List<E> elements) {
+            this.low = low;
+            this.high = high;
+            this.elements = Collections.unmodifiableList(elements);
+        }
+
+        /**
+         * @return the least element of the range (or null if the range is unbounded below)
+         */
+        public E getLow() {
+            return low;
+        }
+
+        /**
+         * @return the greatest element of the range (or null if the range is unbounded above)
+         */
+        public E getHigh() {
+            return high;
+        }
+
+        /**
+         * @return all elements of the range in ascending order
+         */
+        public List<E> getElements() {
+            return elements;
+        }
+    }
+
+    protected static class CPNode<E> extends RBNode<E> {
+        private boolean changed;
+        private boolean dirty;
+
+        public CPNode(E element) {
+            super(element);
+        }
+    }
+}
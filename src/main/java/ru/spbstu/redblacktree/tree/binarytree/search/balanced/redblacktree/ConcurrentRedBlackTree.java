@@ -0,0 +1,355 @@
+package ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree;
+
+import ru.spbstu.redblacktree.tree.Node;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+import static java.util.Objects.isNull;
+
+/**
+ * thread-safe sorted set of distinct elements kept in a {@link RedBlackTree} guarded by a {@link StampedLock}.
+ * <p>
+ * {@link #add} and {@link #remove} take the write lock. Searches, navigation and {@link #size} first run as
+ * optimistic reads without locking: a descent that meets a concurrent change may see broken links, so it is bounded
+ * by the greatest possible height of the tree, any failure is ignored and the result is used only if the stamp is
+ * still valid. Otherwise the read is repeated under the read lock, so readers never block each other.
+ * <p>
+ * {@link #iterator()} is weakly consistent: it copies elements by chunks under the read lock and resumes after the
+ * last returned element, so it never throws {@link java.util.ConcurrentModificationException} and may or may not
+ * reflect changes made during iteration.
+ *
+ * @param <E> element
+ */
+public class ConcurrentRedBlackTree<E> implements Iterable<E> {
+    /**
+     * height of a red-black tree of {@link Integer#MAX_VALUE} nodes is at most 2 * log2(n + 1) = 62, a longer
+     * descent means the links were changed under the reader
+     */
+    private static final int MAX_HEIGHT = 64;
+    private static final int ITERATION_CHUNK = 64;
+    private final RedBlackTree<E> tree;
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * creates an empty tree ordered by the natural ordering of its {@link Comparable} elements
+     */
+    public ConcurrentRedBlackTree() {
+        this.tree = new RedBlackTree<>();
+    }
+
+    /**
+     * creates an empty tree ordered by <i>comparator</i>
+     *
+     * @param comparator element comparator, must be safe to call from several threads
+     */
+    public ConcurrentRedBlackTree(Comparator<? super E> comparator) {
+        this.tree = new RedBlackTree<>(comparator);
+    }
+
+    /**
+     * adds <i>val</i> under the write lock
+     *
+     * @param val element to add
+     * @return true if the tree did not contain <i>val</i>
+     */
+    public boolean add(E val) {
+        long stamp = lock.writeLock();
+        try {
+            int oldSize = tree.size();
+            tree.add(val);
+            return tree.size() != oldSize;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * removes <i>val</i> under the write lock
+     *
+     * @param val element to remove
+     * @return true if the tree contained <i>val</i>
+     */
+    public boolean remove(E val) {
+        long stamp = lock.writeLock();
+        try {
+            return !isNull(tree.remove(val));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * removes all elements under the write lock
+     */
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            tree.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return the number of elements
+     */
+    public int size() {
+        return read(tree::size);
+    }
+
+    /**
+     * @return true if the tree contains no elements
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @param val value to search
+     * @return true if the tree contains <i>val</i>
+     */
+    public boolean contains(E val) {
+        return !isNull(search(val));
+    }
+
+    /**
+     * @param val value to search
+     * @return element equal to <i>val</i> (or null if there is no such element)
+     */
+    public E search(E val) {
+        return read(() -> descend(val, Bound.EXACT));
+    }
+
+    /**
+     * @param val value to search
+     * @return the greatest element less than or equal to <i>val</i> (or null if there is no such element)
+     */
+    public E floor(E val) {
+        return read(() -> descend(val, Bound.FLOOR));
+    }
+
+    /**
+     * @param val value to search
+     * @return the least element greater than or equal to <i>val</i> (or null if there is no such element)
+     */
+    public E ceiling(E val) {
+        return read(() -> descend(val, Bound.CEILING));
+    }
+
+    /**
+     * @param val value to search
+     * @return the least element strictly greater than <i>val</i> (or null if there is no such element)
+     */
+    public E higher(E val) {
+        return read(() -> descend(val, Bound.HIGHER));
+    }
+
+    /**
+     * @param val value to search
+     * @return the greatest element strictly less than <i>val</i> (or null if there is no such element)
+     */
+    public E lower(E val) {
+        return read(() -> descend(val, Bound.LOWER));
+    }
+
+    /**
+     * @return the least element
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E first() {
+        return exists(read(() -> outermost(true)));
+    }
+
+    /**
+     * @return the greatest element
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E last() {
+        return exists(read(() -> outermost(false)));
+    }
+
+    /**
+     * @return weakly consistent iterator over elements in ascending order
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new ChunkIterator();
+    }
+
+    @Override
+    public String toString() {
+        long stamp = lock.readLock();
+        try {
+            return tree.asNavigableSet().toString();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * runs <i>reader</i> as an optimistic read and repeats it under the read lock if a writer interfered
+     *
+     * @param reader read-only action on the tree
+     * @return result of <i>reader</i> that was not interfered
+     */
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                //links were changed during the descent, the result is discarded
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * descends the tree at most {@link #MAX_HEIGHT} steps
+     *
+     * @param val   value to search
+     * @param bound element to search relatively to <i>val</i>
+     * @return found element (or null if there is no such element)
+     * @throws IllegalStateException if the descent is longer than the tree may be
+     */
+    private E descend(E val, Bound bound) {
+        Node<E> found = null;
+        Node<E> node = tree.root();
+        for (int step = 0; !isNull(node); step++) {
+            if (step == MAX_HEIGHT) {
+                throw new IllegalStateException("tree changed during descent");
+            }
+            int compare = compare(node.getElement(), val);
+            if (compare == 0 && bound.inclusive) {
+                return node.getElement();
+            }
+            if (bound.above ? compare > 0 : compare < 0) {
+                found = node;
+                node = bound.above ? tree.left(node) : tree.right(node);
+            } else {
+                node = bound.above ? tree.right(node) : tree.left(node);
+            }
+        }
+        return bound == Bound.EXACT || isNull(found) ? null : found.getElement();
+    }
+
+    /**
+     * @param leftmost true to search the least element, false to search the greatest one
+     * @return found element (or null if the tree is empty)
+     */
+    private E outermost(boolean leftmost) {
+        Node<E> node = tree.root();
+        if (isNull(node)) {
+            return null;
+        }
+        for (int step = 0; ; step++) {
+            if (step == MAX_HEIGHT) {
+                throw new IllegalStateException("tree changed during descent");
+            }
+            Node<E> next = leftmost ? tree.left(node) : tree.right(node);
+            if (isNull(next)) {
+                return node.getElement();
+            }
+            node = next;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(E val1, E val2) {
+        Comparator<? super E> comparator = tree.comparator();
+        return isNull(comparator) ? ((Comparable<E>) val1).compareTo(val2) : comparator.compare(val1, val2);
+    }
+
+    private static <E> E exists(E element) {
+        if (isNull(element)) {
+            throw new NoSuchElementException();
+        }
+        return element;
+    }
+
+    /**
+     * element searched by {@link #descend(Object, Bound)} relatively to the given value
+     */
+    private enum Bound {
+        EXACT(false, true), FLOOR(false, true), CEILING(true, true), HIGHER(true, false), LOWER(false, false);
+
+        private final boolean above;
+        private final boolean inclusive;
+
+        Bound(boolean above, boolean inclusive) {
+            this.above = above;
+            this.inclusive = inclusive;
+        }
+    }
+
+    /**
+     * copies up to {@link #ITERATION_CHUNK} elements at a time under the read lock starting after the last
+     * returned element
+     */
+    private class ChunkIterator implements Iterator<E> {
+        private final List<E> chunk = new ArrayList<>(ITERATION_CHUNK);
+        private int position;
+        private boolean exhausted;
+        private E lastReturned;
+
+        @Override
+        public boolean hasNext() {
+            if (position < chunk.size()) {
+                return true;
+            } else if (exhausted) {
+                return false;
+            }
+            fetch();
+            return position < chunk.size();
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = chunk.get(position++);
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (isNull(lastReturned)) {
+                throw new IllegalStateException();
+            }
+            ConcurrentRedBlackTree.this.remove(lastReturned);
+            lastReturned = null;
+        }
+
+        private void fetch() {
+            E after = chunk.isEmpty() ? null : chunk.get(chunk.size() - 1);
+            chunk.clear();
+            position = 0;
+            long stamp = lock.readLock();
+            try {
+                Node<E> node = isNull(after) ? tree.firstNode() : tree.higherNode(after);
+                while (!isNull(node) && chunk.size() < ITERATION_CHUNK) {
+                    chunk.add(node.getElement());
+                    node = tree.successor(node);
+                }
+                exhausted = isNull(node);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+}
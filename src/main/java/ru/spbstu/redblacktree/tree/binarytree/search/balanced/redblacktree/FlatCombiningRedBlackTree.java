@@ -0,0 +1,240 @@
+package ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree;
+
+import ru.spbstu.redblacktree.tree.binarytree.search.BinarySearchTree;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static java.util.Objects.isNull;
+
+/**
+ * thread-safe sorted set of distinct elements kept in a {@link RedBlackTree} that applies contended updates by flat
+ * combining.
+ * <p>
+ * A thread calling {@link #add} or {@link #remove} publishes the operation in its own slot and tries to take the
+ * lock. The thread that gets it becomes the combiner: it collects the pending operations of all slots, sorts them
+ * by element, so consecutive descents go down the same paths while they are still in cache, applies the batch and
+ * hands out the results. The other threads spin on their slots until the combiner has served them or the lock is
+ * free again, so under contention one lock acquisition serves many operations instead of passing the lock from
+ * thread to thread.
+ * <p>
+ * Operations of one batch overlap in time, so any order of them is linearizable. Each thread has one slot which is
+ * dropped by a combiner once the thread has terminated. Reads take the lock directly.
+ *
+ * @param <E> element
+ */
+public class FlatCombiningRedBlackTree<E> {
+    private static final int IDLE = 0;
+    private static final int PENDING = 1;
+    private static final int DONE = 2;
+    private final RedBlackTree<E> tree;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Queue<Slot<E>> slots = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Slot<E>> slot = ThreadLocal.withInitial(this::register);
+    /**
+     * pending operations of the current batch, used by the combiner only
+     */
+    private final List<Slot<E>> batch = new ArrayList<>();
+
+    /**
+     * creates an empty tree ordered by the natural ordering of its {@link Comparable} elements
+     */
+    public FlatCombiningRedBlackTree() {
+        this.tree = new RedBlackTree<>();
+    }
+
+    /**
+     * creates an empty tree ordered by <i>comparator</i>
+     *
+     * @param comparator element comparator
+     */
+    public FlatCombiningRedBlackTree(Comparator<? super E> comparator) {
+        this.tree = new RedBlackTree<>(comparator);
+    }
+
+    /**
+     * @param val element to add
+     * @return true if the tree did not contain <i>val</i>
+     */
+    public boolean add(E val) {
+        return combine(val, true);
+    }
+
+    /**
+     * @param val element to remove
+     * @return true if the tree contained <i>val</i>
+     */
+    public boolean remove(E val) {
+        return combine(val, false);
+    }
+
+    /**
+     * @param val value to search
+     * @return element equal to <i>val</i> (or null if there is no such element)
+     */
+    public E search(E val) {
+        return locked(() -> tree.search(val));
+    }
+
+    /**
+     * @param val value to search
+     * @return true if the tree contains <i>val</i>
+     */
+    public boolean contains(E val) {
+        return !isNull(search(val));
+    }
+
+    /**
+     * @return the number of elements
+     */
+    public int size() {
+        return locked(tree::size);
+    }
+
+    /**
+     * @return true if the tree contains no elements
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public String toString() {
+        return locked(() -> tree.asNavigableSet().toString());
+    }
+
+    /**
+     * publishes the operation in the slot of the current thread and waits until some combiner applies it
+     *
+     * @param val    element
+     * @param adding true to add <i>val</i>, false to remove it
+     * @return result of the operation
+     */
+    private boolean combine(E val, boolean adding) {
+        if (isNull(val)) {
+            throw new IllegalArgumentException(BinarySearchTree.NULL_NODE_MSG);
+        }
+        Slot<E> own = slot.get();
+        own.element = val;
+        own.adding = adding;
+        own.state = PENDING;
+        while (own.state != DONE) {
+            if (lock.tryLock()) {
+                try {
+                    applyPending();
+                } finally {
+                    lock.unlock();
+                }
+            } else {
+                Thread.yield();
+            }
+        }
+        own.state = IDLE;
+        own.element = null;
+        Throwable failure = own.failure;
+        if (!isNull(failure)) {
+            own.failure = null;
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw (RuntimeException) failure;
+        }
+        return own.result;
+    }
+
+    /**
+     * collects pending operations of all slots, applies them in the order of elements and releases their owners.
+     * Called under the lock
+     */
+    private void applyPending() {
+        for (Iterator<Slot<E>> iterator = slots.iterator(); iterator.hasNext(); ) {
+            Slot<E> next = iterator.next();
+            if (next.state == PENDING) {
+                batch.add(next);
+            } else if (!next.owner.isAlive()) {
+                iterator.remove();
+            }
+        }
+        int applied = 0;
+        try {
+            try {
+                batch.sort((slot1, slot2) -> compare(slot1.element, slot2.element));
+            } catch (RuntimeException e) {
+                //incomparable elements fail below in their own operations
+            }
+            for (; applied < batch.size(); applied++) {
+                Slot<E> next = batch.get(applied);
+                try {
+                    if (next.adding) {
+                        int oldSize = tree.size();
+                        tree.add(next.element);
+                        next.result = tree.size() != oldSize;
+                    } else {
+                        next.result = !isNull(tree.remove(next.element));
+                    }
+                } catch (RuntimeException | Error e) {
+                    next.failure = e;
+                }
+                next.state = DONE;
+            }
+        } catch (Error e) {
+            //owners must not spin forever, the combiner gets the error from its own slot
+            for (; applied < batch.size(); applied++) {
+                Slot<E> next = batch.get(applied);
+                next.failure = e;
+                next.state = DONE;
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private <T> T locked(Supplier<T> reader) {
+        lock.lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Slot<E> register() {
+        Slot<E> created = new Slot<>(Thread.currentThread());
+        slots.add(created);
+        return created;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(E val1, E val2) {
+        Comparator<? super E> comparator = tree.comparator();
+        return isNull(comparator) ? ((Comparable<E>) val1).compareTo(val2) : comparator.compare(val1, val2);
+    }
+
+    /**
+     * operation published by its owner thread. Plain fields are written before and read after the volatile
+     * {@link #state}, which orders them between the owner and the combiner
+     *
+     * @param <E> element
+     */
+    private static final class Slot<E> {
+        private final Thread owner;
+        private volatile int state = IDLE;
+        private E element;
+        private boolean adding;
+        private boolean result;
+        /**
+         * exception or error of the operation, rethrown to the owner
+         */
+        private Throwable failure;
+
+        Slot(Thread owner) {
+            this.owner = owner;
+        }
+    }
+}
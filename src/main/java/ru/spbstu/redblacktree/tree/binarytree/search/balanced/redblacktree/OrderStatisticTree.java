@@ -0,0 +1,152 @@
+package ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree;
+
+import ru.spbstu.redblacktree.tree.Node;
+
+import java.util.Comparator;
+
+import static java.util.Objects.isNull;
+
+/**
+ * red-black tree which nodes keep sizes of their subtrees, so ranks and range counts take O(log n).
+ * Sizes are maintained by {@link #add(Object)} and removals; nodes added directly by
+ * {@link #addLeft(Node, Object)} or {@link #addRight(Node, Object)} are not counted.
+ *
+ * @param <E> element
+ */
+public class OrderStatisticTree<E> extends RedBlackTree<E> {
+    public OrderStatisticTree() {
+    }
+
+    public OrderStatisticTree(Comparator<? super E> comparator) {
+        super(comparator);
+    }
+
+    /**
+     * @param val value
+     * @return the number of elements less than <i>val</i>
+     */
+    public int rank(E val) {
+        return countBelow(val, false);
+    }
+
+    /**
+     * @param k index of element in ascending order, starting from 0
+     * @return k-th least element
+     * @throws IndexOutOfBoundsException if <i>k</i> is negative or not less than size
+     */
+    public E select(int k) {
+        if (k < 0 || k >= size()) {
+            throw new IndexOutOfBoundsException("index " + k + " is out of [0, " + size() + ")");
+        }
+        Node<E> node = root();
+        int index = k;
+        while (true) {
+            int leftSize = subtreeSize(left(node));
+            if (index == leftSize) {
+                return node.getElement();
+            } else if (index < leftSize) {
+                node = left(node);
+            } else {
+                index -= leftSize + 1;
+                node = right(node);
+            }
+        }
+    }
+
+    /**
+     * @param lo the least value of range
+     * @param hi the greatest value of range
+     * @return the number of elements which are not less than <i>lo</i> and not greater than <i>hi</i>
+     */
+    public int countInRange(E lo, E hi) {
+        if (compare(lo, hi) > 0) {
+            return 0;
+        }
+        return countBelow(hi, true) - countBelow(lo, false);
+    }
+
+    /**
+     * @param n node
+     * @return the number of nodes in <i>n</i>'s subtree (0 for null)
+     */
+    public int subtreeSize(Node<E> n) {
+        return isNull(n) ? 0 : osValidate(n).size;
+    }
+
+    @Override
+    public Node<E> add(E val) {
+        int oldSize = size();
+        Node<E> node = super.add(val);
+        if (size() != oldSize) {
+            refreshPath(node);
+        }
+        return node;
+    }
+
+    @Override
+    protected void afterElementRemoved(Node<E> n) {
+        refreshPath(n);
+    }
+
+    @Override
+    protected void refresh(Node<E> n) {
+        osValidate(n).size = 1 + subtreeSize(left(n)) + subtreeSize(right(n));
+    }
+
+    @Override
+    protected OSNode<E> createNode(E e) {
+        return new OSNode<>(e);
+    }
+
+    /**
+     * counts elements less than <i>val</i> (or equal to it if <i>inclusive</i>) in a single descent
+     */
+    private int countBelow(E val, boolean inclusive) {
+        int count = 0;
+        Node<E> node = root();
+        while (!isNull(node)) {
+            int compare = compare(node.getElement(), val);
+            if (compare < 0 || compare == 0 && inclusive) {
+                count += subtreeSize(left(node)) + 1;
+                node = compare == 0 ? null : right(node);
+            } else if (compare > 0) {
+                node = left(node);
+            } else {
+                return count + subtreeSize(left(node));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * refreshes <i>n</i> and all its ancestors
+     */
+    private void refreshPath(Node<E> n) {
+        for (Node<E> node = n; !isNull(node); node = parent(node)) {
+            refresh(node);
+        }
+    }
+
+    /**
+     * validates the node is an instance of supported {@link OSNode} type and casts to it
+     *
+     * @param n given node
+     * @return casted {@link OSNode} node
+     */
+    private OSNode<E> osValidate(Node<E> n) {
+        if (n instanceof OSNode) {
+            return (OSNode<E>) n;
+        } else if (isNull(n)) {
+            throw new IllegalArgumentException("node can't be null");
+        }
+        throw new IllegalArgumentException("wrong node");
+    }
+
+    protected static class OSNode<E> extends RBNode<E> {
+        private int size = 1;
+
+        public OSNode(E element) {
+            super(element);
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree;
+
+import ru.spbstu.redblacktree.tree.Node;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static java.util.Objects.isNull;
+
+/**
+ * immutable sorted set of distinct elements stored in a red-black tree. {@link #add} and {@link #remove} return a
+ * new version of the tree that copies only the O(log n) nodes on the path to the changed element and shares all
+ * other nodes with the previous version, so every version stays valid and keeping one as a snapshot costs O(1).
+ * Readers of a version never need a lock.
+ * <p>
+ * Nodes have no parent links, so insertion is balanced on the way back up as described by Okasaki and deletion
+ * follows Kahrs' algorithm.
+ *
+ * @param <E> element
+ */
+public class PersistentRedBlackTree<E> implements Iterable<E> {
+    private final Comparator<? super E> comparator;
+    private final PersistentNode<E> root;
+    private final int size;
+
+    /**
+     * creates an empty tree ordered by the natural ordering of its {@link Comparable} elements
+     */
+    public PersistentRedBlackTree() {
+        this(null, null, 0);
+    }
+
+    /**
+     * creates an empty tree ordered by <i>comparator</i>
+     *
+     * @param comparator element comparator
+     */
+    public PersistentRedBlackTree(Comparator<? super E> comparator) {
+        this(comparator, null, 0);
+    }
+
+    private PersistentRedBlackTree(Comparator<? super E> comparator, PersistentNode<E> root, int size) {
+        this.comparator = comparator;
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @param val element to add
+     * @return version of the tree containing <i>val</i> (this tree if it already contains <i>val</i>)
+     * @throws IllegalArgumentException if <i>val</i> is null
+     */
+    public PersistentRedBlackTree<E> add(E val) {
+        if (isNull(val)) {
+            throw new IllegalArgumentException("cannot add null to search tree");
+        }
+        PersistentNode<E> added = insert(root, val);
+        if (added == root) {
+            return this;
+        }
+        return new PersistentRedBlackTree<>(comparator, blacken(added), size + 1);
+    }
+
+    /**
+     * @param val element to remove
+     * @return version of the tree without <i>val</i> (this tree if it does not contain <i>val</i>)
+     */
+    public PersistentRedBlackTree<E> remove(E val) {
+        if (!contains(val)) {
+            return this;
+        }
+        return new PersistentRedBlackTree<>(comparator, blacken(delete(root, val)), size - 1);
+    }
+
+    /**
+     * @param val value to search
+     * @return element equal to <i>val</i> (or null if there is no such element)
+     */
+    public E search(E val) {
+        PersistentNode<E> node = root;
+        while (!isNull(node)) {
+            int compare = compare(val, node.element);
+            if (compare == 0) {
+                return node.element;
+            }
+            node = compare < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /**
+     * @param val value to search
+     * @return true if the tree contains <i>val</i>
+     */
+    public boolean contains(E val) {
+        return !isNull(search(val));
+    }
+
+    /**
+     * @return the least element
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E first() {
+        PersistentNode<E> node = exists(root);
+        while (!isNull(node.left)) {
+            node = node.left;
+        }
+        return node.element;
+    }
+
+    /**
+     * @return the greatest element
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E last() {
+        PersistentNode<E> node = exists(root);
+        while (!isNull(node.right)) {
+            node = node.right;
+        }
+        return node.element;
+    }
+
+    /**
+     * @return the number of elements
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the tree contains no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return comparator used to order elements, or null if elements are {@link Comparable}
+     */
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    /**
+     * @return the root node (or null if the tree is empty). Nodes are immutable and may be shared by versions
+     */
+    public Node<E> root() {
+        return root;
+    }
+
+    /**
+     * @param n node of the tree
+     * @return left child of <i>n</i> (or null if there is no left child)
+     */
+    public Node<E> left(Node<E> n) {
+        return validate(n).left;
+    }
+
+    /**
+     * @param n node of the tree
+     * @return right child of <i>n</i> (or null if there is no right child)
+     */
+    public Node<E> right(Node<E> n) {
+        return validate(n).right;
+    }
+
+    /**
+     * @return iterator over elements in ascending order. Keeps at most one path of the tree
+     */
+    @Override
+    public Iterator<E> iterator() {
+        Deque<PersistentNode<E>> stack = new ArrayDeque<>();
+        pushLeft(stack, root);
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public E next() {
+                if (stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                PersistentNode<E> node = stack.pop();
+                pushLeft(stack, node.right);
+                return node.element;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("[");
+        for (E element : this) {
+            if (result.length() > 1) {
+                result.append(", ");
+            }
+            result.append(element);
+        }
+        return result.append(']').toString();
+    }
+
+    private static <E> void pushLeft(Deque<PersistentNode<E>> stack, PersistentNode<E> n) {
+        for (PersistentNode<E> node = n; !isNull(node); node = node.left) {
+            stack.push(node);
+        }
+    }
+
+    /**
+     * @return copy of the path to the place of <i>val</i> with new red leaf balanced on the way up (or <i>n</i>
+     * itself if its subtree contains <i>val</i>)
+     */
+    private PersistentNode<E> insert(PersistentNode<E> n, E val) {
+        if (isNull(n)) {
+            return new PersistentNode<>(false, null, val, null);
+        }
+        int compare = compare(val, n.element);
+        if (compare < 0) {
+            PersistentNode<E> left = insert(n.left, val);
+            if (left == n.left) {
+                return n;
+            }
+            return n.black ? balance(left, n.element, n.right) : new PersistentNode<>(false, left, n.element, n.right);
+        } else if (compare > 0) {
+            PersistentNode<E> right = insert(n.right, val);
+            if (right == n.right) {
+                return n;
+            }
+            return n.black ? balance(n.left, n.element, right) : new PersistentNode<>(false, n.left, n.element, right);
+        }
+        return n;
+    }
+
+    /**
+     * @return copy of <i>n</i>'s subtree without <i>val</i>. The subtree contains <i>val</i>
+     */
+    private PersistentNode<E> delete(PersistentNode<E> n, E val) {
+        int compare = compare(val, n.element);
+        if (compare < 0) {
+            if (isBlack(n.left)) {
+                return balanceLeft(delete(n.left, val), n.element, n.right);
+            }
+            return new PersistentNode<>(false, delete(n.left, val), n.element, n.right);
+        } else if (compare > 0) {
+            if (isBlack(n.right)) {
+                return balanceRight(n.left, n.element, delete(n.right, val));
+            }
+            return new PersistentNode<>(false, n.left, n.element, delete(n.right, val));
+        }
+        return append(n.left, n.right);
+    }
+
+    /**
+     * builds black node fixing a red child with a red child, which insertion or deletion may leave in either
+     * subtree
+     */
+    private static <E> PersistentNode<E> balance(PersistentNode<E> left, E element, PersistentNode<E> right) {
+        if (isRed(left) && isRed(right)) {
+            return new PersistentNode<>(false, left.blacken(), element, right.blacken());
+        } else if (isRed(left) && isRed(left.left)) {
+            return new PersistentNode<>(false, left.left.blacken(), left.element,
+                    new PersistentNode<>(true, left.right, element, right));
+        } else if (isRed(left) && isRed(left.right)) {
+            return new PersistentNode<>(false, new PersistentNode<>(true, left.left, left.element, left.right.left),
+                    left.right.element, new PersistentNode<>(true, left.right.right, element, right));
+        } else if (isRed(right) && isRed(right.right)) {
+            return new PersistentNode<>(false, new PersistentNode<>(true, left, element, right.left), right.element,
+                    right.right.blacken());
+        } else if (isRed(right) && isRed(right.left)) {
+            return new PersistentNode<>(false, new PersistentNode<>(true, left, element, right.left.left),
+                    right.left.element, new PersistentNode<>(true, right.left.right, right.element, right.right));
+        }
+        return new PersistentNode<>(true, left, element, right);
+    }
+
+    /**
+     * rebalances node which left subtree lost one black level
+     */
+    private static <E> PersistentNode<E> balanceLeft(PersistentNode<E> left, E element, PersistentNode<E> right) {
+        if (isRed(left)) {
+            return new PersistentNode<>(false, left.blacken(), element, right);
+        } else if (isBlack(right)) {
+            return balance(left, element, right.redden());
+        }
+        return new PersistentNode<>(false, new PersistentNode<>(true, left, element, right.left.left),
+                right.left.element, balance(right.left.right, right.element, right.right.redden()));
+    }
+
+    /**
+     * rebalances node which right subtree lost one black level
+     */
+    private static <E> PersistentNode<E> balanceRight(PersistentNode<E> left, E element, PersistentNode<E> right) {
+        if (isRed(right)) {
+            return new PersistentNode<>(false, left, element, right.blacken());
+        } else if (isBlack(left)) {
+            return balance(left.redden(), element, right);
+        }
+        return new PersistentNode<>(false, balance(left.left.redden(), left.element, left.right.left),
+                left.right.element, new PersistentNode<>(true, left.right.right, element, right));
+    }
+
+    /**
+     * joins subtrees of a removed node
+     */
+    private static <E> PersistentNode<E> append(PersistentNode<E> left, PersistentNode<E> right) {
+        if (isNull(left)) {
+            return right;
+        } else if (isNull(right)) {
+            return left;
+        } else if (isRed(left) && isRed(right)) {
+            PersistentNode<E> middle = append(left.right, right.left);
+            if (isRed(middle)) {
+                return new PersistentNode<>(false, new PersistentNode<>(false, left.left, left.element, middle.left),
+                        middle.element, new PersistentNode<>(false, middle.right, right.element, right.right));
+            }
+            return new PersistentNode<>(false, left.left, left.element,
+                    new PersistentNode<>(false, middle, right.element, right.right));
+        } else if (isBlack(left) && isBlack(right)) {
+            PersistentNode<E> middle = append(left.right, right.left);
+            if (isRed(middle)) {
+                return new PersistentNode<>(false, new PersistentNode<>(true, left.left, left.element, middle.left),
+                        middle.element, new PersistentNode<>(true, middle.right, right.element, right.right));
+            }
+            return balanceLeft(left.left, left.element, new PersistentNode<>(true, middle, right.element,
+                    right.right));
+        } else if (isRed(right)) {
+            return new PersistentNode<>(false, append(left, right.left), right.element, right.right);
+        }
+        return new PersistentNode<>(false, left.left, left.element, append(left.right, right));
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(E val1, E val2) {
+        if (isNull(val1) || isNull(val2)) {
+            throw new IllegalStateException("cannot compare nulls");
+        }
+        return isNull(comparator) ? ((Comparable<E>) val1).compareTo(val2) : comparator.compare(val1, val2);
+    }
+
+    private static <E> PersistentNode<E> blacken(PersistentNode<E> n) {
+        return isNull(n) ? null : n.blacken();
+    }
+
+    private static boolean isRed(PersistentNode<?> n) {
+        return !isNull(n) && !n.black;
+    }
+
+    private static boolean isBlack(PersistentNode<?> n) {
+        return isNull(n) || n.black;
+    }
+
+    private static <E> PersistentNode<E> exists(PersistentNode<E> n) {
+        if (isNull(n)) {
+            throw new NoSuchElementException();
+        }
+        return n;
+    }
+
+    /**
+     * validates the node is an instance of supported {@link PersistentNode} type and casts to it
+     *
+     * @param n given node
+     * @return casted {@link PersistentNode} node
+     */
+    private PersistentNode<E> validate(Node<E> n) {
+        if (n instanceof PersistentNode) {
+            return (PersistentNode<E>) n;
+        } else if (isNull(n)) {
+            throw new IllegalArgumentException("node can't be null");
+        }
+        throw new IllegalArgumentException("wrong node");
+    }
+
+    /**
+     * immutable node of the tree
+     *
+     * @param <E> element
+     */
+    private static final class PersistentNode<E> implements Node<E> {
+        private final boolean black;
+        private final PersistentNode<E> left;
+        private final E element;
+        private final PersistentNode<E> right;
+
+        PersistentNode(boolean black, PersistentNode<E> left, E element, PersistentNode<E> right) {
+            this.black = black;
+            this.left = left;
+            this.element = element;
+            this.right = right;
+        }
+
+        @Override
+        public E getElement() {
+            return element;
+        }
+
+        PersistentNode<E> blacken() {
+            return black ? this : new PersistentNode<>(true, left, element, right);
+        }
+
+        /**
+         * @throws IllegalStateException if the node is red, which means the red-black properties are broken
+         */
+        PersistentNode<E> redden() {
+            if (!black) {
+                throw new IllegalStateException("red node can't lose black level");
+            }
+            return new PersistentNode<>(false, left, element, right);
+        }
+
+        @Override
+        public String toString() {
+            return (black ? "" + element : "(" + element + ')');
+        }
+    }
+}
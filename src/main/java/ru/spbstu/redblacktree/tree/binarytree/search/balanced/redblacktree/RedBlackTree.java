@@ -3,12 +3,39 @@ package ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree;
 import ru.spbstu.redblacktree.tree.Node;
 import ru.spbstu.redblacktree.tree.binarytree.LinkedBinaryTree;
 import ru.spbstu.redblacktree.tree.binarytree.search.balanced.BalanceAbleTree;
+import ru.spbstu.redblacktree.utils.OperationCounters;
+import ru.spbstu.redblacktree.utils.OperationCounters.Counter;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 import static java.util.Objects.isNull;
 
 public class RedBlackTree<E> extends BalanceAbleTree<E> {
+    public static final String NOT_SORTED_MSG = "elements are not sorted or contain duplicates";
+    /**
+     * number of elements below which parallel loading sorts, deduplicates and builds sequentially
+     */
+    protected static final int PARALLEL_THRESHOLD = 1 << 13;
+    /**
+     * black height below which parallel set operations work sequentially. A subtree of this black height has at
+     * least 2^7 - 1 nodes
+     */
+    protected static final int PARALLEL_BLACK_HEIGHT = 7;
+    public RedBlackTree() {
+    }
+
+    public RedBlackTree(Comparator<? super E> comparator) {
+        super(comparator);
+    }
+
     private boolean isBlack(Node<E> n) {
         if (isNull(n)) {
             return true;
@@ -24,53 +51,262 @@ public class RedBlackTree<E> extends BalanceAbleTree<E> {
     }
 
     private void makeBlack(Node<E> n) {
-        RBNode<E> rbNode = rbValidate(n);
-        rbNode.isBlack = true;
+        setColor(n, true);
     }
 
     private void makeRed(Node<E> n) {
+        setColor(n, false);
+    }
+
+    /**
+     * sets color of <i>n</i>, counting a recolor if it changes
+     */
+    private void setColor(Node<E> n, boolean isBlack) {
         RBNode<E> rbNode = rbValidate(n);
-        rbNode.isBlack = false;
+        if (OperationCounters.ENABLED && rbNode.isBlack != isBlack) {
+            OperationCounters.increment(Counter.RECOLORS);
+        }
+        rbNode.isBlack = isBlack;
     }
 
     private Node<E> uncle(Node<E> n) {
         return sibling(parent(n));
     }
 
+    /**
+     * restores red-black properties after <i>n</i> was added as a red leaf. Walks up the tree while uncles are
+     * red and finishes with at most two rotations
+     *
+     * @param n added node
+     */
     protected void afterElementAdded(Node<E> n) {
-        Node<E> parent = parent(n);
-        if (isNull(parent)) {
-            makeBlack(n);
-            return;
-        } else if (isBlack(parent)) {
+        Node<E> node = n;
+        while (true) {
+            Node<E> parent = parent(node);
+            if (isNull(parent)) {
+                if (OperationCounters.ENABLED) {
+                    OperationCounters.increment(Counter.INSERT_ROOT);
+                }
+                makeBlack(node);
+                return;
+            } else if (isBlack(parent)) {
+                if (OperationCounters.ENABLED) {
+                    OperationCounters.increment(Counter.INSERT_BLACK_PARENT);
+                }
+                return;
+            }
+
+            Node<E> grandParent = parent(parent);
+            Node<E> uncle = uncle(node);
+            makeRed(grandParent);
+
+            if (isRed(uncle)) {
+                if (OperationCounters.ENABLED) {
+                    OperationCounters.increment(Counter.INSERT_RED_UNCLE);
+                }
+                makeBlack(parent);
+                makeBlack(uncle);
+                node = grandParent;
+                continue;
+            }
+
+            if (node == left(parent) && parent == left(grandParent) || node == right(parent) && parent ==
+                    right(grandParent)) {
+                if (OperationCounters.ENABLED) {
+                    OperationCounters.increment(Counter.INSERT_OUTER);
+                }
+                makeBlack(parent);
+            } else {
+                if (OperationCounters.ENABLED) {
+                    OperationCounters.increment(Counter.INSERT_INNER);
+                }
+                makeBlack(node);
+            }
+            reduceSubtreeHeight(node);
             return;
         }
+    }
+
+    @Override
+    public Node<E> add(E val) {
+        int oldSize = size();
+        Node<E> node = super.add(val);
+        if (size() != oldSize) {
+            afterElementAdded(node);
+        }
+        return node;
+    }
 
-        Node<E> grandParent = parent(parent);
-        Node<E> uncle = uncle(n);
+    /**
+     * builds the tree from sorted <i>elements</i> in O(n). Every level but the deepest one is black and the deepest
+     * one is red unless it is full, so no rotations or recoloring are needed
+     *
+     * @param elements distinct elements sorted in ascending order
+     * @throws IllegalStateException    if the tree is not empty
+     * @throws IllegalArgumentException if <i>elements</i> are not sorted, contain duplicates or nulls
+     */
+    public void loadSorted(E[] elements) {
+        loadSorted(Arrays.asList(elements).iterator(), elements.length);
+    }
 
-        if (n == left(parent) && parent == left(grandParent) || n == right(parent) && parent == right(grandParent)) {
-            makeBlack(parent);
-        } else {
-            makeBlack(n);
+    /**
+     * builds the tree from <i>size</i> sorted elements of <i>elements</i> in O(n). Every level but the deepest one is
+     * black and the deepest one is red unless it is full, so no rotations or recoloring are needed. The tree stays
+     * empty if the input is rejected
+     *
+     * @param elements distinct elements in ascending order
+     * @param size     number of elements
+     * @throws IllegalStateException    if the tree is not empty
+     * @throws IllegalArgumentException if <i>elements</i> are not sorted, contain duplicates or nulls, or their
+     *                                  number differs from <i>size</i>
+     */
+    public void loadSorted(Iterator<? extends E> elements, int size) {
+        if (size() != 0) {
+            throw new IllegalStateException("tree is not empty");
+        } else if (size < 0) {
+            throw new IllegalArgumentException("size is negative");
         }
+        SortedIterator sorted = new SortedIterator(elements);
+        Node<E> root = buildSorted(0, 0, size - 1, redLevel(size), sorted);
+        if (elements.hasNext()) {
+            throw new IllegalArgumentException("more elements than size");
+        }
+        setContent(root, size);
+    }
 
-        makeRed(grandParent);
+    /**
+     * builds the tree from unsorted <i>elements</i> in parallel in the common pool
+     *
+     * @param elements elements in any order, duplicates are added once
+     * @throws IllegalStateException    if the tree is not empty
+     * @throws IllegalArgumentException if <i>elements</i> contain null
+     * @see #loadUnsorted(Object[], ForkJoinPool)
+     */
+    public void loadUnsorted(E[] elements) {
+        loadUnsorted(elements, ForkJoinPool.commonPool());
+    }
 
-        if (isNull(uncle) || isBlack(uncle)) {
-            reduceSubtreeHeight(n);
-        } else {
-            makeBlack(uncle);
-            afterElementAdded(grandParent);
+    /**
+     * builds the tree from unsorted <i>elements</i> using workers of <i>pool</i>. Elements are copied and sorted by
+     * {@link Arrays#parallelSort}, duplicates are dropped chunk by chunk, then subtrees are built by separate tasks
+     * and linked under their middle elements. <i>elements</i> are not modified
+     *
+     * @param elements elements in any order, duplicates are added once
+     * @param pool     pool running the work
+     * @throws IllegalStateException    if the tree is not empty
+     * @throws IllegalArgumentException if <i>elements</i> contain null
+     */
+    public void loadUnsorted(E[] elements, ForkJoinPool pool) {
+        if (size() != 0) {
+            throw new IllegalStateException("tree is not empty");
         }
+        E[] distinct = pool.invoke(ForkJoinTask.adapt(() -> sortDistinct(elements, pool.getParallelism())));
+        Node<E> root = pool.invoke(new BuildTask(distinct, 0, 0, distinct.length - 1, redLevel(distinct.length)));
+        setContent(root, distinct.length);
     }
 
-    @Override
-    public Node<E> add(E val) {
-        Node<E> node = super.add(val);
-        Node<E> rbNode = makeNodeRB(node);
-        afterElementAdded(rbNode);
-        return rbNode;
+    /**
+     * @param elements    elements in any order
+     * @param parallelism number of workers
+     * @return new array of sorted distinct elements
+     */
+    private E[] sortDistinct(E[] elements, int parallelism) {
+        E[] sorted = Arrays.copyOf(elements, elements.length);
+        int chunkSize = Math.max(PARALLEL_THRESHOLD, sorted.length / (parallelism * 4));
+        int chunks = (sorted.length + chunkSize - 1) / chunkSize;
+        forEachChunk(chunks, chunk -> {
+            for (int i = chunk * chunkSize, end = Math.min(i + chunkSize, sorted.length); i < end; i++) {
+                if (isNull(sorted[i])) {
+                    throw new IllegalArgumentException(NULL_NODE_MSG);
+                }
+            }
+        });
+        Arrays.parallelSort(sorted, this::compare);
+        //count first occurrences per chunk, then copy them to offsets given by the counts of previous chunks
+        int[] offsets = new int[chunks + 1];
+        forEachChunk(chunks, chunk -> {
+            int count = 0;
+            for (int i = chunk * chunkSize, end = Math.min(i + chunkSize, sorted.length); i < end; i++) {
+                if (i == 0 || compare(sorted[i - 1], sorted[i]) != 0) {
+                    count++;
+                }
+            }
+            offsets[chunk + 1] = count;
+        });
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            offsets[chunk + 1] += offsets[chunk];
+        }
+        if (offsets[chunks] == sorted.length) {
+            return sorted;
+        }
+        E[] distinct = Arrays.copyOf(sorted, offsets[chunks]);
+        forEachChunk(chunks, chunk -> {
+            int j = offsets[chunk];
+            for (int i = chunk * chunkSize, end = Math.min(i + chunkSize, sorted.length); i < end; i++) {
+                if (i == 0 || compare(sorted[i - 1], sorted[i]) != 0) {
+                    distinct[j++] = sorted[i];
+                }
+            }
+        });
+        return distinct;
+    }
+
+    /**
+     * runs <i>action</i> for chunks from 0 to <i>chunks</i> in parallel and waits for all of them
+     */
+    private static void forEachChunk(int chunks, ChunkAction action) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int current = chunk;
+            tasks.add(ForkJoinTask.adapt(() -> action.run(current)));
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    /**
+     * builds detached subtree of elements with indexes from <i>lo</i> to <i>hi</i> taking them from <i>elements</i>
+     * in order
+     *
+     * @param depth    depth of the subtree's root in the whole tree
+     * @param lo       index of the first element
+     * @param hi       index of the last element
+     * @param redLevel depth of red nodes
+     * @param elements sorted elements
+     * @return root of the subtree (or null if it is empty)
+     */
+    protected Node<E> buildSorted(int depth, int lo, int hi, int redLevel, Iterator<? extends E> elements) {
+        if (hi < lo) {
+            return null;
+        }
+        int middle = (lo + hi) >>> 1;
+        Node<E> left = buildSorted(depth + 1, lo, middle - 1, redLevel, elements);
+        if (!elements.hasNext()) {
+            throw new IllegalArgumentException("fewer elements than size");
+        }
+        RBNode<E> node = createNode(elements.next());
+        node.isBlack = depth != redLevel;
+        if (!isNull(left)) {
+            setLeft(node, left);
+        }
+        Node<E> right = buildSorted(depth + 1, middle + 1, hi, redLevel, elements);
+        if (!isNull(right)) {
+            setRight(node, right);
+        }
+        refresh(node);
+        return node;
+    }
+
+    /**
+     * @param size number of nodes
+     * @return depth of red nodes in a tree of <i>size</i> nodes built by middle splits. It is the depth of the
+     * deepest level if that level is not full and lies below the tree otherwise
+     */
+    protected static int redLevel(int size) {
+        int level = 0;
+        for (int m = size - 1; m >= 0; m = m / 2 - 1) {
+            level++;
+        }
+        return level;
     }
 
     @Override
@@ -90,7 +326,24 @@ public class RedBlackTree<E> extends BalanceAbleTree<E> {
             nodeToRemove = findLeftmost(right(n));
         }
         beforeElementRemoved(nodeToRemove);
-        return super.remove(n);
+        boolean isBlack = isBlack(n);
+        Node<E> lowestChanged = parent(nodeToRemove) == n ? nodeToRemove : parent(nodeToRemove);
+        E element = super.remove(n);
+        if (nodeToRemove != n) {
+            //leftmost node took n's place, so it takes n's color too
+            setColor(nodeToRemove, isBlack);
+        }
+        afterElementRemoved(lowestChanged);
+        return element;
+    }
+
+    /**
+     * called when removal is complete. Every node which subtree lost the element is <i>n</i> or its ancestor.
+     * Does nothing by default
+     *
+     * @param n the lowest node which subtree lost the element (or null if the root was removed)
+     */
+    protected void afterElementRemoved(Node<E> n) {
     }
 
     /**
@@ -125,57 +378,424 @@ public class RedBlackTree<E> extends BalanceAbleTree<E> {
     }
 
     /**
-     * provides six cases tree transformation for black node deletion
+     * provides six cases tree transformation for black node deletion. Case 3 moves the lack of black up to the
+     * parent, so the cases are handled in a loop going up the tree
      *
      * @param n node that will be deleted
      */
     private void removeBlackNode(Node<E> n) {
+        Node<E> node = n;
         //case 1 *
-        if (isNull(parent(n))) {
-            makeBlack(n);
-            return;
-        }
-        RBNode<E> parent = rbValidate(parent(n));
-        RBNode<E> sibling = rbValidate(sibling(n));
-        Node<E> nearNephew = n == left(parent) ? left(sibling) : right(sibling);
-        Node<E> fartherNephew = n == left(parent) ? right(sibling) : left(sibling);
+        while (!isNull(parent(node)) && isBlack(node)) {
+            Node<E> parent = parent(node);
+            boolean isLeft = node == left(parent);
+            Node<E> sibling = isLeft ? right(parent) : left(parent);
 
-        //case 2
-        if (isRed(sibling)) {
-            makeBlack(sibling);
-            makeRed(parent);
-            rotate(sibling);
-            removeBlackNode(n);
-        }
+            //case 2
+            if (isRed(sibling)) {
+                if (OperationCounters.ENABLED) {
+                    OperationCounters.increment(Counter.REMOVE_CASE_2);
+                }
+                makeBlack(sibling);
+                makeRed(parent);
+                rotate(sibling);
+                sibling = isLeft ? right(parent) : left(parent);
+            }
+
+            Node<E> nearNephew = isLeft ? left(sibling) : right(sibling);
+            Node<E> fartherNephew = isLeft ? right(sibling) : left(sibling);
+
+            //cases 3 and 4 *
+            if (isBlack(nearNephew) && isBlack(fartherNephew)) {
+                if (OperationCounters.ENABLED) {
+                    OperationCounters.increment(Counter.REMOVE_CASES_3_4);
+                }
+                makeRed(sibling);
+                node = parent;
+                continue;
+            }
+
+            //case 5
+            if (isBlack(fartherNephew)) {
+                if (OperationCounters.ENABLED) {
+                    OperationCounters.increment(Counter.REMOVE_CASE_5);
+                }
+                makeBlack(nearNephew);
+                makeRed(sibling);
+                rotate(nearNephew);
+                fartherNephew = sibling;
+                sibling = nearNephew;
+            }
 
-        //case 6 *
-        if (isRed(fartherNephew)) {
-            sibling.isBlack = parent.isBlack;
+            //case 6 *
+            if (OperationCounters.ENABLED) {
+                OperationCounters.increment(Counter.REMOVE_CASE_6);
+            }
+            setColor(sibling, isBlack(parent));
             makeBlack(fartherNephew);
             makeBlack(parent);
             rotate(sibling);
             return;
         }
+        makeBlack(node);
+    }
+
+    /**
+     * adds all elements of <i>other</i> to the tree. <i>other</i> is copied in O(m) and merged into the tree by
+     * split and join in O(m log(n/m + 1)), where m is the size of <i>other</i>. Elements of the tree are kept when
+     * <i>other</i> has equal ones
+     *
+     * @param other tree ordered the same way, stays unchanged
+     */
+    public void union(RedBlackTree<E> other) {
+        setOperation(SetOperation.UNION, other);
+    }
+
+    /**
+     * keeps in the tree only elements that <i>other</i> contains, in O(m log(n/m + 1)) where m is the size of
+     * <i>other</i>
+     *
+     * @param other tree ordered the same way, stays unchanged
+     */
+    public void intersection(RedBlackTree<E> other) {
+        setOperation(SetOperation.INTERSECTION, other);
+    }
+
+    /**
+     * removes from the tree all elements that <i>other</i> contains, in O(m log(n/m + 1)) where m is the size of
+     * <i>other</i>
+     *
+     * @param other tree ordered the same way, stays unchanged
+     */
+    public void difference(RedBlackTree<E> other) {
+        setOperation(SetOperation.DIFFERENCE, other);
+    }
 
-        //case 5
-        if (isRed(nearNephew) && isBlack(nearNephew)) {
-            makeRed(sibling);
-            makeBlack(nearNephew);
-            rotate(nearNephew);
-            removeBlackNode(n);
+    /**
+     * {@link #union(RedBlackTree)} running in the common pool
+     *
+     * @param other tree ordered the same way, stays unchanged
+     * @see #parallelUnion(RedBlackTree, ForkJoinPool)
+     */
+    public void parallelUnion(RedBlackTree<E> other) {
+        parallelUnion(other, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * {@link #union(RedBlackTree)} using workers of <i>pool</i>. Both trees are split around the root of
+     * <i>other</i>, the left and right halves are merged by separate tasks and the results are joined back by
+     * black height. Halves with black height below {@link #PARALLEL_BLACK_HEIGHT} are merged sequentially.
+     * The comparator must be safe to call from several threads
+     *
+     * @param other tree ordered the same way, stays unchanged
+     * @param pool  pool running the work
+     */
+    public void parallelUnion(RedBlackTree<E> other, ForkJoinPool pool) {
+        parallelSetOperation(SetOperation.UNION, other, pool);
+    }
+
+    /**
+     * {@link #intersection(RedBlackTree)} running in the common pool
+     *
+     * @param other tree ordered the same way, stays unchanged
+     * @see #parallelIntersection(RedBlackTree, ForkJoinPool)
+     */
+    public void parallelIntersection(RedBlackTree<E> other) {
+        parallelIntersection(other, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * {@link #intersection(RedBlackTree)} using workers of <i>pool</i> the way
+     * {@link #parallelUnion(RedBlackTree, ForkJoinPool)} does
+     *
+     * @param other tree ordered the same way, stays unchanged
+     * @param pool  pool running the work
+     */
+    public void parallelIntersection(RedBlackTree<E> other, ForkJoinPool pool) {
+        parallelSetOperation(SetOperation.INTERSECTION, other, pool);
+    }
+
+    /**
+     * {@link #difference(RedBlackTree)} running in the common pool
+     *
+     * @param other tree ordered the same way, stays unchanged
+     * @see #parallelDifference(RedBlackTree, ForkJoinPool)
+     */
+    public void parallelDifference(RedBlackTree<E> other) {
+        parallelDifference(other, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * {@link #difference(RedBlackTree)} using workers of <i>pool</i> the way
+     * {@link #parallelUnion(RedBlackTree, ForkJoinPool)} does
+     *
+     * @param other tree ordered the same way, stays unchanged
+     * @param pool  pool running the work
+     */
+    public void parallelDifference(RedBlackTree<E> other, ForkJoinPool pool) {
+        parallelSetOperation(SetOperation.DIFFERENCE, other, pool);
+    }
+
+    private void setOperation(SetOperation operation, RedBlackTree<E> other) {
+        Subtree<E> copy = new Subtree<>(copy(other, other.root()), blackHeight(other, other.root()));
+        int[] common = new int[1];
+        Subtree<E> result = setOperation(operation, new Subtree<>(root(), blackHeight(root())), copy, common);
+        setResult(result, operation.size(size(), other.size(), common[0]));
+    }
+
+    private void parallelSetOperation(SetOperation operation, RedBlackTree<E> other, ForkJoinPool pool) {
+        int otherHeight = blackHeight(other, other.root());
+        Subtree<E> copy = new Subtree<>(pool.invoke(new CopyTask(other, other.root(), otherHeight)), otherHeight);
+        SetOperationTask task = new SetOperationTask(operation, new Subtree<>(root(), blackHeight(root())), copy);
+        Subtree<E> result = pool.invoke(task);
+        setResult(result, operation.size(size(), other.size(), task.common));
+    }
+
+    /**
+     * splits detached subtree <i>t</i> by <i>key</i>. Nodes of <i>t</i> are reused
+     *
+     * @param t   subtree to split
+     * @param key key to split by
+     * @return subtree of elements less than <i>key</i>, node containing <i>key</i> (or null if there is no such
+     * node) and subtree of elements greater than <i>key</i>
+     */
+    protected Split<E> split(Subtree<E> t, E key) {
+        if (isNull(t.root)) {
+            return new Split<>(t, null, t);
         }
+        Node<E> node = t.root;
+        Subtree<E> left = new Subtree<>(left(node), childBlackHeight(t));
+        Subtree<E> right = new Subtree<>(right(node), childBlackHeight(t));
+        int compare = compare(key, node.getElement());
+        if (compare == 0) {
+            return new Split<>(left, node, right);
+        } else if (compare < 0) {
+            Split<E> split = split(left, key);
+            return new Split<>(split.left, split.middle, join(split.right, node, right));
+        }
+        Split<E> split = split(right, key);
+        return new Split<>(join(left, node, split.left), split.middle, split.right);
+    }
 
-        if (isBlack(nearNephew)) {
-            if (isBlack(parent)) {
-                //case 3
-                makeRed(sibling);
-                removeBlackNode(parent);
-            } else {
-                //case 4 *
-                makeBlack(parent);
-                makeRed(sibling);
+    /**
+     * joins detached subtrees <i>left</i> and <i>right</i> under <i>key</i> node in O(|bh(left) - bh(right)| + 1).
+     * The shorter subtree is linked into the taller one at the same black height and the red violation this can
+     * cause is fixed by a single rotation on the way up
+     *
+     * @param left  subtree of elements less than <i>key</i>'s element
+     * @param key   detached node
+     * @param right subtree of elements greater than <i>key</i>'s element
+     * @return joined subtree which root may be red
+     */
+    protected Subtree<E> join(Subtree<E> left, Node<E> key, Subtree<E> right) {
+        if (left.blackHeight > right.blackHeight) {
+            Node<E> root = joinRight(left.root, left.blackHeight, key, right.root, right.blackHeight);
+            if (isRed(root) && isRed(right(root))) {
+                makeBlack(root);
+                return new Subtree<>(root, left.blackHeight + 1);
+            }
+            return new Subtree<>(root, left.blackHeight);
+        } else if (left.blackHeight < right.blackHeight) {
+            Node<E> root = joinLeft(left.root, left.blackHeight, key, right.root, right.blackHeight);
+            if (isRed(root) && isRed(left(root))) {
+                makeBlack(root);
+                return new Subtree<>(root, right.blackHeight + 1);
+            }
+            return new Subtree<>(root, right.blackHeight);
+        }
+        link(key, left.root, right.root);
+        if (isBlack(left.root) && isBlack(right.root)) {
+            makeRed(key);
+            return new Subtree<>(key, left.blackHeight);
+        }
+        makeBlack(key);
+        return new Subtree<>(key, left.blackHeight + 1);
+    }
+
+    /**
+     * joins detached subtrees without a key node between them
+     *
+     * @param left  subtree of elements less than elements of <i>right</i>
+     * @param right subtree of greater elements
+     * @return joined subtree which root may be red
+     */
+    protected Subtree<E> join2(Subtree<E> left, Subtree<E> right) {
+        if (isNull(left.root)) {
+            return right;
+        }
+        Split<E> split = splitLast(left);
+        return join(split.left, split.middle, right);
+    }
+
+    /**
+     * @param t not empty subtree
+     * @return subtree without its last node and the last node
+     */
+    private Split<E> splitLast(Subtree<E> t) {
+        Node<E> node = t.root;
+        Subtree<E> left = new Subtree<>(left(node), childBlackHeight(t));
+        if (isNull(right(node))) {
+            return new Split<>(left, node, null);
+        }
+        Split<E> split = splitLast(new Subtree<>(right(node), childBlackHeight(t)));
+        return new Split<>(join(left, node, split.left), split.middle, null);
+    }
+
+    private Node<E> joinRight(Node<E> left, int leftHeight, Node<E> key, Node<E> right, int rightHeight) {
+        if (leftHeight == rightHeight && isBlack(left)) {
+            link(key, left, right);
+            makeRed(key);
+            return key;
+        }
+        Node<E> joined = joinRight(right(left), leftHeight - (isBlack(left) ? 1 : 0), key, right, rightHeight);
+        link(left, left(left), joined);
+        if (isBlack(left) && isRed(joined) && isRed(right(joined))) {
+            makeBlack(right(joined));
+            return rotateLeft(left);
+        }
+        return left;
+    }
+
+    private Node<E> joinLeft(Node<E> left, int leftHeight, Node<E> key, Node<E> right, int rightHeight) {
+        if (leftHeight == rightHeight && isBlack(right)) {
+            link(key, left, right);
+            makeRed(key);
+            return key;
+        }
+        Node<E> joined = joinLeft(left, leftHeight, key, left(right), rightHeight - (isBlack(right) ? 1 : 0));
+        link(right, joined, right(right));
+        if (isBlack(right) && isRed(joined) && isRed(left(joined))) {
+            makeBlack(left(joined));
+            return rotateRight(right);
+        }
+        return right;
+    }
+
+    /**
+     * applies <i>operation</i> to detached subtrees by splitting <i>t1</i> with the root of <i>t2</i>, applying it to
+     * the halves and joining the results
+     *
+     * @param common counter of elements contained in both subtrees
+     */
+    private Subtree<E> setOperation(SetOperation operation, Subtree<E> t1, Subtree<E> t2, int[] common) {
+        if (isNull(t1.root) || isNull(t2.root)) {
+            return operation.trivial(t1, t2);
+        }
+        Node<E> key = t2.root;
+        Subtree<E> left2 = new Subtree<>(left(key), childBlackHeight(t2));
+        Subtree<E> right2 = new Subtree<>(right(key), childBlackHeight(t2));
+        Split<E> split = split(t1, key.getElement());
+        Subtree<E> left = setOperation(operation, split.left, left2, common);
+        Subtree<E> right = setOperation(operation, split.right, right2, common);
+        if (!isNull(split.middle)) {
+            common[0]++;
+        }
+        return combine(operation, left, key, split.middle, right);
+    }
+
+    /**
+     * joins results of <i>operation</i> applied to the halves split around <i>key</i>
+     *
+     * @param key    root of the second subtree
+     * @param middle node of the first subtree equal to <i>key</i> (or null if there is no such node)
+     */
+    private Subtree<E> combine(SetOperation operation, Subtree<E> left, Node<E> key, Node<E> middle,
+                               Subtree<E> right) {
+        switch (operation) {
+            case UNION:
+                return join(left, isNull(middle) ? key : middle, right);
+            case INTERSECTION:
+                return isNull(middle) ? join2(left, right) : join(left, middle, right);
+            default:
+                return join2(left, right);
+        }
+    }
+
+    /**
+     * copies subtree of <i>other</i> node by node keeping its shape and colors
+     *
+     * @param other tree to copy from
+     * @param n     root of the subtree
+     * @return detached copy
+     */
+    private Node<E> copy(RedBlackTree<E> other, Node<E> n) {
+        if (isNull(n)) {
+            return null;
+        }
+        RBNode<E> node = createNode(n.getElement());
+        node.isBlack = other.isBlack(n);
+        link(node, copy(other, other.left(n)), copy(other, other.right(n)));
+        return node;
+    }
+
+    /**
+     * makes the root of <i>result</i> the root of the tree
+     */
+    private void setResult(Subtree<E> result, int size) {
+        if (!isNull(result.root)) {
+            makeBlack(result.root);
+        }
+        setContent(result.root, size);
+    }
+
+    /**
+     * sets both children of <i>node</i> and updates its subtree data
+     */
+    private void link(Node<E> node, Node<E> left, Node<E> right) {
+        setLeft(node, left);
+        setRight(node, right);
+        refresh(node);
+    }
+
+    /**
+     * rotates detached subtree to the left without touching the tree's root
+     *
+     * @return new root of the subtree
+     */
+    private Node<E> rotateLeft(Node<E> node) {
+        if (OperationCounters.ENABLED) {
+            OperationCounters.increment(Counter.ROTATIONS);
+        }
+        Node<E> right = right(node);
+        link(node, left(node), left(right));
+        link(right, node, right(right));
+        return right;
+    }
+
+    /**
+     * rotates detached subtree to the right without touching the tree's root
+     *
+     * @return new root of the subtree
+     */
+    private Node<E> rotateRight(Node<E> node) {
+        if (OperationCounters.ENABLED) {
+            OperationCounters.increment(Counter.ROTATIONS);
+        }
+        Node<E> left = left(node);
+        link(node, right(left), right(node));
+        link(left, left(left), node);
+        return left;
+    }
+
+    private int blackHeight(Node<E> n) {
+        return blackHeight(this, n);
+    }
+
+    /**
+     * @return number of black nodes on the path from <i>n</i> down to a leaf, <i>n</i> included
+     */
+    private static <E> int blackHeight(RedBlackTree<E> tree, Node<E> n) {
+        int height = 0;
+        for (Node<E> node = n; !isNull(node); node = tree.left(node)) {
+            if (tree.isBlack(node)) {
+                height++;
             }
         }
+        return height;
+    }
+
+    private int childBlackHeight(Subtree<E> t) {
+        return t.blackHeight - (isBlack(t.root) ? 1 : 0);
     }
 
     /**
@@ -194,26 +814,247 @@ public class RedBlackTree<E> extends BalanceAbleTree<E> {
     }
 
     /**
-     * creates new red-black node based on <i>n</i>
+     * creates new red node, so added elements are stored in {@link RBNode} right away
      *
-     * @param n given node
+     * @param e element
      * @return new red-black node
      */
-    private RBNode<E> makeNodeRB(Node<E> n) {
-        RBNode<E> rbNode = new RBNode<>(n.getElement());
-        setRight(rbNode, right(n));
-        setLeft(rbNode, left(n));
-        Node<E> parent = parent(n);
+    @Override
+    protected RBNode<E> createNode(E e) {
+        return new RBNode<>(e);
+    }
 
-        if (root() == n) {
-            setRoot(rbNode);
-        } else if (n == left(parent)) {
-            setLeft(parent, rbNode);
-        } else {
-            setRight(parent, rbNode);
+    /**
+     * set operations built on split and join
+     */
+    private enum SetOperation {
+        UNION, INTERSECTION, DIFFERENCE;
+
+        /**
+         * @return result of the operation when one of subtrees is empty
+         */
+        <E> Subtree<E> trivial(Subtree<E> t1, Subtree<E> t2) {
+            switch (this) {
+                case UNION:
+                    return isNull(t1.root) ? t2 : t1;
+                case INTERSECTION:
+                    return new Subtree<>(null, 0);
+                default:
+                    return t1;
+            }
+        }
+
+        /**
+         * @return size of the result given sizes of both trees and the number of their common elements
+         */
+        int size(int size1, int size2, int common) {
+            switch (this) {
+                case UNION:
+                    return size1 + size2 - common;
+                case INTERSECTION:
+                    return common;
+                default:
+                    return size1 - common;
+            }
+        }
+    }
+
+    /**
+     * applies a set operation to detached subtrees forking the left halves. Subtrees are disjoint once split, so
+     * tasks never touch the same nodes
+     */
+    private class SetOperationTask extends RecursiveTask<Subtree<E>> {
+        private static final long serialVersionUID = 1L;
+        private final SetOperation operation;
+        private final Subtree<E> t1;
+        private final Subtree<E> t2;
+        private int common;
+
+        SetOperationTask(SetOperation operation, Subtree<E> t1, Subtree<E> t2) {
+            this.operation = operation;
+            this.t1 = t1;
+            this.t2 = t2;
+        }
+
+        @Override
+        protected Subtree<E> compute() {
+            if (isNull(t1.root) || isNull(t2.root) || t1.blackHeight < PARALLEL_BLACK_HEIGHT
+                    || t2.blackHeight < PARALLEL_BLACK_HEIGHT) {
+                int[] counter = new int[1];
+                Subtree<E> result = setOperation(operation, t1, t2, counter);
+                common = counter[0];
+                return result;
+            }
+            Node<E> key = t2.root;
+            Subtree<E> left2 = new Subtree<>(left(key), childBlackHeight(t2));
+            Subtree<E> right2 = new Subtree<>(right(key), childBlackHeight(t2));
+            Split<E> split = split(t1, key.getElement());
+            SetOperationTask leftTask = new SetOperationTask(operation, split.left, left2);
+            leftTask.fork();
+            SetOperationTask rightTask = new SetOperationTask(operation, split.right, right2);
+            Subtree<E> right = rightTask.compute();
+            Subtree<E> left = leftTask.join();
+            common = leftTask.common + rightTask.common + (isNull(split.middle) ? 0 : 1);
+            return combine(operation, left, key, split.middle, right);
+        }
+    }
+
+    /**
+     * copies subtree of another tree forking the left halves
+     */
+    private class CopyTask extends RecursiveTask<Node<E>> {
+        private static final long serialVersionUID = 1L;
+        private final RedBlackTree<E> other;
+        private final Node<E> n;
+        private final int blackHeight;
+
+        CopyTask(RedBlackTree<E> other, Node<E> n, int blackHeight) {
+            this.other = other;
+            this.n = n;
+            this.blackHeight = blackHeight;
+        }
+
+        @Override
+        protected Node<E> compute() {
+            if (blackHeight < PARALLEL_BLACK_HEIGHT) {
+                return copy(other, n);
+            }
+            int childHeight = blackHeight - (other.isBlack(n) ? 1 : 0);
+            CopyTask leftTask = new CopyTask(other, other.left(n), childHeight);
+            leftTask.fork();
+            Node<E> right = new CopyTask(other, other.right(n), childHeight).compute();
+            RBNode<E> node = createNode(n.getElement());
+            node.isBlack = other.isBlack(n);
+            link(node, leftTask.join(), right);
+            return node;
+        }
+    }
+
+    /**
+     * action applied to a chunk of an array
+     */
+    private interface ChunkAction {
+        void run(int chunk);
+    }
+
+    /**
+     * builds detached subtree of sorted distinct elements from <i>lo</i> to <i>hi</i>. Halves larger than
+     * {@link #PARALLEL_THRESHOLD} are built by forked tasks, smaller ones by {@link #buildSorted}
+     */
+    private class BuildTask extends RecursiveTask<Node<E>> {
+        private static final long serialVersionUID = 1L;
+        private final E[] elements;
+        private final int depth;
+        private final int lo;
+        private final int hi;
+        private final int redLevel;
+
+        BuildTask(E[] elements, int depth, int lo, int hi, int redLevel) {
+            this.elements = elements;
+            this.depth = depth;
+            this.lo = lo;
+            this.hi = hi;
+            this.redLevel = redLevel;
         }
 
-        return rbNode;
+        @Override
+        protected Node<E> compute() {
+            if (hi - lo < PARALLEL_THRESHOLD) {
+                return buildSorted(depth, lo, hi, redLevel, Arrays.asList(elements).subList(lo, hi + 1).iterator());
+            }
+            int middle = (lo + hi) >>> 1;
+            BuildTask leftTask = new BuildTask(elements, depth + 1, lo, middle - 1, redLevel);
+            leftTask.fork();
+            Node<E> right = new BuildTask(elements, depth + 1, middle + 1, hi, redLevel).compute();
+            Node<E> left = leftTask.join();
+            RBNode<E> node = createNode(elements[middle]);
+            node.isBlack = depth != redLevel;
+            setLeft(node, left);
+            setRight(node, right);
+            refresh(node);
+            return node;
+        }
+    }
+
+    /**
+     * passes elements through checking they are not null and strictly ascending
+     */
+    protected class SortedIterator implements Iterator<E> {
+        private final Iterator<? extends E> elements;
+        private E previous;
+
+        public SortedIterator(Iterator<? extends E> elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return elements.hasNext();
+        }
+
+        @Override
+        public E next() {
+            E element = elements.next();
+            if (isNull(element)) {
+                throw new IllegalArgumentException(NULL_NODE_MSG);
+            } else if (!isNull(previous) && compare(previous, element) >= 0) {
+                throw new IllegalArgumentException(NOT_SORTED_MSG);
+            }
+            previous = element;
+            return element;
+        }
+    }
+
+    /**
+     * detached subtree together with its black height
+     *
+     * @param <E> element
+     */
+    protected static final class Subtree<E> {
+        private final Node<E> root;
+        private final int blackHeight;
+
+        public Subtree(Node<E> root, int blackHeight) {
+            this.root = root;
+            this.blackHeight = blackHeight;
+        }
+
+        public Node<E> getRoot() {
+            return root;
+        }
+
+        public int getBlackHeight() {
+            return blackHeight;
+        }
+    }
+
+    /**
+     * result of splitting a subtree by a key
+     *
+     * @param <E> element
+     */
+    protected static final class Split<E> {
+        private final Subtree<E> left;
+        private final Node<E> middle;
+        private final Subtree<E> right;
+
+        public Split(Subtree<E> left, Node<E> middle, Subtree<E> right) {
+            this.left = left;
+            this.middle = middle;
+            this.right = right;
+        }
+
+        public Subtree<E> getLeft() {
+            return left;
+        }
+
+        public Node<E> getMiddle() {
+            return middle;
+        }
+
+        public Subtree<E> getRight() {
+            return right;
+        }
     }
 
     protected static class RBNode<E> extends LinkedBinaryTree.NodeImpl<E> {
@@ -0,0 +1,758 @@
+package ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree;
+
+import ru.spbstu.redblacktree.tree.Node;
+import ru.spbstu.redblacktree.tree.binarytree.search.BinarySearchTreeSet;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.util.Objects.isNull;
+
+/**
+ * sorted map stored in a {@link RedBlackTree} of key/value entries ordered by key.
+ * <p>
+ * Lookups descend the tree by key without allocating. {@link #put}, {@link #putIfAbsent}, {@link #computeIfAbsent},
+ * {@link #compute} and {@link #merge} find or create the entry in a single descent. {@link #computeIfAbsent} and
+ * {@link #compute} remember where the descent ended and link a new entry there only once a value is produced, so the
+ * functions never see an entry without a value. A function which modifies the map makes these methods throw
+ * {@link ConcurrentModificationException}, as {@link java.util.TreeMap} does.
+ * <p>
+ * Sub-maps and descending maps are live views sharing the same tree.
+ *
+ * @param <K> key
+ * @param <V> value
+ */
+public class RedBlackTreeMap<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+    private static final String NULL_KEY_MSG = "null keys are not supported";
+    private static final String OUT_OF_RANGE_MSG = "key out of range";
+    private final EntryTree<K, V> tree;
+    private final Comparator<? super K> comparator;
+    private final BinarySearchTreeSet<MapEntry<K, V>> entries;
+    private final boolean descending;
+
+    /**
+     * creates an empty map ordered by the natural ordering of its {@link Comparable} keys
+     */
+    public RedBlackTreeMap() {
+        this(null);
+    }
+
+    /**
+     * creates an empty map ordered by <i>comparator</i>
+     *
+     * @param comparator key comparator
+     */
+    public RedBlackTreeMap(Comparator<? super K> comparator) {
+        this.comparator = comparator;
+        this.tree = new EntryTree<>((e1, e2) -> compareKeys(e1.key, e2.key));
+        this.entries = new BinarySearchTreeSet<>(tree);
+        this.descending = false;
+    }
+
+    private RedBlackTreeMap(RedBlackTreeMap<K, V> map, NavigableSet<MapEntry<K, V>> entries, boolean descending) {
+        this.comparator = map.comparator;
+        this.tree = map.tree;
+        this.entries = (BinarySearchTreeSet<MapEntry<K, V>>) entries;
+        this.descending = descending;
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return !isNull(getNode(key));
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<MapEntry<K, V>> node = getNode(key);
+        return isNull(node) ? null : node.getElement().value;
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        Node<MapEntry<K, V>> node = getNode(key);
+        return isNull(node) ? defaultValue : node.getElement().value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        int oldSize = tree.size();
+        Node<MapEntry<K, V>> node = addNode(key, value);
+        return tree.size() != oldSize ? null : node.getElement().setValue(value);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        int oldSize = tree.size();
+        Node<MapEntry<K, V>> node = addNode(key, value);
+        if (tree.size() != oldSize) {
+            return null;
+        }
+        MapEntry<K, V> entry = node.getElement();
+        V oldValue = entry.value;
+        if (isNull(oldValue)) {
+            entry.value = value;
+        }
+        return oldValue;
+    }
+
+    @Override
+    public V remove(Object key) {
+        Node<MapEntry<K, V>> node = getNode(key);
+        if (isNull(node)) {
+            return null;
+        }
+        return tree.remove(node).value;
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        if (!entries.inRange(probe(key))) {
+            return computeOutOfRange(() -> mappingFunction.apply(key));
+        }
+        return computeEntry(key, (k, value) -> mappingFunction.apply(k), true);
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Node<MapEntry<K, V>> node = getNode(key);
+        if (isNull(node) || isNull(node.getElement().value)) {
+            return null;
+        }
+        int modCount = tree.modCount;
+        V value = remappingFunction.apply(key, node.getElement().value);
+        checkModCount(modCount);
+        return update(node, value);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (!entries.inRange(probe(key))) {
+            return computeOutOfRange(() -> remappingFunction.apply(key, null));
+        }
+        return computeEntry(key, remappingFunction, false);
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (isNull(value) || isNull(remappingFunction)) {
+            throw new NullPointerException();
+        }
+        int oldSize = tree.size();
+        Node<MapEntry<K, V>> node = addNode(key, value);
+        MapEntry<K, V> entry = node.getElement();
+        if (tree.size() != oldSize) {
+            return value;
+        } else if (isNull(entry.value)) {
+            entry.value = value;
+            return value;
+        }
+        int modCount = tree.modCount;
+        V newValue = remappingFunction.apply(entry.value, value);
+        checkModCount(modCount);
+        return update(node, newValue);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return new KeySet<>(this);
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return descending ? Collections.reverseOrder(comparator) : comparator;
+    }
+
+    @Override
+    public Entry<K, V> firstEntry() {
+        return isEmpty() ? null : snapshot(entries.first());
+    }
+
+    @Override
+    public Entry<K, V> lastEntry() {
+        return isEmpty() ? null : snapshot(entries.last());
+    }
+
+    @Override
+    public Entry<K, V> pollFirstEntry() {
+        return snapshot(entries.pollFirst());
+    }
+
+    @Override
+    public Entry<K, V> pollLastEntry() {
+        return snapshot(entries.pollLast());
+    }
+
+    @Override
+    public Entry<K, V> lowerEntry(K key) {
+        return snapshot(entries.lower(probe(key)));
+    }
+
+    @Override
+    public Entry<K, V> floorEntry(K key) {
+        return snapshot(entries.floor(probe(key)));
+    }
+
+    @Override
+    public Entry<K, V> ceilingEntry(K key) {
+        return snapshot(entries.ceiling(probe(key)));
+    }
+
+    @Override
+    public Entry<K, V> higherEntry(K key) {
+        return snapshot(entries.higher(probe(key)));
+    }
+
+    @Override
+    public K firstKey() {
+        return entries.first().key;
+    }
+
+    @Override
+    public K lastKey() {
+        return entries.last().key;
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return keyOrNull(entries.lower(probe(key)));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return keyOrNull(entries.floor(probe(key)));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return keyOrNull(entries.ceiling(probe(key)));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return keyOrNull(entries.higher(probe(key)));
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return new RedBlackTreeMap<>(this, entries.descendingSet(), !descending);
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return new RedBlackTreeMap<>(this, entries.subSet(probe(fromKey), fromInclusive, probe(toKey), toInclusive),
+                descending);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        return new RedBlackTreeMap<>(this, entries.headSet(probe(toKey), inclusive), descending);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        return new RedBlackTreeMap<>(this, entries.tailSet(probe(fromKey), inclusive), descending);
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    /**
+     * descends the tree by <i>key</i> without allocating a probe entry
+     *
+     * @param key key to search
+     * @return node of the entry with <i>key</i> within the bounds of the map (or null if there is no such entry)
+     */
+    @SuppressWarnings("unchecked")
+    private Node<MapEntry<K, V>> getNode(Object key) {
+        checkKey(key);
+        Node<MapEntry<K, V>> node = tree.root();
+        while (!isNull(node)) {
+            int compare = compareKeys((K) key, node.getElement().key);
+            if (compare == 0) {
+                return entries.inRange(node.getElement()) ? node : null;
+            }
+            node = compare < 0 ? tree.left(node) : tree.right(node);
+        }
+        return null;
+    }
+
+    /**
+     * finds the entry with <i>key</i> or adds new entry mapping <i>key</i> to <i>value</i> in a single descent.
+     * Caller compares the size of the tree before and after the call to know whether the entry was added
+     *
+     * @param key   key to search or add
+     * @param value value of the entry to add
+     * @return node of the found or added entry
+     */
+    private Node<MapEntry<K, V>> addNode(K key, V value) {
+        MapEntry<K, V> entry = probe(key);
+        if (!entries.inRange(entry)) {
+            throw new IllegalArgumentException(OUT_OF_RANGE_MSG);
+        }
+        entry.value = value;
+        return tree.add(entry);
+    }
+
+    /**
+     * finds the entry with <i>key</i> in a single descent remembering the parent and the side of a new entry, calls
+     * <i>function</i> and links the new entry only if the computed value is not null. Nothing is added if
+     * <i>function</i> fails
+     *
+     * @param key        key within the bounds of the map
+     * @param function   value computation, gets the current value or null
+     * @param absentOnly true to call <i>function</i> only if there is no value and to keep an entry with null value
+     *                   when no value is computed (as {@link #computeIfAbsent} does)
+     * @return current or computed value
+     * @throws ConcurrentModificationException if <i>function</i> modifies the map
+     */
+    private V computeEntry(K key, BiFunction<? super K, ? super V, ? extends V> function, boolean absentOnly) {
+        Node<MapEntry<K, V>> parent = null;
+        Node<MapEntry<K, V>> node = tree.root();
+        int compare = 0;
+        while (!isNull(node)) {
+            compare = compareKeys(key, node.getElement().key);
+            if (compare == 0) {
+                break;
+            }
+            parent = node;
+            node = compare < 0 ? tree.left(node) : tree.right(node);
+        }
+        MapEntry<K, V> entry = isNull(node) ? null : node.getElement();
+        V oldValue = isNull(entry) ? null : entry.value;
+        if (absentOnly && !isNull(oldValue)) {
+            return oldValue;
+        }
+        int modCount = tree.modCount;
+        V value = function.apply(key, oldValue);
+        checkModCount(modCount);
+        if (isNull(entry)) {
+            if (!isNull(value)) {
+                tree.addChild(parent, compare < 0, new MapEntry<>(key, value));
+            }
+        } else if (!isNull(value)) {
+            entry.value = value;
+        } else if (!absentOnly) {
+            tree.remove(node);
+        }
+        return value;
+    }
+
+    private void checkModCount(int modCount) {
+        if (tree.modCount != modCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * calls <i>function</i> for a key outside of the view, which has no entry, as {@link java.util.TreeMap} views do:
+     * only a value to insert is out of range
+     *
+     * @param function value computation
+     * @return null
+     * @throws IllegalArgumentException if <i>function</i> returns a value
+     */
+    private V computeOutOfRange(Supplier<? extends V> function) {
+        if (!isNull(function.get())) {
+            throw new IllegalArgumentException(OUT_OF_RANGE_MSG);
+        }
+        return null;
+    }
+
+    /**
+     * sets <i>value</i> to the entry of <i>node</i> or removes the entry if <i>value</i> is null
+     */
+    private V update(Node<MapEntry<K, V>> node, V value) {
+        if (isNull(value)) {
+            tree.remove(node);
+        } else {
+            node.getElement().value = value;
+        }
+        return value;
+    }
+
+    private MapEntry<K, V> probe(K key) {
+        checkKey(key);
+        return new MapEntry<>(key, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compareKeys(K key1, K key2) {
+        return isNull(comparator) ? ((Comparable<? super K>) key1).compareTo(key2) : comparator.compare(key1, key2);
+    }
+
+    private static void checkKey(Object key) {
+        if (isNull(key)) {
+            throw new NullPointerException(NULL_KEY_MSG);
+        }
+    }
+
+    private static <K, V> Entry<K, V> snapshot(MapEntry<K, V> entry) {
+        return isNull(entry) ? null : new SimpleImmutableEntry<>(entry.key, entry.value);
+    }
+
+    private static <K> K keyOrNull(MapEntry<K, ?> entry) {
+        return isNull(entry) ? null : entry.key;
+    }
+
+    /**
+     * tree of the entries which counts its structural changes, so the map detects changes made by the functions
+     * it calls
+     */
+    private static class EntryTree<K, V> extends RedBlackTree<MapEntry<K, V>> {
+        private int modCount;
+
+        EntryTree(Comparator<? super MapEntry<K, V>> comparator) {
+            super(comparator);
+        }
+
+        /**
+         * adds <i>entry</i> as a child of <i>parent</i> found by a descent and balances the tree
+         *
+         * @param parent parent of the new leaf (or null if the tree is empty)
+         * @param left   true to add the left child
+         * @param entry  entry to add
+         */
+        void addChild(Node<MapEntry<K, V>> parent, boolean left, MapEntry<K, V> entry) {
+            Node<MapEntry<K, V>> node;
+            if (isNull(parent)) {
+                node = addRoot(entry);
+            } else {
+                node = left ? addLeft(parent, entry) : addRight(parent, entry);
+            }
+            afterElementAdded(node);
+        }
+
+        @Override
+        protected void afterElementAdded(Node<MapEntry<K, V>> n) {
+            modCount++;
+            super.afterElementAdded(n);
+        }
+
+        @Override
+        protected void afterElementRemoved(Node<MapEntry<K, V>> n) {
+            modCount++;
+            super.afterElementRemoved(n);
+        }
+
+        @Override
+        public void clear() {
+            modCount++;
+            super.clear();
+        }
+    }
+
+    /**
+     * entry of the map, ordered in the tree by its key only
+     */
+    private static class MapEntry<K, V> implements Entry<K, V> {
+        private final K key;
+        private V value;
+
+        MapEntry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V oldValue = this.value;
+            this.value = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            return Objects.equals(key, entry.getKey()) && Objects.equals(value, entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /**
+     * live view of the entries within the bounds of the map
+     */
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            Iterator<MapEntry<K, V>> iterator = entries.iterator();
+            return new Iterator<Entry<K, V>>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Entry<K, V> next() {
+                    return iterator.next();
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return RedBlackTreeMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Entry) || isNull(((Entry<?, ?>) o).getKey())) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            try {
+                Node<MapEntry<K, V>> node = getNode(entry.getKey());
+                return !isNull(node) && Objects.equals(node.getElement().value, entry.getValue());
+            } catch (ClassCastException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!contains(o)) {
+                return false;
+            }
+            RedBlackTreeMap.this.remove(((Entry<?, ?>) o).getKey());
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            RedBlackTreeMap.this.clear();
+        }
+    }
+
+    /**
+     * live {@link NavigableSet} view of the keys of a {@link NavigableMap}
+     *
+     * @param <K> key
+     */
+    private static class KeySet<K> extends AbstractSet<K> implements NavigableSet<K> {
+        private final NavigableMap<K, ?> map;
+
+        KeySet(NavigableMap<K, ?> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            Iterator<? extends Entry<K, ?>> iterator = map.entrySet().iterator();
+            return new Iterator<K>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public K next() {
+                    return iterator.next().getKey();
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                }
+            };
+        }
+
+        @Override
+        public Iterator<K> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return map.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!map.containsKey(o)) {
+                return false;
+            }
+            map.remove(o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return map.comparator();
+        }
+
+        @Override
+        public K first() {
+            return map.firstKey();
+        }
+
+        @Override
+        public K last() {
+            return map.lastKey();
+        }
+
+        @Override
+        public K lower(K k) {
+            return map.lowerKey(k);
+        }
+
+        @Override
+        public K floor(K k) {
+            return map.floorKey(k);
+        }
+
+        @Override
+        public K ceiling(K k) {
+            return map.ceilingKey(k);
+        }
+
+        @Override
+        public K higher(K k) {
+            return map.higherKey(k);
+        }
+
+        @Override
+        public K pollFirst() {
+            return keyOrNull(map.pollFirstEntry());
+        }
+
+        @Override
+        public K pollLast() {
+            return keyOrNull(map.pollLastEntry());
+        }
+
+        @Override
+        public NavigableSet<K> descendingSet() {
+            return new KeySet<>(map.descendingMap());
+        }
+
+        @Override
+        public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+            return new KeySet<>(map.subMap(fromElement, fromInclusive, toElement, toInclusive));
+        }
+
+        @Override
+        public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+            return new KeySet<>(map.headMap(toElement, inclusive));
+        }
+
+        @Override
+        public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+            return new KeySet<>(map.tailMap(fromElement, inclusive));
+        }
+
+        @Override
+        public SortedSet<K> subSet(K fromElement, K toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> headSet(K toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> tailSet(K fromElement) {
+            return tailSet(fromElement, true);
+        }
+
+        private static <K> K keyOrNull(Entry<K, ?> entry) {
+            return isNull(entry) ? null : entry.getKey();
+        }
+    }
+}
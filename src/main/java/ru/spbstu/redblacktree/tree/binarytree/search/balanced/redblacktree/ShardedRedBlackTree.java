@@ -0,0 +1,499 @@
+package ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree;
+
+import ru.spbstu.redblacktree.tree.Node;
+import ru.spbstu.redblacktree.tree.binarytree.search.BinarySearchTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Objects.isNull;
+
+/**
+ * thread-safe sorted set of distinct elements partitioned by ranges into independent {@link RedBlackTree} shards,
+ * each guarded by its own lock, so writers of different ranges do not contend.
+ * <p>
+ * The directory of shards is guarded by a read-write lock: point operations take its read lock and then lock
+ * the single shard owning the element. A shard that grows above the maximum size is split in two halves under the
+ * directory write lock by copying its elements into two trees with {@link RedBlackTree#loadSorted}. That costs O(n)
+ * once per about n/2 additions.
+ * <p>
+ * Shards own disjoint consecutive ranges, so the k-way merge of shards for ordered iteration is their
+ * concatenation. Iterators and streams are weakly consistent: elements are copied by chunks under the shard read
+ * lock and iteration resumes after the last returned element, so concurrent changes and splits never break it.
+ *
+ * @param <E> element
+ */
+public class ShardedRedBlackTree<E> implements Iterable<E> {
+    public static final int DEFAULT_MAX_SHARD_SIZE = 1 << 16;
+    private static final int ITERATION_CHUNK = 64;
+    private final Comparator<? super E> comparator;
+    private final int maxShardSize;
+    private final ReadWriteLock directoryLock = new ReentrantReadWriteLock();
+    /**
+     * shards in ascending order of their ranges, guarded by {@link #directoryLock}
+     */
+    private final List<Shard<E>> shards = new ArrayList<>();
+
+    /**
+     * creates an empty tree ordered by the natural ordering of its {@link Comparable} elements
+     */
+    public ShardedRedBlackTree() {
+        this(null, DEFAULT_MAX_SHARD_SIZE);
+    }
+
+    /**
+     * creates an empty tree ordered by <i>comparator</i>
+     *
+     * @param comparator   element comparator, must be safe to call from several threads
+     * @param maxShardSize size above which a shard is split
+     * @throws IllegalArgumentException if <i>maxShardSize</i> is less than 2
+     */
+    public ShardedRedBlackTree(Comparator<? super E> comparator, int maxShardSize) {
+        if (maxShardSize < 2) {
+            throw new IllegalArgumentException("max shard size must be at least 2");
+        }
+        this.comparator = comparator;
+        this.maxShardSize = maxShardSize;
+        shards.add(new Shard<>(null, new RedBlackTree<>(comparator)));
+    }
+
+    /**
+     * @param val element to add
+     * @return true if the tree did not contain <i>val</i>
+     */
+    public boolean add(E val) {
+        if (isNull(val)) {
+            throw new IllegalArgumentException(BinarySearchTree.NULL_NODE_MSG);
+        }
+        Shard<E> shard;
+        boolean added;
+        boolean oversized;
+        directoryLock.readLock().lock();
+        try {
+            shard = shards.get(shardIndex(val));
+            shard.lock.writeLock().lock();
+            try {
+                int oldSize = shard.tree.size();
+                shard.tree.add(val);
+                added = shard.tree.size() != oldSize;
+                oversized = shard.tree.size() > maxShardSize;
+            } finally {
+                shard.lock.writeLock().unlock();
+            }
+        } finally {
+            directoryLock.readLock().unlock();
+        }
+        if (oversized) {
+            split(shard);
+        }
+        return added;
+    }
+
+    /**
+     * @param val element to remove
+     * @return true if the tree contained <i>val</i>
+     */
+    public boolean remove(E val) {
+        directoryLock.readLock().lock();
+        try {
+            Shard<E> shard = shards.get(shardIndex(val));
+            shard.lock.writeLock().lock();
+            try {
+                return !isNull(shard.tree.remove(val));
+            } finally {
+                shard.lock.writeLock().unlock();
+            }
+        } finally {
+            directoryLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param val value to search
+     * @return element equal to <i>val</i> (or null if there is no such element)
+     */
+    public E search(E val) {
+        directoryLock.readLock().lock();
+        try {
+            return read(shards.get(shardIndex(val)), tree -> tree.search(val));
+        } finally {
+            directoryLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param val value to search
+     * @return true if the tree contains <i>val</i>
+     */
+    public boolean contains(E val) {
+        return !isNull(search(val));
+    }
+
+    /**
+     * @param val value to search
+     * @return the greatest element less than or equal to <i>val</i> (or null if there is no such element)
+     */
+    public E floor(E val) {
+        return searchDown(val, tree -> tree.floor(val));
+    }
+
+    /**
+     * @param val value to search
+     * @return the greatest element strictly less than <i>val</i> (or null if there is no such element)
+     */
+    public E lower(E val) {
+        return searchDown(val, tree -> tree.lower(val));
+    }
+
+    /**
+     * @param val value to search
+     * @return the least element greater than or equal to <i>val</i> (or null if there is no such element)
+     */
+    public E ceiling(E val) {
+        return searchUp(val, tree -> tree.ceiling(val));
+    }
+
+    /**
+     * @param val value to search
+     * @return the least element strictly greater than <i>val</i> (or null if there is no such element)
+     */
+    public E higher(E val) {
+        return searchUp(val, tree -> tree.higher(val));
+    }
+
+    /**
+     * @return the least element
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E first() {
+        return outermost(true);
+    }
+
+    /**
+     * @return the greatest element
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E last() {
+        return outermost(false);
+    }
+
+    /**
+     * @return the number of elements, summed shard by shard
+     */
+    public int size() {
+        directoryLock.readLock().lock();
+        try {
+            int size = 0;
+            for (Shard<E> shard : shards) {
+                size += read(shard, RedBlackTree::size);
+            }
+            return size;
+        } finally {
+            directoryLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return true if the tree contains no elements
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return the number of shards
+     */
+    public int shardCount() {
+        directoryLock.readLock().lock();
+        try {
+            return shards.size();
+        } finally {
+            directoryLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return weakly consistent iterator over elements in ascending order
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new ScanIterator(null, true, null, true);
+    }
+
+    /**
+     * @param from          low endpoint (or null if unbounded)
+     * @param fromInclusive true if the low endpoint is included
+     * @param to            high endpoint (or null if unbounded)
+     * @param toInclusive   true if the high endpoint is included
+     * @return weakly consistent iterator over elements of the range in ascending order
+     */
+    public Iterator<E> rangeIterator(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        return new ScanIterator(from, fromInclusive, to, toInclusive);
+    }
+
+    /**
+     * @return weakly consistent sequential stream of elements in ascending order
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED |
+                Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * @param from          low endpoint (or null if unbounded)
+     * @param fromInclusive true if the low endpoint is included
+     * @param to            high endpoint (or null if unbounded)
+     * @param toInclusive   true if the high endpoint is included
+     * @return weakly consistent sequential stream of elements of the range in ascending order
+     */
+    public Stream<E> rangeStream(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rangeIterator(from, fromInclusive, to,
+                toInclusive), Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("[");
+        for (E element : this) {
+            if (result.length() > 1) {
+                result.append(", ");
+            }
+            result.append(element);
+        }
+        return result.append(']').toString();
+    }
+
+    /**
+     * splits <i>shard</i> in halves if it is still in the directory and still oversized
+     */
+    @SuppressWarnings("unchecked")
+    private void split(Shard<E> shard) {
+        directoryLock.writeLock().lock();
+        try {
+            int index = shards.indexOf(shard);
+            if (index < 0 || shard.tree.size() <= maxShardSize) {
+                return;
+            }
+            E[] elements = (E[]) new Object[shard.tree.size()];
+            int i = 0;
+            for (E element : shard.tree) {
+                elements[i++] = element;
+            }
+            int middle = elements.length / 2;
+            RedBlackTree<E> lower = new RedBlackTree<>(comparator);
+            lower.loadSorted(Arrays.asList(elements).subList(0, middle).iterator(), middle);
+            RedBlackTree<E> upper = new RedBlackTree<>(comparator);
+            upper.loadSorted(Arrays.asList(elements).subList(middle, elements.length).iterator(),
+                    elements.length - middle);
+            shards.set(index, new Shard<>(shard.lowerBound, lower));
+            shards.add(index + 1, new Shard<>(elements[middle], upper));
+        } finally {
+            directoryLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return index of the shard which range contains <i>val</i>. Called under the directory lock
+     */
+    private int shardIndex(E val) {
+        int lo = 0;
+        int hi = shards.size() - 1;
+        while (lo < hi) {
+            int middle = (lo + hi + 1) >>> 1;
+            if (compare(shards.get(middle).lowerBound, val) <= 0) {
+                lo = middle;
+            } else {
+                hi = middle - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @param least true to search the least element, false to search the greatest one
+     * @return found element
+     * @throws NoSuchElementException if the tree is empty
+     */
+    private E outermost(boolean least) {
+        directoryLock.readLock().lock();
+        try {
+            for (int i = 0; i < shards.size(); i++) {
+                Node<E> node = read(shards.get(least ? i : shards.size() - 1 - i),
+                        tree -> least ? tree.firstNode() : tree.lastNode());
+                if (!isNull(node)) {
+                    return node.getElement();
+                }
+            }
+            throw new NoSuchElementException();
+        } finally {
+            directoryLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * asks the shard of <i>val</i> and then the preceding shards until one of them answers
+     */
+    private E searchDown(E val, Function<RedBlackTree<E>, E> search) {
+        directoryLock.readLock().lock();
+        try {
+            int index = shardIndex(val);
+            E found = read(shards.get(index), search);
+            for (int i = index - 1; isNull(found) && i >= 0; i--) {
+                found = read(shards.get(i), tree -> tree.size() == 0 ? null : tree.last());
+            }
+            return found;
+        } finally {
+            directoryLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * asks the shard of <i>val</i> and then the following shards until one of them answers
+     */
+    private E searchUp(E val, Function<RedBlackTree<E>, E> search) {
+        directoryLock.readLock().lock();
+        try {
+            int index = shardIndex(val);
+            E found = read(shards.get(index), search);
+            for (int i = index + 1; isNull(found) && i < shards.size(); i++) {
+                found = read(shards.get(i), tree -> tree.size() == 0 ? null : tree.first());
+            }
+            return found;
+        } finally {
+            directoryLock.readLock().unlock();
+        }
+    }
+
+    private static <E, T> T read(Shard<E> shard, Function<RedBlackTree<E>, T> reader) {
+        shard.lock.readLock().lock();
+        try {
+            return reader.apply(shard.tree);
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(E val1, E val2) {
+        return isNull(comparator) ? ((Comparable<E>) val1).compareTo(val2) : comparator.compare(val1, val2);
+    }
+
+    /**
+     * tree owning elements from its lower bound up to the lower bound of the next shard
+     *
+     * @param <E> element
+     */
+    private static final class Shard<E> {
+        /**
+         * the least element the shard may contain (or null for the first shard)
+         */
+        private final E lowerBound;
+        private final RedBlackTree<E> tree;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        Shard(E lowerBound, RedBlackTree<E> tree) {
+            this.lowerBound = lowerBound;
+            this.tree = tree;
+        }
+    }
+
+    /**
+     * copies up to {@link #ITERATION_CHUNK} elements of the range at a time, shard by shard, starting after the
+     * last returned element
+     */
+    private class ScanIterator implements Iterator<E> {
+        private final E to;
+        private final boolean toInclusive;
+        private final List<E> chunk = new ArrayList<>(ITERATION_CHUNK);
+        private E start;
+        private boolean startInclusive;
+        private int position;
+        private boolean exhausted;
+        private E lastReturned;
+
+        ScanIterator(E from, boolean fromInclusive, E to, boolean toInclusive) {
+            this.start = from;
+            this.startInclusive = fromInclusive;
+            this.to = to;
+            this.toInclusive = toInclusive;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (position < chunk.size()) {
+                return true;
+            } else if (exhausted) {
+                return false;
+            }
+            fetch();
+            return position < chunk.size();
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = chunk.get(position++);
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (isNull(lastReturned)) {
+                throw new IllegalStateException();
+            }
+            ShardedRedBlackTree.this.remove(lastReturned);
+            lastReturned = null;
+        }
+
+        private void fetch() {
+            chunk.clear();
+            position = 0;
+            directoryLock.readLock().lock();
+            try {
+                for (int i = isNull(start) ? 0 : shardIndex(start); i < shards.size(); i++) {
+                    Shard<E> shard = shards.get(i);
+                    shard.lock.readLock().lock();
+                    try {
+                        Node<E> node = isNull(start) ? shard.tree.firstNode() : startInclusive
+                                ? shard.tree.ceilingNode(start) : shard.tree.higherNode(start);
+                        for (; !isNull(node) && chunk.size() < ITERATION_CHUNK; node = shard.tree.successor(node)) {
+                            if (!isNull(to) && (toInclusive ? compare(node.getElement(), to) > 0
+                                    : compare(node.getElement(), to) >= 0)) {
+                                exhausted = true;
+                                break;
+                            }
+                            chunk.add(node.getElement());
+                        }
+                    } finally {
+                        shard.lock.readLock().unlock();
+                    }
+                    if (exhausted || chunk.size() == ITERATION_CHUNK) {
+                        break;
+                    }
+                }
+                if (chunk.size() < ITERATION_CHUNK) {
+                    exhausted = true;
+                }
+                if (!chunk.isEmpty()) {
+                    start = chunk.get(chunk.size() - 1);
+                    startInclusive = false;
+                }
+            } finally {
+                directoryLock.readLock().unlock();
+            }
+        }
+    }
+}
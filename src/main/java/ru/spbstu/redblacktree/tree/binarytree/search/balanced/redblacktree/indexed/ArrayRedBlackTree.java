@@ -0,0 +1,315 @@
+package ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.indexed;
+
+import ru.spbstu.redblacktree.tree.binarytree.search.BinarySearchTree;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static java.util.Objects.isNull;
+
+/**
+ * red-black tree keeping nodes in parallel arrays: links in int arrays, colors in a bit set and elements in an
+ * object array. Slots of removed nodes are reused by new ones.
+ *
+ * @param <E> element
+ */
+public class ArrayRedBlackTree<E> extends IndexedRedBlackTree implements Iterable<E> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private final Comparator<? super E> comparator;
+    private Object[] elements;
+    private int[] lefts;
+    private int[] rights;
+    private int[] parents;
+    private final BitSet blacks = new BitSet();
+    /**
+     * number of slots ever used
+     */
+    private int used;
+    /**
+     * head of the list of free slots linked through {@link #lefts}
+     */
+    private int freeSlot = NIL;
+
+    public ArrayRedBlackTree() {
+        this(null);
+    }
+
+    public ArrayRedBlackTree(Comparator<? super E> comparator) {
+        this(DEFAULT_CAPACITY, comparator);
+    }
+
+    /**
+     * @param capacity   number of nodes to allocate storage for
+     * @param comparator comparator used to order elements, or null if elements are {@link Comparable}
+     */
+    public ArrayRedBlackTree(int capacity, Comparator<? super E> comparator) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity can't be negative");
+        }
+        this.comparator = comparator;
+        elements = new Object[capacity];
+        lefts = new int[capacity];
+        rights = new int[capacity];
+        parents = new int[capacity];
+    }
+
+    /**
+     * adds <i>val</i> to the tree
+     *
+     * @param val value to add
+     * @return true if the tree did not contain <i>val</i>
+     */
+    public boolean add(E val) {
+        if (isNull(val)) {
+            throw new IllegalArgumentException(BinarySearchTree.NULL_NODE_MSG);
+        }
+        int parent = NIL;
+        int compare = 0;
+        for (int node = root(); node != NIL; node = compare < 0 ? left(node) : right(node)) {
+            compare = compare(val, element(node));
+            if (compare == 0) {
+                return false;
+            }
+            parent = node;
+        }
+        insert(allocate(val), parent, compare < 0);
+        return true;
+    }
+
+    /**
+     * removes <i>val</i> from the tree
+     *
+     * @param val value to remove
+     * @return removed element (or null if there was no such element)
+     */
+    public E remove(E val) {
+        int node = find(val);
+        if (node == NIL) {
+            return null;
+        }
+        E element = element(node);
+        delete(node);
+        return element;
+    }
+
+    /**
+     * @param val value to search
+     * @return element of the tree equal to <i>val</i> (or null if there is no such element)
+     */
+    public E search(E val) {
+        int node = find(val);
+        return node == NIL ? null : element(node);
+    }
+
+    /**
+     * @param val value to search
+     * @return true if the tree contains <i>val</i>
+     */
+    public boolean contains(E val) {
+        return find(val) != NIL;
+    }
+
+    /**
+     * @return the least element
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E first() {
+        return existing(firstNode());
+    }
+
+    /**
+     * @return the greatest element
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E last() {
+        return existing(lastNode());
+    }
+
+    /**
+     * removes all elements and releases the storage
+     */
+    public void clear() {
+        reset();
+        elements = new Object[DEFAULT_CAPACITY];
+        lefts = new int[DEFAULT_CAPACITY];
+        rights = new int[DEFAULT_CAPACITY];
+        parents = new int[DEFAULT_CAPACITY];
+        blacks.clear();
+        used = 0;
+        freeSlot = NIL;
+    }
+
+    /**
+     * @return an iterator over elements in ascending order
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int next = firstNode();
+
+            @Override
+            public boolean hasNext() {
+                return next != NIL;
+            }
+
+            @Override
+            public E next() {
+                if (next == NIL) {
+                    throw new NoSuchElementException();
+                }
+                int current = next;
+                next = successor(current);
+                return element(current);
+            }
+        };
+    }
+
+    /**
+     * @param val value to search
+     * @return node containing <i>val</i> (or {@link #NIL} if there is no such node)
+     */
+    protected int find(E val) {
+        int node = root();
+        while (node != NIL) {
+            int compare = compare(val, element(node));
+            if (compare == 0) {
+                return node;
+            }
+            node = compare < 0 ? left(node) : right(node);
+        }
+        return NIL;
+    }
+
+    /**
+     * @param n node
+     * @return element stored at <i>n</i>
+     */
+    @SuppressWarnings("unchecked")
+    protected E element(int n) {
+        return (E) elements[n];
+    }
+
+    /**
+     * comparing two values the same way {@link BinarySearchTree} does
+     */
+    @SuppressWarnings("unchecked")
+    protected int compare(E val1, E val2) {
+        if (isNull(val1) || isNull(val2)) {
+            throw new IllegalStateException("cannot compare nulls");
+        }
+        if (!isNull(comparator)) {
+            return comparator.compare(val1, val2);
+        }
+        if (val1 instanceof Comparable) {
+            return ((Comparable<E>) val1).compareTo(val2);
+        }
+        throw new IllegalStateException("cannot compare");
+    }
+
+    @Override
+    protected int left(int n) {
+        return lefts[n];
+    }
+
+    @Override
+    protected int right(int n) {
+        return rights[n];
+    }
+
+    @Override
+    protected int parent(int n) {
+        return parents[n];
+    }
+
+    @Override
+    protected boolean isBlack(int n) {
+        return blacks.get(n);
+    }
+
+    @Override
+    protected void setLeft(int n, int left) {
+        lefts[n] = left;
+    }
+
+    @Override
+    protected void setRight(int n, int right) {
+        rights[n] = right;
+    }
+
+    @Override
+    protected void setParent(int n, int parent) {
+        parents[n] = parent;
+    }
+
+    @Override
+    protected void setBlack(int n, boolean black) {
+        blacks.set(n, black);
+    }
+
+    @Override
+    protected void moveContent(int from, int to) {
+        elements[to] = elements[from];
+    }
+
+    @Override
+    protected void free(int n) {
+        elements[n] = null;
+        lefts[n] = freeSlot;
+        freeSlot = n;
+    }
+
+    /**
+     * takes free slot or a new one, growing arrays if needed
+     *
+     * @param val element to store
+     * @return new red node without children
+     */
+    private int allocate(E val) {
+        int n;
+        if (freeSlot != NIL) {
+            n = freeSlot;
+            freeSlot = lefts[n];
+        } else {
+            if (used == elements.length) {
+                grow();
+            }
+            n = used++;
+        }
+        elements[n] = val;
+        lefts[n] = NIL;
+        rights[n] = NIL;
+        parents[n] = NIL;
+        blacks.clear(n);
+        return n;
+    }
+
+    private void grow() {
+        int capacity = Math.max(DEFAULT_CAPACITY, elements.length + (elements.length >> 1));
+        elements = Arrays.copyOf(elements, capacity);
+        lefts = Arrays.copyOf(lefts, capacity);
+        rights = Arrays.copyOf(rights, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+    }
+
+    private E existing(int n) {
+        if (n == NIL) {
+            throw new NoSuchElementException();
+        }
+        return element(n);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("[");
+        for (int n = firstNode(); n != NIL; n = successor(n)) {
+            if (result.length() > 1) {
+                result.append(", ");
+            }
+            result.append(element(n));
+        }
+        return result.append(']').toString();
+    }
+}
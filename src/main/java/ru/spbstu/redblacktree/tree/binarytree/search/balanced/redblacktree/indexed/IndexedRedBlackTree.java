@@ -0,0 +1,328 @@
+package ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.indexed;
+
+/**
+ * red-black tree whose nodes are addressed by int indices instead of references. Keeps balancing logic only:
+ * subclasses store links, colors and elements wherever they want, compare elements and descend the tree
+ * themselves.
+ */
+public abstract class IndexedRedBlackTree {
+    /**
+     * index of absent node
+     */
+    protected static final int NIL = -1;
+    private int root = NIL;
+    private int size;
+
+    /**
+     * @return the number of nodes (and hence elements) that are contained in the tree
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the tree contains no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return index of the root (or {@link #NIL} if the tree is empty)
+     */
+    protected int root() {
+        return root;
+    }
+
+    /**
+     * forgets all nodes. Subclasses release their storage themselves
+     */
+    protected void reset() {
+        root = NIL;
+        size = 0;
+    }
+
+    /**
+     * @param n node
+     * @return <i>n</i>'s left child (or {@link #NIL} if no child exists)
+     */
+    protected abstract int left(int n);
+
+    /**
+     * @param n node
+     * @return <i>n</i>'s right child (or {@link #NIL} if no child exists)
+     */
+    protected abstract int right(int n);
+
+    /**
+     * @param n node
+     * @return <i>n</i>'s parent (or {@link #NIL} if <i>n</i> is the root)
+     */
+    protected abstract int parent(int n);
+
+    /**
+     * @param n node
+     * @return true if <i>n</i> is black
+     */
+    protected abstract boolean isBlack(int n);
+
+    /**
+     * @param n    node
+     * @param left new left child or {@link #NIL}
+     */
+    protected abstract void setLeft(int n, int left);
+
+    /**
+     * @param n     node
+     * @param right new right child or {@link #NIL}
+     */
+    protected abstract void setRight(int n, int right);
+
+    /**
+     * @param n      node
+     * @param parent new parent or {@link #NIL}
+     */
+    protected abstract void setParent(int n, int parent);
+
+    /**
+     * @param n     node
+     * @param black whether <i>n</i> becomes black or red
+     */
+    protected abstract void setBlack(int n, boolean black);
+
+    /**
+     * copies element of node that is going to be removed into node that takes its place
+     *
+     * @param from node that is removed from the tree
+     * @param to   node that stays in the tree
+     */
+    protected abstract void moveContent(int from, int to);
+
+    /**
+     * releases storage of a removed node, so it can be reused by new nodes
+     *
+     * @param n removed node
+     */
+    protected abstract void free(int n);
+
+    /**
+     * links new red node with {@link #NIL} children under <i>parent</i> and restores red-black properties
+     *
+     * @param n      new node
+     * @param parent node to link under (or {@link #NIL} if the tree is empty)
+     * @param asLeft whether <i>n</i> becomes left or right child
+     */
+    protected void insert(int n, int parent, boolean asLeft) {
+        setParent(n, parent);
+        if (parent == NIL) {
+            root = n;
+        } else if (asLeft) {
+            setLeft(parent, n);
+        } else {
+            setRight(parent, n);
+        }
+        size++;
+        afterNodeAdded(n);
+    }
+
+    /**
+     * removes node <i>n</i> from the tree. Node with two children takes its successor's content and the successor
+     * is removed instead
+     *
+     * @param n node to remove
+     */
+    protected void delete(int n) {
+        int toRemove = n;
+        if (left(n) != NIL && right(n) != NIL) {
+            toRemove = successor(n);
+            moveContent(toRemove, n);
+        }
+        int child = left(toRemove) == NIL ? right(toRemove) : left(toRemove);
+        if (child == NIL) {
+            if (isBlack(toRemove)) {
+                beforeBlackLeafRemoved(toRemove);
+            }
+            replace(toRemove, NIL);
+        } else {
+            replace(toRemove, child);
+            setBlack(child, true);
+        }
+        size--;
+        free(toRemove);
+    }
+
+    /**
+     * @return node with the least element (or {@link #NIL} if the tree is empty)
+     */
+    protected int firstNode() {
+        return root == NIL ? NIL : leftmost(root);
+    }
+
+    /**
+     * @return node with the greatest element (or {@link #NIL} if the tree is empty)
+     */
+    protected int lastNode() {
+        return root == NIL ? NIL : rightmost(root);
+    }
+
+    /**
+     * @param n node
+     * @return node following <i>n</i> in inOrder (or {@link #NIL} if <i>n</i> is the last one)
+     */
+    protected int successor(int n) {
+        if (right(n) != NIL) {
+            return leftmost(right(n));
+        }
+        int node = n;
+        int parent = parent(node);
+        while (parent != NIL && node == right(parent)) {
+            node = parent;
+            parent = parent(node);
+        }
+        return parent;
+    }
+
+    /**
+     * @param n node
+     * @return node preceding <i>n</i> in inOrder (or {@link #NIL} if <i>n</i> is the first one)
+     */
+    protected int predecessor(int n) {
+        if (left(n) != NIL) {
+            return rightmost(left(n));
+        }
+        int node = n;
+        int parent = parent(node);
+        while (parent != NIL && node == left(parent)) {
+            node = parent;
+            parent = parent(node);
+        }
+        return parent;
+    }
+
+    private int leftmost(int n) {
+        int node = n;
+        for (int left = left(node); left != NIL; left = left(node)) {
+            node = left;
+        }
+        return node;
+    }
+
+    private int rightmost(int n) {
+        int node = n;
+        for (int right = right(node); right != NIL; right = right(node)) {
+            node = right;
+        }
+        return node;
+    }
+
+    private boolean isBlackOrNil(int n) {
+        return n == NIL || isBlack(n);
+    }
+
+    /**
+     * puts <i>replacement</i> at <i>n</i>'s place
+     */
+    private void replace(int n, int replacement) {
+        int parent = parent(n);
+        if (replacement != NIL) {
+            setParent(replacement, parent);
+        }
+        if (parent == NIL) {
+            root = replacement;
+        } else if (n == left(parent)) {
+            setLeft(parent, replacement);
+        } else {
+            setRight(parent, replacement);
+        }
+    }
+
+    /**
+     * rotates <i>n</i> with its parent
+     */
+    private void rotate(int n) {
+        int parent = parent(n);
+        replace(parent, n);
+        if (n == left(parent)) {
+            int inner = right(n);
+            setLeft(parent, inner);
+            if (inner != NIL) {
+                setParent(inner, parent);
+            }
+            setRight(n, parent);
+        } else {
+            int inner = left(n);
+            setRight(parent, inner);
+            if (inner != NIL) {
+                setParent(inner, parent);
+            }
+            setLeft(n, parent);
+        }
+        setParent(parent, n);
+    }
+
+    private void afterNodeAdded(int n) {
+        int node = n;
+        while (true) {
+            int parent = parent(node);
+            if (parent == NIL) {
+                setBlack(node, true);
+                return;
+            } else if (isBlack(parent)) {
+                return;
+            }
+            int grandParent = parent(parent);
+            int uncle = parent == left(grandParent) ? right(grandParent) : left(grandParent);
+            setBlack(grandParent, false);
+            if (!isBlackOrNil(uncle)) {
+                setBlack(parent, true);
+                setBlack(uncle, true);
+                node = grandParent;
+                continue;
+            }
+            if ((node == left(parent)) == (parent == left(grandParent))) {
+                setBlack(parent, true);
+                rotate(parent);
+            } else {
+                setBlack(node, true);
+                rotate(node);
+                rotate(node);
+            }
+            return;
+        }
+    }
+
+    private void beforeBlackLeafRemoved(int n) {
+        int node = n;
+        while (parent(node) != NIL && isBlack(node)) {
+            int parent = parent(node);
+            boolean isLeft = node == left(parent);
+            int sibling = isLeft ? right(parent) : left(parent);
+            if (!isBlack(sibling)) {
+                setBlack(sibling, true);
+                setBlack(parent, false);
+                rotate(sibling);
+                sibling = isLeft ? right(parent) : left(parent);
+            }
+            int nearNephew = isLeft ? left(sibling) : right(sibling);
+            int fartherNephew = isLeft ? right(sibling) : left(sibling);
+            if (isBlackOrNil(nearNephew) && isBlackOrNil(fartherNephew)) {
+                setBlack(sibling, false);
+                node = parent;
+                continue;
+            }
+            if (isBlackOrNil(fartherNephew)) {
+                setBlack(nearNephew, true);
+                setBlack(sibling, false);
+                rotate(nearNephew);
+                fartherNephew = sibling;
+                sibling = nearNephew;
+            }
+            setBlack(sibling, isBlack(parent));
+            setBlack(parent, true);
+            setBlack(fartherNephew, true);
+            rotate(sibling);
+            return;
+        }
+        setBlack(node, true);
+    }
+}
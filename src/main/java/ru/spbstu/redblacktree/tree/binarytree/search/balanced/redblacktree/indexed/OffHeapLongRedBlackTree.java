@@ -0,0 +1,308 @@
+package ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.indexed;
+
+import ru.spbstu.redblacktree.utils.BufferUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * red-black tree of distinct long keys kept outside of the heap. Nodes are fixed-size records in direct buffers
+ * allocated chunk by chunk, so the tree may occupy more than 2 GB and gives the garbage collector nothing to trace.
+ * <p>
+ * Record layout: key (8 bytes), left (4), right (4), parent (4), color (4). Records of removed nodes are reused.
+ * Memory is released by {@link #close()}; the tree can't be used after that.
+ */
+public class OffHeapLongRedBlackTree extends IndexedRedBlackTree implements AutoCloseable {
+    private static final int RECORD_SIZE = 24;
+    private static final int KEY = 0;
+    private static final int LEFT = 8;
+    private static final int RIGHT = 12;
+    private static final int PARENT = 16;
+    private static final int COLOR = 20;
+    private static final int DEFAULT_CHUNK_SHIFT = 20;
+    private static final int MAX_CHUNK_SHIFT = 26;
+
+    private final int chunkShift;
+    private final int chunkMask;
+    private ByteBuffer[] chunks = new ByteBuffer[0];
+    /**
+     * number of records ever used
+     */
+    private int used;
+    /**
+     * head of the list of free records linked through their left field
+     */
+    private int freeRecord = NIL;
+    private boolean closed;
+
+    public OffHeapLongRedBlackTree() {
+        this(DEFAULT_CHUNK_SHIFT);
+    }
+
+    /**
+     * @param chunkShift each chunk keeps 2<sup>chunkShift</sup> records
+     */
+    public OffHeapLongRedBlackTree(int chunkShift) {
+        if (chunkShift < 0 || chunkShift > MAX_CHUNK_SHIFT) {
+            throw new IllegalArgumentException("chunk shift must be in [0, " + MAX_CHUNK_SHIFT + "]");
+        }
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1 << chunkShift) - 1;
+    }
+
+    /**
+     * adds <i>key</i> to the tree
+     *
+     * @param key key to add
+     * @return true if the tree did not contain <i>key</i>
+     */
+    public boolean add(long key) {
+        checkOpen();
+        int parent = NIL;
+        int compare = 0;
+        for (int node = root(); node != NIL; node = compare < 0 ? left(node) : right(node)) {
+            compare = Long.compare(key, key(node));
+            if (compare == 0) {
+                return false;
+            }
+            parent = node;
+        }
+        insert(allocate(key), parent, compare < 0);
+        return true;
+    }
+
+    /**
+     * removes <i>key</i> from the tree
+     *
+     * @param key key to remove
+     * @return true if the tree contained <i>key</i>
+     */
+    public boolean remove(long key) {
+        int node = find(key);
+        if (node == NIL) {
+            return false;
+        }
+        delete(node);
+        return true;
+    }
+
+    /**
+     * @param key key to search
+     * @return true if the tree contains <i>key</i>
+     */
+    public boolean contains(long key) {
+        return find(key) != NIL;
+    }
+
+    /**
+     * @return the least key
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public long first() {
+        checkOpen();
+        return existing(firstNode());
+    }
+
+    /**
+     * @return the greatest key
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public long last() {
+        checkOpen();
+        return existing(lastNode());
+    }
+
+    /**
+     * @return an iterator over keys in ascending order
+     */
+    public PrimitiveIterator.OfLong iterator() {
+        checkOpen();
+        return new PrimitiveIterator.OfLong() {
+            private int next = firstNode();
+
+            @Override
+            public boolean hasNext() {
+                return next != NIL;
+            }
+
+            @Override
+            public long nextLong() {
+                if (next == NIL) {
+                    throw new NoSuchElementException();
+                }
+                checkOpen();
+                int current = next;
+                next = successor(current);
+                return key(current);
+            }
+        };
+    }
+
+    /**
+     * removes all keys and releases memory of all chunks. The tree stays usable
+     */
+    public void clear() {
+        checkOpen();
+        release();
+    }
+
+    /**
+     * @return number of bytes of direct memory held by the tree
+     */
+    public long allocatedBytes() {
+        return (long) chunks.length * RECORD_SIZE << chunkShift;
+    }
+
+    /**
+     * releases memory of all chunks. Any later operation throws {@link IllegalStateException}
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            release();
+            closed = true;
+        }
+    }
+
+    /**
+     * @param key key to search
+     * @return node containing <i>key</i> (or {@link #NIL} if there is no such node)
+     */
+    protected int find(long key) {
+        checkOpen();
+        int node = root();
+        while (node != NIL) {
+            int compare = Long.compare(key, key(node));
+            if (compare == 0) {
+                return node;
+            }
+            node = compare < 0 ? left(node) : right(node);
+        }
+        return NIL;
+    }
+
+    /**
+     * @param n node
+     * @return key stored at <i>n</i>
+     */
+    protected long key(int n) {
+        return chunk(n).getLong(offset(n) + KEY);
+    }
+
+    @Override
+    protected int left(int n) {
+        return chunk(n).getInt(offset(n) + LEFT);
+    }
+
+    @Override
+    protected int right(int n) {
+        return chunk(n).getInt(offset(n) + RIGHT);
+    }
+
+    @Override
+    protected int parent(int n) {
+        return chunk(n).getInt(offset(n) + PARENT);
+    }
+
+    @Override
+    protected boolean isBlack(int n) {
+        return chunk(n).getInt(offset(n) + COLOR) != 0;
+    }
+
+    @Override
+    protected void setLeft(int n, int left) {
+        chunk(n).putInt(offset(n) + LEFT, left);
+    }
+
+    @Override
+    protected void setRight(int n, int right) {
+        chunk(n).putInt(offset(n) + RIGHT, right);
+    }
+
+    @Override
+    protected void setParent(int n, int parent) {
+        chunk(n).putInt(offset(n) + PARENT, parent);
+    }
+
+    @Override
+    protected void setBlack(int n, boolean black) {
+        chunk(n).putInt(offset(n) + COLOR, black ? 1 : 0);
+    }
+
+    @Override
+    protected void moveContent(int from, int to) {
+        chunk(to).putLong(offset(to) + KEY, key(from));
+    }
+
+    @Override
+    protected void free(int n) {
+        setLeft(n, freeRecord);
+        freeRecord = n;
+    }
+
+    private ByteBuffer chunk(int n) {
+        return chunks[n >>> chunkShift];
+    }
+
+    private int offset(int n) {
+        return (n & chunkMask) * RECORD_SIZE;
+    }
+
+    /**
+     * takes free record or a new one, allocating new chunk if needed
+     *
+     * @param key key to store
+     * @return new red node without children
+     */
+    private int allocate(long key) {
+        int n;
+        if (freeRecord != NIL) {
+            n = freeRecord;
+            freeRecord = left(n);
+        } else {
+            if (used == Integer.MAX_VALUE) {
+                throw new IllegalStateException("tree is full");
+            }
+            n = used++;
+            if (n >>> chunkShift == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunks.length + 1);
+                chunks[chunks.length - 1] = ByteBuffer.allocateDirect(RECORD_SIZE << chunkShift)
+                        .order(ByteOrder.nativeOrder());
+            }
+        }
+        ByteBuffer chunk = chunk(n);
+        int offset = offset(n);
+        chunk.putLong(offset + KEY, key);
+        chunk.putInt(offset + LEFT, NIL);
+        chunk.putInt(offset + RIGHT, NIL);
+        chunk.putInt(offset + PARENT, NIL);
+        chunk.putInt(offset + COLOR, 0);
+        return n;
+    }
+
+    private void release() {
+        for (ByteBuffer chunk : chunks) {
+            BufferUtils.free(chunk);
+        }
+        chunks = new ByteBuffer[0];
+        used = 0;
+        freeRecord = NIL;
+        reset();
+    }
+
+    private long existing(int n) {
+        if (n == NIL) {
+            throw new NoSuchElementException();
+        }
+        return key(n);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("tree is closed");
+        }
+    }
+}
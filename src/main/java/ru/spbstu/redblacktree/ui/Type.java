@@ -1,16 +1,20 @@
 package ru.spbstu.redblacktree.ui;
 
+import ru.spbstu.redblacktree.storage.ElementCodec;
 import ru.spbstu.redblacktree.utils.Transformer;
 
 public enum Type {
-    INTEGER(Integer::valueOf, "Integer"), DOUBLE(Double::valueOf, "Double"), STRING(s -> s, "String");
+    INTEGER(Integer::valueOf, "Integer", ElementCodec.INTEGER), DOUBLE(Double::valueOf, "Double", ElementCodec.DOUBLE),
+    STRING(s -> s, "String", ElementCodec.STRING);
 
     private final Transformer<String, ?> parser;
     private final String typeName;
+    private final ElementCodec<?> codec;
 
-    Type(Transformer<String, ?> parser, String typeName) {
+    Type(Transformer<String, ?> parser, String typeName, ElementCodec<?> codec) {
         this.parser = parser;
         this.typeName = typeName;
+        this.codec = codec;
     }
 
     public Transformer<String, ?> getParser() {
@@ -20,4 +24,8 @@ public enum Type {
     public String getTypeName() {
         return typeName;
     }
+
+    public ElementCodec<?> getCodec() {
+        return codec;
+    }
 }
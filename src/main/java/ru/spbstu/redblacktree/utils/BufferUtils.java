@@ -0,0 +1,44 @@
+package ru.spbstu.redblacktree.utils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+public final class BufferUtils {
+    private BufferUtils() {
+    }
+
+    /**
+     * releases memory of a direct (or mapped) buffer right away instead of waiting for the garbage collector.
+     * Does nothing if the running JVM gives no way to do it. The buffer must not be used afterwards
+     *
+     * @param buffer direct buffer to release
+     */
+    public static void free(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect()) {
+            return;
+        }
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (NoSuchMethodException e) {
+            freeBeforeJava9(buffer);
+        } catch (ReflectiveOperationException | RuntimeException ignore) {
+        }
+    }
+
+    private static void freeBeforeJava9(ByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException ignore) {
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package ru.spbstu.redblacktree.utils;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * process-wide counters of structural operations of search trees: rotations, recolors, rebalancing cases,
+ * comparisons and lengths of search paths. They tell a rebalancing cascade from an expensive comparator without
+ * attaching a profiler.
+ * <p>
+ * Counting is off unless the JVM starts with <code>-Dredblacktree.counters=true</code>. Call sites check
+ * {@link #ENABLED} first, which is a static final field, so the JIT folds the check and removes disabled counting
+ * from compiled code. Counters are {@link LongAdder}s, which spread concurrent increments over cells instead of
+ * contending on one value.
+ */
+public final class OperationCounters {
+    public static final String PROPERTY = "redblacktree.counters";
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+    private static final LongAdder[] COUNTERS = new LongAdder[Counter.values().length];
+    private static final LongAccumulator LONGEST_SEARCH_PATH = new LongAccumulator(Math::max, 0);
+
+    static {
+        for (int i = 0; i < COUNTERS.length; i++) {
+            COUNTERS[i] = new LongAdder();
+        }
+    }
+
+    private OperationCounters() {
+    }
+
+    /**
+     * counted operations. Rebalancing cases are named after the comments in the red-black tree code
+     */
+    public enum Counter {
+        ROTATIONS,
+        /**
+         * color changes of nodes, setting the color a node already has is not counted
+         */
+        RECOLORS,
+        COMPARISONS,
+        /**
+         * descents from the root by search or addition
+         */
+        SEARCHES,
+        /**
+         * nodes visited by all {@link #SEARCHES}
+         */
+        SEARCH_PATH_NODES,
+        /**
+         * the added node became the root
+         */
+        INSERT_ROOT,
+        INSERT_BLACK_PARENT,
+        /**
+         * parent and uncle are recolored and the check goes up to the grandparent
+         */
+        INSERT_RED_UNCLE,
+        /**
+         * node and parent are on the same side, one rotation
+         */
+        INSERT_OUTER,
+        /**
+         * node and parent are on different sides, two rotations
+         */
+        INSERT_INNER,
+        REMOVE_CASE_2,
+        /**
+         * the lack of black moves up to the parent
+         */
+        REMOVE_CASES_3_4,
+        REMOVE_CASE_5,
+        REMOVE_CASE_6
+    }
+
+    public static void increment(Counter counter) {
+        COUNTERS[counter.ordinal()].increment();
+    }
+
+    public static void add(Counter counter, long value) {
+        COUNTERS[counter.ordinal()].add(value);
+    }
+
+    /**
+     * counts a search which visited <i>length</i> nodes
+     *
+     * @param length number of visited nodes
+     */
+    public static void searchPath(int length) {
+        COUNTERS[Counter.SEARCHES.ordinal()].increment();
+        COUNTERS[Counter.SEARCH_PATH_NODES.ordinal()].add(length);
+        LONGEST_SEARCH_PATH.accumulate(length);
+    }
+
+    /**
+     * @param counter counter
+     * @return sum of the counter since the start or the last {@link #reset()}, not exact under concurrent updates
+     */
+    public static long get(Counter counter) {
+        return COUNTERS[counter.ordinal()].sum();
+    }
+
+    /**
+     * @return the greatest number of nodes visited by one search
+     */
+    public static long longestSearchPath() {
+        return LONGEST_SEARCH_PATH.get();
+    }
+
+    /**
+     * @return values of all counters
+     */
+    public static Map<Counter, Long> snapshot() {
+        Map<Counter, Long> values = new EnumMap<>(Counter.class);
+        for (Counter counter : Counter.values()) {
+            values.put(counter, get(counter));
+        }
+        return values;
+    }
+
+    /**
+     * sets all counters to zero, updates made during the reset may be lost
+     */
+    public static void reset() {
+        for (LongAdder counter : COUNTERS) {
+            counter.reset();
+        }
+        LONGEST_SEARCH_PATH.reset();
+    }
+}
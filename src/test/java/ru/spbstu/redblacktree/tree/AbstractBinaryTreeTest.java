@@ -4,6 +4,9 @@ import ru.spbstu.redblacktree.tree.binarytree.AbstractBinaryTree;
 import ru.spbstu.redblacktree.tree.binarytree.LinkedBinaryTree;
 
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
@@ -35,6 +38,7 @@ public class AbstractBinaryTreeTest {
         testInOrder();
         testPostOrder();
         testBreadthFirst();
+        testIterators();
     }
 
     private static void testAdd() {
@@ -257,6 +261,70 @@ public class AbstractBinaryTreeTest {
         assertEquals(testName, asList(1, 2, 3, 4, 5), transformIntoNew(tree.breadthFirst(), Node::getElement));
     }
 
+    private static void testIterators() {
+        testName = TEST_CLASS_NAME + ".testIterators()";
+        AbstractBinaryTree<Integer> tree = init();
+        assertEquals(testName + " - iterator", asList(8, 4, 9, 2, 10, 5, 11, 1, 12, 6, 13, 3, 14, 7, 15),
+                toList(tree.iterator()));
+        assertEquals(testName + " - inOrder", transformIntoNew(tree.inOrder(), Node::getElement),
+                toList(new ElementIterator<>(tree.inOrderIterator())));
+        assertEquals(testName + " - preOrder", transformIntoNew(tree.preOrder(), Node::getElement),
+                toList(new ElementIterator<>(tree.preOrderIterator())));
+        assertEquals(testName + " - postOrder", asList(8, 9, 4, 10, 11, 5, 2, 12, 13, 6, 14, 15, 7, 3, 1),
+                toList(new ElementIterator<>(tree.postOrderIterator())));
+        assertEquals(testName + " - breadthFirst", asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15),
+                toList(new ElementIterator<>(tree.breadthFirstIterator())));
+
+        tree = new LinkedBinaryTree<>();
+        Node<Integer> one = tree.addRoot(1);
+        Node<Integer> two = tree.addRight(one, 2);
+        tree.addLeft(two, 3);
+        tree.addRight(tree.addRight(two, 4), 5);
+        assertEquals(testName + " - one-sided inOrder", asList(1, 3, 2, 4, 5), toList(tree.iterator()));
+        assertEquals(testName + " - one-sided preOrder", asList(1, 2, 3, 4, 5),
+                toList(new ElementIterator<>(tree.preOrderIterator())));
+        assertEquals(testName + " - one-sided postOrder", asList(3, 5, 4, 2, 1),
+                toList(new ElementIterator<>(tree.postOrderIterator())));
+
+        tree = new LinkedBinaryTree<>();
+        assertEquals(testName + " - empty", emptyList(), toList(tree.iterator()));
+        try {
+            tree.postOrderIterator().next();
+            fail(FAILED);
+        } catch (NoSuchElementException e) {
+            assertEquals(testName + EXCEPTION_STR, null, e.getMessage());
+        }
+    }
+
+    private static <E> List<E> toList(Iterator<E> iterator) {
+        List<E> elements = new ArrayList<>();
+        while (iterator.hasNext()) {
+            elements.add(iterator.next());
+        }
+        return elements;
+    }
+
+    /**
+     * adapts node iterator to element iterator
+     */
+    private static class ElementIterator<E> implements Iterator<E> {
+        private final Iterator<Node<E>> nodes;
+
+        ElementIterator(Iterator<Node<E>> nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nodes.hasNext();
+        }
+
+        @Override
+        public E next() {
+            return nodes.next().getElement();
+        }
+    }
+
     /**
      * creates new {@link LinkedBinaryTree} with some elements for tests
      *
@@ -0,0 +1,187 @@
+package ru.spbstu.redblacktree.tree;
+
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.indexed.ArrayRedBlackTree;
+import ru.spbstu.redblacktree.tree.utils.Assert;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static ru.spbstu.redblacktree.tree.utils.Assert.assertEquals;
+
+/**
+ * provides tests for {@link ArrayRedBlackTree}. Runs the same scenarios as {@link RedBlackTreeTest}
+ */
+public class ArrayRedBlackTreeTest {
+    private static final String TEST_CLASS_NAME = "ArrayRedBlackTreeTest";
+    private static final String FAILED = "failed";
+    private static String testName;
+
+    public static void main(String[] args) {
+        testAdd();
+        testAddDuplicate();
+        testRemove();
+        testSlotReuse();
+        testRandomOperations();
+    }
+
+    private static void testAdd() {
+        testName = TEST_CLASS_NAME + ".testAdd()";
+        ArrayRedBlackTreeImpl<Integer> integers = new ArrayRedBlackTreeImpl<>();
+        integers.add(1);
+        assertEquals(testName + " - root", singletonList(1), integers.breadthFirst());
+        integers.add(2);
+        assertEquals(testName + " - red", asList(1, 2), integers.breadthFirst());
+        integers.add(3);
+        assertEquals(testName + " - reduceSubintegers", asList(2, 1, 3), integers.breadthFirst());
+        integers.add(4);
+        integers.add(5);
+        assertEquals(testName + " - reduceSubintegers", asList(2, 1, 4, 3, 5), integers.breadthFirst());
+        integers.add(6);
+        assertEquals(testName + " - makeBlack(uncle)", asList(2, 1, 4, 3, 5, 6), integers.breadthFirst());
+        integers.add(7);
+        integers.add(8);
+        assertEquals(testName + " - push double null up", asList(4, 2, 6, 1, 3, 5, 7, 8), integers.breadthFirst());
+    }
+
+    private static void testAddDuplicate() {
+        testName = TEST_CLASS_NAME + ".testAddDuplicate()";
+        ArrayRedBlackTree<Integer> integers = new ArrayRedBlackTree<>();
+        integers.add(1);
+        integers.add(2);
+        integers.add(3);
+        assertEquals(testName + " - duplicate", false, integers.add(2));
+        assertEquals(testName + " - size", 3, integers.size());
+        try {
+            integers.add(null);
+            Assert.fail(FAILED);
+        } catch (IllegalArgumentException e) {
+            assertEquals(testName + " - null", "cannot add null to search tree", e.getMessage());
+        }
+    }
+
+    private static void testRemove() {
+        testName = TEST_CLASS_NAME + ".testRemove()";
+        ArrayRedBlackTreeImpl<Integer> integers = new ArrayRedBlackTreeImpl<>();
+        assertEquals(testName + " remove red", null, integers.remove(99));
+        for (int i = 1; i <= 8; i++) {
+            integers.add(i);
+        }
+        integers.remove(8);
+        assertEquals(testName + " black with one red child", asList(4, 2, 6, 1, 3, 5, 7), integers.breadthFirst());
+        integers.remove(4);
+        assertEquals(testName + " root", asList(5, 2, 6, 1, 3, 7), integers.breadthFirst());
+        integers.remove(1);
+        assertEquals(testName + " case 4", asList(5, 2, 6, 3, 7), integers.breadthFirst());
+        integers.remove(3);
+        integers.add(8);
+        integers.add(9);
+        integers.remove(9);
+        assertEquals(testName + " case 2", asList(5, 2, 7, 6, 8), integers.breadthFirst());
+        integers.add(9);
+        integers.remove(6);
+        assertEquals(testName + " case 6", asList(5, 2, 8, 7, 9), integers.breadthFirst());
+        integers.remove(9);
+        assertEquals(testName + " case 5", asList(5, 2, 8, 7), integers.breadthFirst());
+        integers.remove(7);
+        integers.remove(2);
+        assertEquals(testName + " case 3", asList(5, 8), integers.breadthFirst());
+    }
+
+    private static void testSlotReuse() {
+        testName = TEST_CLASS_NAME + ".testSlotReuse()";
+        ArrayRedBlackTreeImpl<Integer> integers = new ArrayRedBlackTreeImpl<>();
+        integers.add(1);
+        integers.add(2);
+        integers.add(3);
+        int slot = integers.slot(3);
+        integers.remove(3);
+        integers.add(4);
+        assertEquals(testName, slot, integers.slot(4));
+    }
+
+    private static void testRandomOperations() {
+        testName = TEST_CLASS_NAME + ".testRandomOperations()";
+        Random random = new Random(42);
+        ArrayRedBlackTreeImpl<Integer> integers = new ArrayRedBlackTreeImpl<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        boolean valid = true;
+        for (int i = 0; i < 20_000; i++) {
+            Integer value = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                valid &= Objects.equals(expected.remove(value) ? value : null, integers.remove(value));
+            } else {
+                valid &= expected.add(value) == integers.add(value);
+            }
+            if (i % 100 == 0) {
+                valid &= integers.isRedBlack();
+            }
+        }
+        assertEquals(testName + " - results and red-black properties", true, valid && integers.isRedBlack());
+        assertEquals(testName + " - size", expected.size(), integers.size());
+        List<Integer> elements = new ArrayList<>();
+        integers.forEach(elements::add);
+        assertEquals(testName + " - elements", new ArrayList<>(expected), elements);
+        assertEquals(testName + " - first", expected.first(), integers.first());
+        assertEquals(testName + " - last", expected.last(), integers.last());
+    }
+
+    /**
+     * testing implementation of {@link ArrayRedBlackTree} exposing its structure
+     *
+     * @param <E>
+     */
+    private static class ArrayRedBlackTreeImpl<E> extends ArrayRedBlackTree<E> {
+        List<E> breadthFirst() {
+            List<E> elements = new ArrayList<>();
+            Queue<Integer> queue = new ArrayDeque<>();
+            if (root() != NIL) {
+                queue.offer(root());
+            }
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                elements.add(element(node));
+                if (left(node) != NIL) {
+                    queue.offer(left(node));
+                }
+                if (right(node) != NIL) {
+                    queue.offer(right(node));
+                }
+            }
+            return elements;
+        }
+
+        int slot(E val) {
+            return find(val);
+        }
+
+        boolean isRedBlack() {
+            return root() == NIL || isBlack(root()) && blackHeight(root()) > 0;
+        }
+
+        private int blackHeight(int node) {
+            if (node == NIL) {
+                return 1;
+            }
+            int left = left(node);
+            int right = right(node);
+            if (left != NIL && parent(left) != node || right != NIL && parent(right) != node) {
+                return -1;
+            }
+            if (!isBlack(node) && (left != NIL && !isBlack(left) || right != NIL && !isBlack(right))) {
+                return -1;
+            }
+            int leftHeight = blackHeight(left);
+            if (leftHeight < 0 || leftHeight != blackHeight(right)) {
+                return -1;
+            }
+            return isBlack(node) ? leftHeight + 1 : leftHeight;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package ru.spbstu.redblacktree.tree;
+
+import ru.spbstu.redblacktree.tree.binarytree.search.BinarySearchTreeSet;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTree;
+import ru.spbstu.redblacktree.tree.utils.Assert;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static java.util.Arrays.asList;
+import static ru.spbstu.redblacktree.tree.utils.Assert.assertEquals;
+
+/**
+ * provides tests for {@link BinarySearchTreeSet}
+ */
+public class BinarySearchTreeSetTest {
+    private static final String TEST_CLASS_NAME = "BinarySearchTreeSetTest";
+    private static final String EXCEPTION_STR = " (exception)";
+    private static final String FAILED = "failed";
+    private static String testName;
+
+    public static void main(String[] args) {
+        testViews();
+        testWriteThrough();
+        testOutOfRange();
+        testRandomNavigation();
+    }
+
+    private static void testViews() {
+        testName = TEST_CLASS_NAME + ".testViews()";
+        NavigableSet<Integer> set = tree(10, 20, 30, 40, 50, 60).asNavigableSet();
+        assertEquals(testName + " - headSet", asList(10, 20, 30), new ArrayList<>(set.headSet(30, true)));
+        assertEquals(testName + " - tailSet", asList(40, 50, 60), new ArrayList<>(set.tailSet(30, false)));
+        assertEquals(testName + " - subSet", asList(20, 30), new ArrayList<>(set.subSet(15, 40)));
+        assertEquals(testName + " - descendingSet", asList(60, 50, 40, 30, 20, 10),
+                new ArrayList<>(set.descendingSet()));
+        NavigableSet<Integer> descending = set.descendingSet().subSet(50, true, 20, false);
+        assertEquals(testName + " - descending subSet", asList(50, 40, 30), new ArrayList<>(descending));
+        assertEquals(testName + " - descending first", 50, descending.first());
+        assertEquals(testName + " - descending higher", 30, descending.higher(40));
+        assertEquals(testName + " - descending headSet", asList(50, 40), new ArrayList<>(descending.headSet(30)));
+        assertEquals(testName + " - size", 3, descending.size());
+        assertEquals(testName + " - contains", false, descending.contains(20));
+    }
+
+    private static void testWriteThrough() {
+        testName = TEST_CLASS_NAME + ".testWriteThrough()";
+        RedBlackTree<Integer> tree = tree(10, 20, 30, 40, 50, 60);
+        NavigableSet<Integer> view = tree.subSet(20, true, 50, true);
+        assertEquals(testName + " - add", true, view.add(25));
+        assertEquals(testName + " - add duplicate", false, view.add(25));
+        assertEquals(testName + " - remove", true, view.remove(30));
+        assertEquals(testName + " - remove out of range", false, view.remove(60));
+        assertEquals(testName + " - pollFirst", 20, view.pollFirst());
+        for (Iterator<Integer> iterator = view.iterator(); iterator.hasNext(); ) {
+            if (iterator.next() == 40) {
+                iterator.remove();
+            }
+        }
+        assertEquals(testName + " - tree", asList(10, 25, 50, 60), new ArrayList<>(tree.asNavigableSet()));
+        view.clear();
+        assertEquals(testName + " - clear", asList(10, 60), new ArrayList<>(tree.asNavigableSet()));
+        assertEquals(testName + " - red-black", true, RedBlackTreeTest.isRedBlack(tree));
+    }
+
+    private static void testOutOfRange() {
+        testName = TEST_CLASS_NAME + ".testOutOfRange()";
+        NavigableSet<Integer> view = tree(10, 20, 30).headSet(20, false);
+        try {
+            view.add(25);
+            Assert.fail(FAILED);
+        } catch (IllegalArgumentException e) {
+            assertEquals(testName + EXCEPTION_STR, "element out of range", e.getMessage());
+        }
+        try {
+            view.tailSet(25, true);
+            Assert.fail(FAILED);
+        } catch (IllegalArgumentException e) {
+            assertEquals(testName + EXCEPTION_STR, "element out of range", e.getMessage());
+        }
+        assertEquals(testName + " - excluded bound kept", 0, view.tailSet(20, false).size());
+        try {
+            view.tailSet(20, true);
+            Assert.fail(FAILED);
+        } catch (IllegalArgumentException e) {
+            assertEquals(testName + EXCEPTION_STR, "element out of range", e.getMessage());
+        }
+    }
+
+    private static void testRandomNavigation() {
+        testName = TEST_CLASS_NAME + ".testRandomNavigation()";
+        Random random = new Random(5);
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 2_000; i++) {
+            int value = random.nextInt(5_000);
+            tree.add(value);
+            expected.add(value);
+        }
+        boolean valid = true;
+        for (int i = 0; i < 500; i++) {
+            int from = random.nextInt(5_000);
+            int to = from + random.nextInt(1_000);
+            boolean fromInclusive = random.nextBoolean();
+            boolean toInclusive = random.nextBoolean();
+            NavigableSet<Integer> actualView = tree.subSet(from, fromInclusive, to, toInclusive);
+            NavigableSet<Integer> expectedView = expected.subSet(from, fromInclusive, to, toInclusive);
+            if (random.nextBoolean()) {
+                actualView = actualView.descendingSet();
+                expectedView = expectedView.descendingSet();
+            }
+            int probe = random.nextInt(6_000) - 500;
+            valid &= new ArrayList<>(expectedView).equals(new ArrayList<>(actualView));
+            valid &= expectedView.size() == actualView.size();
+            valid &= Objects.equals(expectedView.floor(probe), actualView.floor(probe));
+            valid &= Objects.equals(expectedView.ceiling(probe), actualView.ceiling(probe));
+            valid &= Objects.equals(expectedView.higher(probe), actualView.higher(probe));
+            valid &= Objects.equals(expectedView.lower(probe), actualView.lower(probe));
+            valid &= Objects.equals(expectedView.pollFirst(), actualView.pollFirst());
+            valid &= Objects.equals(expectedView.pollLast(), actualView.pollLast());
+        }
+        assertEquals(testName, true, valid && new ArrayList<>(expected).equals(new ArrayList<>(tree.asNavigableSet())));
+    }
+
+    private static RedBlackTree<Integer> tree(Integer... elements) {
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        for (Integer element : elements) {
+            tree.add(element);
+        }
+        return tree;
+    }
+}
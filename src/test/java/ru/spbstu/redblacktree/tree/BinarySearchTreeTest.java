@@ -1,9 +1,17 @@
 package ru.spbstu.redblacktree.tree;
 
 import ru.spbstu.redblacktree.tree.binarytree.search.BinarySearchTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTree;
 import ru.spbstu.redblacktree.tree.utils.Assert;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
@@ -22,6 +30,38 @@ public class BinarySearchTreeTest {
         testAdd();
         testRemove();
         testSearch();
+        testSearchComparisons();
+        testDegenerateTree();
+        testSpliterator();
+        testNavigation();
+    }
+
+    private static void testNavigation() {
+        testName = TEST_CLASS_NAME + ".testNavigation()";
+        BinarySearchTree<Integer> integers = new BinarySearchTree<>();
+        for (int i : asList(50, 20, 80, 10, 30, 70, 90)) {
+            integers.add(i);
+        }
+        assertEquals(testName + " - floor", 30, integers.floor(35));
+        assertEquals(testName + " - floor of present", 30, integers.floor(30));
+        assertEquals(testName + " - ceiling", 50, integers.ceiling(35));
+        assertEquals(testName + " - higher", 50, integers.higher(30));
+        assertEquals(testName + " - lower", 20, integers.lower(30));
+        assertEquals(testName + " - lower than all", null, integers.lower(10));
+        assertEquals(testName + " - higher than all", null, integers.higher(90));
+        assertEquals(testName + " - first", 10, integers.first());
+        assertEquals(testName + " - last", 90, integers.last());
+        List<Integer> descending = new ArrayList<>();
+        integers.descendingIterator().forEachRemaining(descending::add);
+        assertEquals(testName + " - descending", asList(90, 80, 70, 50, 30, 20, 10), descending);
+        assertEquals(testName + " - subSet", asList(30, 50, 70), new ArrayList<>(integers.subSet(20, false, 70,
+                true)));
+        try {
+            new BinarySearchTree<Integer>().first();
+            Assert.fail(FAILED);
+        } catch (NoSuchElementException e) {
+            assertEquals(testName + " (exception)", null, e.getMessage());
+        }
     }
 
     private static void testAdd() {
@@ -91,6 +131,75 @@ public class BinarySearchTreeTest {
         Assert.assertEquals(testName, null, personTree.search("Jack"));
     }
 
+    private static void testSearchComparisons() {
+        testName = TEST_CLASS_NAME + ".testSearchComparisons()";
+        int[] comparisons = new int[1];
+        BinarySearchTree<Integer> integers = new BinarySearchTree<>((i1, i2) -> {
+            comparisons[0]++;
+            return Integer.compare(i1, i2);
+        });
+        integers.add(6);
+        integers.add(5);
+        integers.add(9);
+        integers.add(3);
+        integers.add(4);
+        comparisons[0] = 0;
+        Assert.assertEquals(testName + " - found", 4, integers.search(4));
+        Assert.assertEquals(testName + " - one comparison per level", 4, comparisons[0]);
+        comparisons[0] = 0;
+        Assert.assertEquals(testName + " - not found", null, integers.search(10));
+        Assert.assertEquals(testName + " - one comparison per level", 2, comparisons[0]);
+        comparisons[0] = 0;
+        integers.add(7);
+        Assert.assertEquals(testName + " - add", 2, comparisons[0]);
+    }
+
+    private static void testDegenerateTree() {
+        testName = TEST_CLASS_NAME + ".testDegenerateTree()";
+        int size = 100_000;
+        BinarySearchTree<Integer> integers = new BinarySearchTree<>();
+        Node<Integer> last = integers.add(0);
+        for (int i = 1; i < size; i++) {
+            last = integers.add(last, i);
+        }
+        Assert.assertEquals(testName + " - search", size - 1, integers.search(size - 1));
+        Assert.assertEquals(testName + " - add", size, integers.add(size).getElement());
+        Assert.assertEquals(testName + " - remove", size, integers.remove(Integer.valueOf(size)));
+        Assert.assertEquals(testName + " - remove root", 0, integers.remove(Integer.valueOf(0)));
+        Assert.assertEquals(testName + " - size", size - 1, integers.size());
+    }
+
+    private static void testSpliterator() {
+        testName = TEST_CLASS_NAME + ".testSpliterator()";
+        BinarySearchTree<Integer> integers = new RedBlackTree<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            expected.add(i);
+        }
+        List<Integer> shuffled = new ArrayList<>(expected);
+        Collections.shuffle(shuffled, new Random(7));
+        shuffled.forEach(integers::add);
+
+        Spliterator<Integer> spliterator = integers.spliterator();
+        Assert.assertEquals(testName + " - characteristics", true, spliterator.hasCharacteristics(Spliterator.SORTED |
+                Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.SIZED));
+        Assert.assertEquals(testName + " - size", 1000L, spliterator.getExactSizeIfKnown());
+        Assert.assertEquals(testName + " - comparator", null, spliterator.getComparator());
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        List<Integer> elements = new ArrayList<>();
+        prefix.forEachRemaining(elements::add);
+        spliterator.forEachRemaining(elements::add);
+        Assert.assertEquals(testName + " - split", expected, elements);
+        Assert.assertEquals(testName + " - not sized after split", -1L, prefix.getExactSizeIfKnown());
+
+        Assert.assertEquals(testName + " - stream", expected, integers.stream().collect(Collectors.toList()));
+        Assert.assertEquals(testName + " - parallel stream", expected, integers.parallelStream()
+                .collect(Collectors.toList()));
+        Assert.assertEquals(testName + " - parallel sum", 499_500L, integers.parallelStream()
+                .mapToLong(Integer::longValue).sum());
+        Assert.assertEquals(testName + " - empty", 0L, new BinarySearchTree<Integer>().parallelStream().count());
+    }
+
     /**
      * creates new {@link BinarySearchTree} with some elements for tests
      *
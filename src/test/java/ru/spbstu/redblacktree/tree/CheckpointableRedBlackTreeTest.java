@@ -0,0 +1,246 @@
+package ru.spbstu.redblacktree.tree;
+
+import ru.spbstu.redblacktree.storage.CheckpointStore;
+import ru.spbstu.redblacktree.storage.ElementCodec;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.CheckpointableRedBlackTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.CheckpointableRedBlackTree.DirtyRange;
+import ru.spbstu.redblacktree.tree.utils.Assert;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static ru.spbstu.redblacktree.tree.utils.Assert.assertEquals;
+
+/**
+ * provides tests for {@link CheckpointableRedBlackTree} and {@link CheckpointStore}
+ */
+public class CheckpointableRedBlackTreeTest {
+    private static final String TEST_CLASS_NAME = "CheckpointableRedBlackTreeTest";
+    private static final String FAILED = "failed";
+    private static String testName;
+
+    public static void main(String[] args) throws IOException {
+        testDirtyRanges();
+        testEdges();
+        testCheckpoint();
+        testFullCheckpoint();
+        testDamagedDelta();
+    }
+
+    private static void testDirtyRanges() {
+        testName = TEST_CLASS_NAME + ".testDirtyRanges()";
+        Random random = new Random(23);
+        CheckpointableRedBlackTree<Integer> tree = new CheckpointableRedBlackTree<>();
+        for (int i = 0; i < 2_000; i++) {
+            tree.add(random.nextInt(10_000));
+        }
+        tree.markClean();
+        assertEquals(testName + " - clean", false, tree.isDirty());
+        TreeSet<Integer> copy = new TreeSet<>(tree.asNavigableSet());
+        boolean matches = true;
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 50; i++) {
+                int val = random.nextInt(10_000);
+                if (random.nextBoolean()) {
+                    tree.add(val);
+                } else {
+                    tree.remove(val);
+                }
+            }
+            List<DirtyRange<Integer>> ranges = tree.dirtyRanges();
+            int written = 0;
+            for (DirtyRange<Integer> range : ranges) {
+                apply(copy, range);
+                written += range.getElements().size();
+            }
+            matches &= copy.equals(new TreeSet<>(tree.asNavigableSet()));
+            matches &= written <= 3 * 50;
+            tree.markClean();
+        }
+        assertEquals(testName + " - copy follows the tree", true, matches);
+        assertEquals(testName + " - balanced", true, RedBlackTreeTest.isRedBlack(tree));
+        assertEquals(testName + " - no ranges after markClean()", 0, tree.dirtyRanges().size());
+    }
+
+    private static void testEdges() {
+        testName = TEST_CLASS_NAME + ".testEdges()";
+        CheckpointableRedBlackTree<String> tree = new CheckpointableRedBlackTree<>(Comparator.reverseOrder());
+        for (String s : Arrays.asList("a", "b", "c", "d", "e")) {
+            tree.add(s);
+        }
+        tree.markClean();
+        tree.remove("e");
+        tree.remove("a");
+        List<DirtyRange<String>> ranges = tree.dirtyRanges();
+        assertEquals(testName + " - ranges", 2, ranges.size());
+        assertEquals(testName + " - unbounded first", null, ranges.get(0).getLow());
+        assertEquals(testName + " - first", "d", ranges.get(0).getHigh());
+        assertEquals(testName + " - last", "b", ranges.get(1).getLow());
+        assertEquals(testName + " - unbounded last", null, ranges.get(1).getHigh());
+        tree.markClean();
+        for (String s : Arrays.asList("b", "c", "d")) {
+            tree.remove(s);
+        }
+        ranges = tree.dirtyRanges();
+        assertEquals(testName + " - empty tree", 1, ranges.size());
+        assertEquals(testName + " - empty tree bounds", Arrays.asList(null, null),
+                Arrays.asList(ranges.get(0).getLow(), ranges.get(0).getHigh()));
+        tree.markClean();
+        tree.loadSorted(Arrays.asList("z", "y").iterator(), 2);
+        assertEquals(testName + " - rewritten by loadSorted()", true, tree.isRewritten());
+        tree.markClean();
+        tree.clear();
+        assertEquals(testName + " - rewritten by clear()", true, tree.isRewritten());
+    }
+
+    private static void testCheckpoint() throws IOException {
+        testName = TEST_CLASS_NAME + ".testCheckpoint()";
+        Path directory = Files.createTempDirectory("checkpoints");
+        try {
+            CheckpointStore<Integer> store = CheckpointStore.open(directory, ElementCodec.INTEGER);
+            CheckpointableRedBlackTree<Integer> tree = new CheckpointableRedBlackTree<>();
+            for (int i = 0; i < 100_000; i++) {
+                tree.add(i * 2);
+            }
+            assertEquals(testName + " - base", 100_000, store.checkpoint(tree));
+            assertEquals(testName + " - nothing changed", 0, store.checkpoint(tree));
+            Random random = new Random(5);
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < 100; i++) {
+                    int val = random.nextInt(200_000);
+                    if (random.nextBoolean()) {
+                        tree.add(val);
+                    } else {
+                        tree.remove(val);
+                    }
+                }
+                int written = store.checkpoint(tree);
+                assertEquals(testName + " - delta is proportional to churn", true, written <= 3 * 100);
+            }
+            assertEquals(testName + " - deltas", 5, store.deltaCount());
+
+            CheckpointStore<Integer> reopened = CheckpointStore.open(directory, ElementCodec.INTEGER);
+            CheckpointableRedBlackTree<Integer> restored = new CheckpointableRedBlackTree<>();
+            assertEquals(testName + " - restored", true, reopened.restore(restored));
+            assertEquals(testName + " - elements", new ArrayList<>(tree.asNavigableSet()),
+                    new ArrayList<>(restored.asNavigableSet()));
+            assertEquals(testName + " - restored tree is clean", false, restored.isDirty());
+            assertEquals(testName + " - balanced", true, RedBlackTreeTest.isRedBlack(restored));
+
+            restored.remove(restored.first());
+            reopened.checkpoint(restored);
+            CheckpointableRedBlackTree<Integer> again = new CheckpointableRedBlackTree<>();
+            CheckpointStore.open(directory, ElementCodec.INTEGER).restore(again);
+            assertEquals(testName + " - checkpoint of restored tree", new ArrayList<>(restored.asNavigableSet()),
+                    new ArrayList<>(again.asNavigableSet()));
+
+            CheckpointStore<Integer> empty = CheckpointStore.open(directory.resolve("empty"), ElementCodec.INTEGER);
+            assertEquals(testName + " - no checkpoint", false, empty.restore(new CheckpointableRedBlackTree<>()));
+            try {
+                CheckpointStore.open(directory, ElementCodec.INTEGER, 0);
+                Assert.fail(FAILED);
+            } catch (IllegalArgumentException e) {
+                assertEquals(testName + " (exception)", "max deltas must be positive", e.getMessage());
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static void testFullCheckpoint() throws IOException {
+        testName = TEST_CLASS_NAME + ".testFullCheckpoint()";
+        Path directory = Files.createTempDirectory("checkpoints");
+        try {
+            CheckpointStore<String> store = CheckpointStore.open(directory, ElementCodec.STRING, 2);
+            CheckpointableRedBlackTree<String> tree = new CheckpointableRedBlackTree<>();
+            tree.add("кефир");
+            store.checkpoint(tree);
+            tree.add("apple");
+            store.checkpoint(tree);
+            tree.remove("кефир");
+            store.checkpoint(tree);
+            assertEquals(testName + " - deltas", 2, store.deltaCount());
+            tree.add("🍒 cherry");
+            assertEquals(testName + " - full snapshot after max deltas", 2, store.checkpoint(tree));
+            assertEquals(testName + " - deltas after full snapshot", 0, store.deltaCount());
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(testName + " - old files are deleted", 2L, files.count());
+            }
+            CheckpointableRedBlackTree<String> other = new CheckpointableRedBlackTree<>();
+            other.add("banana");
+            tree.union(other);
+            assertEquals(testName + " - rewritten tree", 3, store.checkpoint(tree));
+            assertEquals(testName + " - deltas after rewrite", 0, store.deltaCount());
+            CheckpointableRedBlackTree<String> restored = new CheckpointableRedBlackTree<>();
+            store.restore(restored);
+            assertEquals(testName, "[apple, banana, 🍒 cherry]", restored.asNavigableSet().toString());
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static void testDamagedDelta() throws IOException {
+        testName = TEST_CLASS_NAME + ".testDamagedDelta()";
+        Path directory = Files.createTempDirectory("checkpoints");
+        try {
+            CheckpointStore<Long> store = CheckpointStore.open(directory, ElementCodec.LONG);
+            CheckpointableRedBlackTree<Long> tree = new CheckpointableRedBlackTree<>();
+            for (long i = 0; i < 100; i++) {
+                tree.add(i);
+            }
+            store.checkpoint(tree);
+            tree.add(1_000L);
+            store.checkpoint(tree);
+            Path delta;
+            try (Stream<Path> files = Files.list(directory)) {
+                delta = files.filter(file -> file.toString().endsWith(".delta")).findFirst().orElse(null);
+            }
+            try (RandomAccessFile raw = new RandomAccessFile(delta.toFile(), "rw")) {
+                raw.seek(raw.length() - 6);
+                raw.write(0x7f);
+            }
+            CheckpointableRedBlackTree<Long> restored = new CheckpointableRedBlackTree<>();
+            try {
+                CheckpointStore.open(directory, ElementCodec.LONG).restore(restored);
+                Assert.fail(FAILED);
+            } catch (IOException e) {
+                assertEquals(testName + " (exception)", "delta is damaged: checksum mismatch", e.getMessage());
+            }
+            assertEquals(testName + " - tree stays empty", 0, restored.size());
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static <E> void apply(TreeSet<E> copy, DirtyRange<E> range) {
+        if (range.getLow() == null && range.getHigh() == null) {
+            copy.clear();
+        } else if (range.getLow() == null) {
+            copy.headSet(range.getHigh(), true).clear();
+        } else if (range.getHigh() == null) {
+            copy.tailSet(range.getLow(), true).clear();
+        } else {
+            copy.subSet(range.getLow(), true, range.getHigh(), true).clear();
+        }
+        copy.addAll(range.getElements());
+    }
+
+    private static void delete(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(directory)) {
+            walk.forEach(files::add);
+        }
+        for (int i = files.size() - 1; i >= 0; i--) {
+            Files.delete(files.get(i));
+        }
+    }
+}
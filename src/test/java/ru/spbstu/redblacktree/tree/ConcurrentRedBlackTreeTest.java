@@ -0,0 +1,133 @@
+package ru.spbstu.redblacktree.tree;
+
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.ConcurrentRedBlackTree;
+import ru.spbstu.redblacktree.tree.utils.Assert;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Arrays.asList;
+import static ru.spbstu.redblacktree.tree.utils.Assert.assertEquals;
+
+/**
+ * provides tests for {@link ConcurrentRedBlackTree}
+ */
+public class ConcurrentRedBlackTreeTest {
+    private static final String TEST_CLASS_NAME = "ConcurrentRedBlackTreeTest";
+    private static final String FAILED = "failed";
+    private static String testName;
+
+    public static void main(String[] args) throws InterruptedException {
+        testNavigation();
+        testIterator();
+        testConcurrentAccess();
+    }
+
+    private static void testNavigation() {
+        testName = TEST_CLASS_NAME + ".testNavigation()";
+        ConcurrentRedBlackTree<Integer> integers = new ConcurrentRedBlackTree<>();
+        for (int i : asList(50, 20, 80, 10, 30)) {
+            integers.add(i);
+        }
+        assertEquals(testName + " - add duplicate", false, integers.add(30));
+        assertEquals(testName + " - contains", true, integers.contains(20));
+        assertEquals(testName + " - search absent", null, integers.search(25));
+        assertEquals(testName + " - floor", 20, integers.floor(25));
+        assertEquals(testName + " - ceiling", 30, integers.ceiling(25));
+        assertEquals(testName + " - higher", 50, integers.higher(30));
+        assertEquals(testName + " - lower", 20, integers.lower(30));
+        assertEquals(testName + " - first", 10, integers.first());
+        assertEquals(testName + " - last", 80, integers.last());
+        assertEquals(testName + " - remove", true, integers.remove(50));
+        assertEquals(testName + " - remove absent", false, integers.remove(50));
+        assertEquals(testName + " - size", 4, integers.size());
+        integers.clear();
+        try {
+            integers.first();
+            Assert.fail(FAILED);
+        } catch (NoSuchElementException e) {
+            assertEquals(testName + " (exception)", true, integers.isEmpty());
+        }
+    }
+
+    private static void testIterator() {
+        testName = TEST_CLASS_NAME + ".testIterator()";
+        ConcurrentRedBlackTree<Integer> integers = new ConcurrentRedBlackTree<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            integers.add(i);
+            if (i % 2 == 1) {
+                expected.add(i);
+            }
+        }
+        List<Integer> actual = new ArrayList<>();
+        for (Iterator<Integer> iterator = integers.iterator(); iterator.hasNext(); ) {
+            int element = iterator.next();
+            if (element % 2 == 0) {
+                iterator.remove();
+            } else {
+                actual.add(element);
+            }
+            if (element == 100) {
+                integers.add(1_001);
+            }
+        }
+        expected.add(1_001);
+        assertEquals(testName + " - chunks and removal", expected, actual);
+        assertEquals(testName + " - size", 101, integers.size());
+    }
+
+    private static void testConcurrentAccess() throws InterruptedException {
+        testName = TEST_CLASS_NAME + ".testConcurrentAccess()";
+        ConcurrentRedBlackTree<Integer> integers = new ConcurrentRedBlackTree<>();
+        for (int i = 0; i < 10_000; i += 2) {
+            integers.add(i);
+        }
+        AtomicBoolean valid = new AtomicBoolean(true);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            int writer = t;
+            threads.add(new Thread(() -> {
+                for (int round = 0; round < 5; round++) {
+                    for (int i = 1 + writer * 2; i < 10_000; i += 4) {
+                        integers.add(i);
+                    }
+                    for (int i = 1 + writer * 2; i < 10_000; i += 4) {
+                        integers.remove(i);
+                    }
+                }
+            }));
+        }
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    int value = (i * 31) % 10_000;
+                    //even elements are never removed, so every read must find them
+                    Integer floor = integers.floor(value);
+                    if (!integers.contains(value - value % 2) || floor == null || floor > value
+                            || floor < value - value % 2) {
+                        valid.set(false);
+                    }
+                }
+                Integer previous = null;
+                for (Integer element : integers) {
+                    if (previous != null && previous >= element) {
+                        valid.set(false);
+                    }
+                    previous = element;
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(testName + " - reads during writes", true, valid.get());
+        assertEquals(testName + " - size", 5_000, integers.size());
+    }
+}
@@ -0,0 +1,114 @@
+package ru.spbstu.redblacktree.tree;
+
+import ru.spbstu.redblacktree.storage.DurableRedBlackTree;
+import ru.spbstu.redblacktree.storage.ElementCodec;
+import ru.spbstu.redblacktree.storage.GroupCommit;
+import ru.spbstu.redblacktree.tree.utils.Assert;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static ru.spbstu.redblacktree.tree.utils.Assert.assertEquals;
+
+/**
+ * provides tests for {@link DurableRedBlackTree}
+ */
+public class DurableRedBlackTreeTest {
+    private static final String TEST_CLASS_NAME = "DurableRedBlackTreeTest";
+    private static final String FAILED = "failed";
+    private static String testName;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        testRestore();
+        testConcurrentWriters();
+        testGroupCommitSettings();
+    }
+
+    private static void testRestore() throws IOException {
+        testName = TEST_CLASS_NAME + ".testRestore()";
+        Path file = Files.createTempFile("durable", ".log");
+        try {
+            try (DurableRedBlackTree<Integer> integers = DurableRedBlackTree.open(file, ElementCodec.INTEGER,
+                    GroupCommit.DEFAULT)) {
+                assertEquals(testName + " - add", true, integers.add(5));
+                assertEquals(testName + " - add duplicate", false, integers.add(5));
+                integers.add(3);
+                integers.add(8);
+                assertEquals(testName + " - remove", true, integers.remove(3));
+                assertEquals(testName + " - remove absent", false, integers.remove(3));
+            }
+            try (DurableRedBlackTree<Integer> integers = DurableRedBlackTree.open(file, ElementCodec.INTEGER,
+                    GroupCommit.DEFAULT)) {
+                assertEquals(testName + " - restored", "[5, 8]", integers.toString());
+                try {
+                    integers.add(null);
+                    Assert.fail(FAILED);
+                } catch (IllegalArgumentException e) {
+                    assertEquals(testName + " (exception)", 2, integers.size());
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void testConcurrentWriters() throws IOException, InterruptedException {
+        testName = TEST_CLASS_NAME + ".testConcurrentWriters()";
+        Path file = Files.createTempFile("durable", ".log");
+        try {
+            try (DurableRedBlackTree<Integer> integers = DurableRedBlackTree.open(file, ElementCodec.INTEGER,
+                    new GroupCommit(8, 2, TimeUnit.MILLISECONDS))) {
+                List<Thread> threads = new ArrayList<>();
+                for (int t = 0; t < 8; t++) {
+                    int writer = t;
+                    threads.add(new Thread(() -> {
+                        try {
+                            for (int i = writer; i < 800; i += 8) {
+                                integers.add(i);
+                            }
+                            for (int i = writer; i < 800; i += 16) {
+                                integers.remove(i);
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+                }
+                for (Thread thread : threads) {
+                    thread.start();
+                }
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                assertEquals(testName + " - size", 400, integers.size());
+            }
+            try (DurableRedBlackTree<Integer> integers = DurableRedBlackTree.open(file, ElementCodec.INTEGER,
+                    GroupCommit.DEFAULT)) {
+                boolean valid = integers.size() == 400;
+                for (int i = 0; i < 800; i++) {
+                    valid &= integers.contains(i) == (i % 16 >= 8);
+                }
+                assertEquals(testName + " - restored", true, valid);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void testGroupCommitSettings() {
+        testName = TEST_CLASS_NAME + ".testGroupCommitSettings()";
+        try {
+            new GroupCommit(0, 1, TimeUnit.MILLISECONDS);
+            Assert.fail(FAILED);
+        } catch (IllegalArgumentException e) {
+            assertEquals(testName + " (exception)", "batch size must be positive", e.getMessage());
+        }
+        assertEquals(testName + " - delay", 2_000_000L,
+                new GroupCommit(1, 2, TimeUnit.MILLISECONDS).getMaxDelayNanos());
+    }
+}
@@ -0,0 +1,118 @@
+package ru.spbstu.redblacktree.tree;
+
+import ru.spbstu.redblacktree.tree.binarytree.search.BinarySearchTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.FlatCombiningRedBlackTree;
+import ru.spbstu.redblacktree.tree.utils.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static java.util.Arrays.asList;
+import static ru.spbstu.redblacktree.tree.utils.Assert.assertEquals;
+
+/**
+ * provides tests for {@link FlatCombiningRedBlackTree}
+ */
+public class FlatCombiningRedBlackTreeTest {
+    private static final String TEST_CLASS_NAME = "FlatCombiningRedBlackTreeTest";
+    private static final String FAILED = "failed";
+    private static String testName;
+
+    public static void main(String[] args) throws InterruptedException {
+        testSingleThread();
+        testFailure();
+        testContendedUpdates();
+    }
+
+    private static void testSingleThread() {
+        testName = TEST_CLASS_NAME + ".testSingleThread()";
+        FlatCombiningRedBlackTree<Integer> integers = new FlatCombiningRedBlackTree<>();
+        for (int i : asList(50, 20, 80, 10, 30)) {
+            integers.add(i);
+        }
+        assertEquals(testName + " - add duplicate", false, integers.add(30));
+        assertEquals(testName + " - contains", true, integers.contains(20));
+        assertEquals(testName + " - search absent", null, integers.search(25));
+        assertEquals(testName + " - remove", true, integers.remove(50));
+        assertEquals(testName + " - remove absent", false, integers.remove(50));
+        assertEquals(testName + " - toString", "[10, 20, 30, 80]", integers.toString());
+        assertEquals(testName + " - size", 4, integers.size());
+    }
+
+    private static void testFailure() {
+        testName = TEST_CLASS_NAME + ".testFailure()";
+        FlatCombiningRedBlackTree<Object> objects = new FlatCombiningRedBlackTree<>();
+        objects.add(1);
+        try {
+            objects.add("one");
+            Assert.fail(FAILED);
+        } catch (ClassCastException e) {
+            assertEquals(testName + " - rethrown to the caller", 1, objects.size());
+        }
+        assertEquals(testName + " - slot reusable", true, objects.add(2));
+        try {
+            objects.add(null);
+            Assert.fail(FAILED);
+        } catch (IllegalArgumentException e) {
+            assertEquals(testName + " (exception)", BinarySearchTree.NULL_NODE_MSG, e.getMessage());
+        }
+
+        FlatCombiningRedBlackTree<Integer> failing = new FlatCombiningRedBlackTree<>((val1, val2) -> {
+            if (val1 < 0 || val2 < 0) {
+                throw new InternalError("negative");
+            }
+            return Integer.compare(val1, val2);
+        });
+        failing.add(1);
+        try {
+            failing.add(-1);
+            Assert.fail(FAILED);
+        } catch (InternalError e) {
+            assertEquals(testName + " - error rethrown to the caller", "negative", e.getMessage());
+        }
+        assertEquals(testName + " - slot reusable after an error", true, failing.add(2));
+        assertEquals(testName + " - batch cleared after an error", "[1, 2]", failing.toString());
+    }
+
+    private static void testContendedUpdates() throws InterruptedException {
+        testName = TEST_CLASS_NAME + ".testContendedUpdates()";
+        FlatCombiningRedBlackTree<Integer> integers = new FlatCombiningRedBlackTree<>();
+        AtomicInteger added = new AtomicInteger();
+        AtomicInteger removed = new AtomicInteger();
+        //neighbouring writers share half of their elements
+        runWriters(writer -> {
+            for (int i = writer * 1_000; i < writer * 1_000 + 2_000; i++) {
+                if (integers.add(i)) {
+                    added.incrementAndGet();
+                }
+            }
+        });
+        runWriters(writer -> {
+            for (int i = writer * 1_000; i < writer * 1_000 + 2_000; i += 2) {
+                if (integers.remove(i)) {
+                    removed.incrementAndGet();
+                }
+            }
+        });
+        assertEquals(testName + " - each element added once", 9_000, added.get());
+        assertEquals(testName + " - each element removed once", 4_500, removed.get());
+        assertEquals(testName + " - size", 4_500, integers.size());
+        assertEquals(testName + " - odd elements remain", true, integers.contains(8_999) && !integers.contains(0));
+    }
+
+    private static void runWriters(IntConsumer writer) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int index = t;
+            threads.add(new Thread(() -> writer.accept(index)));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
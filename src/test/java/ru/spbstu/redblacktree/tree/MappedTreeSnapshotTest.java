@@ -0,0 +1,256 @@
+package ru.spbstu.redblacktree.tree;
+
+import ru.spbstu.redblacktree.storage.ElementCodec;
+import ru.spbstu.redblacktree.storage.MappedTreeSnapshot;
+import ru.spbstu.redblacktree.storage.TreeSnapshot;
+import ru.spbstu.redblacktree.tree.binarytree.search.ReadableSearchTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTree;
+import ru.spbstu.redblacktree.tree.utils.Assert;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.UnaryOperator;
+
+import static ru.spbstu.redblacktree.tree.utils.Assert.assertEquals;
+
+/**
+ * provides tests for {@link MappedTreeSnapshot}
+ */
+public class MappedTreeSnapshotTest {
+    private static final String TEST_CLASS_NAME = "MappedTreeSnapshotTest";
+    private static final String FAILED = "failed";
+    private static String testName;
+
+    public static void main(String[] args) throws IOException {
+        testIntegers();
+        testStrings();
+        testViews();
+        testEmpty();
+        testDamaged();
+    }
+
+    private static void testIntegers() throws IOException {
+        testName = TEST_CLASS_NAME + ".testIntegers()";
+        Path file = Files.createTempFile("mapped", ".bin");
+        try {
+            Random random = new Random(22);
+            RedBlackTree<Integer> tree = new RedBlackTree<>();
+            for (int i = 0; i < 5_000; i++) {
+                tree.add(random.nextInt(20_000));
+            }
+            TreeSnapshot.write(tree, ElementCodec.INTEGER, file);
+            MappedTreeSnapshot<Integer> mapped = MappedTreeSnapshot.open(file, ElementCodec.INTEGER);
+            mapped.verify();
+            boolean valid = true;
+            for (int i = 0; i < 2_000; i++) {
+                valid &= sameAnswers(tree, mapped, random.nextInt(20_100) - 50);
+            }
+            assertEquals(testName + " - point queries", true, valid);
+            assertEquals(testName + " - iteration", toList(tree.iterator()), toList(mapped.iterator()));
+            assertEquals(testName + " - descending iteration", toList(tree.descendingIterator()),
+                    toList(mapped.descendingIterator()));
+            assertEquals(testName + " - size", tree.size(), mapped.size());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void testStrings() throws IOException {
+        testName = TEST_CLASS_NAME + ".testStrings()";
+        Path file = Files.createTempFile("mapped", ".bin");
+        try {
+            Comparator<String> byLength = Comparator.comparingInt(String::length).thenComparing(s -> s);
+            RedBlackTree<String> tree = new RedBlackTree<>(byLength);
+            for (int i = 0; i < 3_000; i++) {
+                tree.add("ключ-" + Integer.toString(i * 37, 36));
+            }
+            TreeSnapshot.write(tree, ElementCodec.STRING, file);
+            MappedTreeSnapshot<String> mapped = MappedTreeSnapshot.open(file, ElementCodec.STRING, byLength);
+            boolean valid = true;
+            for (int i = 0; i < 4_000; i++) {
+                valid &= sameAnswers(tree, mapped, "ключ-" + Integer.toString(i * 29, 36));
+            }
+            assertEquals(testName + " - point queries", true, valid);
+            assertEquals(testName + " - iteration", toList(tree.iterator()), toList(mapped.iterator()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void testViews() throws IOException {
+        testName = TEST_CLASS_NAME + ".testViews()";
+        Path file = Files.createTempFile("mapped", ".bin");
+        try {
+            RedBlackTree<Integer> tree = new RedBlackTree<>();
+            for (int i = 0; i < 100; i += 3) {
+                tree.add(i);
+            }
+            TreeSnapshot.write(tree, ElementCodec.INTEGER, file);
+            ReadableSearchTree<Integer> mapped = MappedTreeSnapshot.open(file, ElementCodec.INTEGER);
+            boolean valid = true;
+            for (int lo = -2; lo < 102; lo += 7) {
+                for (int hi = lo; hi < 102; hi += 5) {
+                    for (int flags = 0; flags < 4; flags++) {
+                        boolean loInclusive = (flags & 1) != 0;
+                        boolean hiInclusive = (flags & 2) != 0;
+                        valid &= sameView(tree.subSet(lo, loInclusive, hi, hiInclusive),
+                                mapped.subSet(lo, loInclusive, hi, hiInclusive), lo, hi);
+                        valid &= sameView(tree.headSet(hi, hiInclusive), mapped.headSet(hi, hiInclusive), lo, hi);
+                        valid &= sameView(tree.tailSet(lo, loInclusive), mapped.tailSet(lo, loInclusive), lo, hi);
+                        NavigableSet<Integer> expected = tree.subSet(lo, loInclusive, hi, hiInclusive)
+                                .descendingSet();
+                        NavigableSet<Integer> actual = mapped.subSet(lo, loInclusive, hi, hiInclusive)
+                                .descendingSet();
+                        valid &= sameView(expected, actual, lo, hi);
+                        //nested views reject bounds outside of the enclosing one as the tree does
+                        for (int bound : new int[]{lo - 1, lo, lo + 1, (lo + hi) / 2, hi - 1, hi, hi + 1}) {
+                            for (boolean inclusive : new boolean[]{false, true}) {
+                                valid &= sameNestedView(expected, actual, view -> view.headSet(bound, inclusive),
+                                        lo, hi);
+                                valid &= sameNestedView(expected, actual, view -> view.tailSet(bound, inclusive),
+                                        lo, hi);
+                                valid &= sameNestedView(expected, actual,
+                                        view -> view.subSet(bound + 1, inclusive, bound, !inclusive), lo, hi);
+                                valid &= sameNestedView(expected.descendingSet(), actual.descendingSet(),
+                                        view -> view.headSet(bound, inclusive), lo, hi);
+                                valid &= sameNestedView(expected.descendingSet(), actual.descendingSet(),
+                                        view -> view.tailSet(bound, inclusive), lo, hi);
+                            }
+                        }
+                    }
+                }
+            }
+            assertEquals(testName + " - navigation in views", true, valid);
+            try {
+                mapped.asNavigableSet().add(1);
+                Assert.fail(FAILED);
+            } catch (UnsupportedOperationException e) {
+                assertEquals(testName + " (exception)", 34, mapped.size());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void testEmpty() throws IOException {
+        testName = TEST_CLASS_NAME + ".testEmpty()";
+        Path file = Files.createTempFile("mapped", ".bin");
+        try {
+            TreeSnapshot.write(new RedBlackTree<String>(), ElementCodec.STRING, file);
+            MappedTreeSnapshot<String> mapped = MappedTreeSnapshot.open(file, ElementCodec.STRING);
+            assertEquals(testName + " - search", null, mapped.search("a"));
+            assertEquals(testName + " - iteration", false, mapped.iterator().hasNext());
+            try {
+                mapped.first();
+                Assert.fail(FAILED);
+            } catch (NoSuchElementException e) {
+                assertEquals(testName + " (exception)", 0, mapped.size());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void testDamaged() throws IOException {
+        testName = TEST_CLASS_NAME + ".testDamaged()";
+        Path file = Files.createTempFile("mapped", ".bin");
+        try {
+            RedBlackTree<Integer> tree = new RedBlackTree<>();
+            for (int i = 0; i < 100; i++) {
+                tree.add(i);
+            }
+            TreeSnapshot.write(tree, ElementCodec.INTEGER, file);
+            try {
+                MappedTreeSnapshot.open(file, ElementCodec.STRING);
+                Assert.fail(FAILED);
+            } catch (IOException e) {
+                assertEquals(testName + " - another codec", "snapshot was written with another codec",
+                        e.getMessage());
+            }
+            try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+                raw.seek(50);
+                raw.write(0x7f);
+            }
+            MappedTreeSnapshot<Integer> mapped = MappedTreeSnapshot.open(file, ElementCodec.INTEGER);
+            try {
+                mapped.verify();
+                Assert.fail(FAILED);
+            } catch (IOException e) {
+                assertEquals(testName + " - checksum", "snapshot is damaged: checksum mismatch", e.getMessage());
+            }
+            try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+                raw.setLength(raw.length() - 1);
+            }
+            try {
+                MappedTreeSnapshot.open(file, ElementCodec.INTEGER);
+                Assert.fail(FAILED);
+            } catch (IOException e) {
+                assertEquals(testName + " - truncated", true, e.getMessage().startsWith("snapshot is damaged"));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static <E> boolean sameAnswers(ReadableSearchTree<E> expected, ReadableSearchTree<E> actual, E probe) {
+        return Objects.equals(expected.search(probe), actual.search(probe))
+                && Objects.equals(expected.floor(probe), actual.floor(probe))
+                && Objects.equals(expected.ceiling(probe), actual.ceiling(probe))
+                && Objects.equals(expected.higher(probe), actual.higher(probe))
+                && Objects.equals(expected.lower(probe), actual.lower(probe))
+                && expected.first().equals(actual.first()) && expected.last().equals(actual.last());
+    }
+
+    private static boolean sameView(NavigableSet<Integer> expected, NavigableSet<Integer> actual, int lo, int hi) {
+        boolean same = new ArrayList<>(expected).equals(new ArrayList<>(actual)) && expected.size() == actual.size()
+                && new ArrayList<>(expected.descendingSet()).equals(new ArrayList<>(actual.descendingSet()));
+        for (int probe = lo - 3; probe <= hi + 3; probe++) {
+            same &= Objects.equals(expected.floor(probe), actual.floor(probe))
+                    && Objects.equals(expected.ceiling(probe), actual.ceiling(probe))
+                    && Objects.equals(expected.higher(probe), actual.higher(probe))
+                    && Objects.equals(expected.lower(probe), actual.lower(probe))
+                    && expected.contains(probe) == actual.contains(probe);
+        }
+        return same;
+    }
+
+    /**
+     * @return true if <i>nested</i> makes the same views of <i>expected</i> and <i>actual</i> or throws
+     * {@link IllegalArgumentException} for both
+     */
+    private static boolean sameNestedView(NavigableSet<Integer> expected, NavigableSet<Integer> actual,
+                                          UnaryOperator<NavigableSet<Integer>> nested, int lo, int hi) {
+        NavigableSet<Integer> expectedView;
+        try {
+            expectedView = nested.apply(expected);
+        } catch (IllegalArgumentException e) {
+            try {
+                nested.apply(actual);
+                return false;
+            } catch (IllegalArgumentException actualException) {
+                return true;
+            }
+        }
+        try {
+            return sameView(expectedView, nested.apply(actual), lo, hi);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static <E> List<E> toList(Iterator<E> iterator) {
+        List<E> list = new ArrayList<>();
+        iterator.forEachRemaining(list::add);
+        return list;
+    }
+}
@@ -0,0 +1,89 @@
+package ru.spbstu.redblacktree.tree;
+
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.indexed.OffHeapLongRedBlackTree;
+import ru.spbstu.redblacktree.tree.utils.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static ru.spbstu.redblacktree.tree.utils.Assert.assertEquals;
+
+/**
+ * provides tests for {@link OffHeapLongRedBlackTree}
+ */
+public class OffHeapLongRedBlackTreeTest {
+    private static final String TEST_CLASS_NAME = "OffHeapLongRedBlackTreeTest";
+    private static final String EXCEPTION_STR = " (exception)";
+    private static final String FAILED = "failed";
+    private static String testName;
+
+    public static void main(String[] args) {
+        testRandomOperations();
+        testClear();
+        testClose();
+    }
+
+    private static void testRandomOperations() {
+        testName = TEST_CLASS_NAME + ".testRandomOperations()";
+        Random random = new Random(3);
+        TreeSet<Long> expected = new TreeSet<>();
+        try (OffHeapLongRedBlackTree tree = new OffHeapLongRedBlackTree(4)) {
+            boolean sameResults = true;
+            for (int i = 0; i < 20_000; i++) {
+                long key = random.nextInt(2_000) * 4_000_000_000L;
+                if (random.nextInt(3) == 0) {
+                    sameResults &= expected.remove(key) == tree.remove(key);
+                } else {
+                    sameResults &= expected.add(key) == tree.add(key);
+                }
+            }
+            assertEquals(testName + " - add and remove", true, sameResults);
+            assertEquals(testName + " - size", expected.size(), tree.size());
+            assertEquals(testName + " - keys", new ArrayList<>(expected), toList(tree.iterator()));
+            assertEquals(testName + " - first", expected.first(), tree.first());
+            assertEquals(testName + " - last", expected.last(), tree.last());
+            assertEquals(testName + " - contains", expected.contains(0L), tree.contains(0L));
+            assertEquals(testName + " - records reused", true, tree.allocatedBytes() <= 24L * 16 *
+                    (expected.size() / 16 + 2) * 2);
+        }
+    }
+
+    private static void testClear() {
+        testName = TEST_CLASS_NAME + ".testClear()";
+        try (OffHeapLongRedBlackTree tree = new OffHeapLongRedBlackTree(2)) {
+            for (long key = 0; key < 100; key++) {
+                tree.add(key);
+            }
+            tree.clear();
+            assertEquals(testName + " - empty", 0, tree.size());
+            assertEquals(testName + " - released", 0L, tree.allocatedBytes());
+            tree.add(5L);
+            assertEquals(testName + " - reusable", 5L, tree.first());
+        }
+    }
+
+    private static void testClose() {
+        testName = TEST_CLASS_NAME + ".testClose()";
+        OffHeapLongRedBlackTree tree = new OffHeapLongRedBlackTree();
+        tree.add(1L);
+        tree.close();
+        tree.close();
+        try {
+            tree.contains(1L);
+            Assert.fail(FAILED);
+        } catch (IllegalStateException e) {
+            assertEquals(testName + EXCEPTION_STR, "tree is closed", e.getMessage());
+        }
+    }
+
+    private static List<Long> toList(PrimitiveIterator.OfLong iterator) {
+        List<Long> keys = new ArrayList<>();
+        while (iterator.hasNext()) {
+            keys.add(iterator.nextLong());
+        }
+        return keys;
+    }
+}
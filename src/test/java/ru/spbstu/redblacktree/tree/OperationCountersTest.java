@@ -0,0 +1,133 @@
+package ru.spbstu.redblacktree.tree;
+
+import ru.spbstu.redblacktree.tree.binarytree.search.BinarySearchTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTree;
+import ru.spbstu.redblacktree.utils.OperationCounters;
+import ru.spbstu.redblacktree.utils.OperationCounters.Counter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+
+import static ru.spbstu.redblacktree.tree.utils.Assert.assertEquals;
+
+/**
+ * provides tests for {@link OperationCounters}. Counting is switched on only at JVM start, so the enabled counters
+ * are tested in a child JVM
+ */
+public class OperationCountersTest {
+    private static final String TEST_CLASS_NAME = "OperationCountersTest";
+    private static String testName;
+    /**
+     * set in the child JVM, which reports failures by its exit code
+     */
+    private static boolean failed;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (OperationCounters.ENABLED) {
+            testRotationsAndCases();
+            testSearchPaths();
+            testReset();
+            if (failed) {
+                System.exit(1);
+            }
+        } else {
+            testDisabled();
+            testEnabledInChild();
+        }
+    }
+
+    private static void testDisabled() {
+        testName = TEST_CLASS_NAME + ".testDisabled()";
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        for (int i = 0; i < 1_000; i++) {
+            tree.add(i);
+        }
+        tree.search(500);
+        long total = 0;
+        for (long value : OperationCounters.snapshot().values()) {
+            total += value;
+        }
+        assertEquals(testName, 0L, total);
+    }
+
+    private static void testEnabledInChild() throws IOException, InterruptedException {
+        testName = TEST_CLASS_NAME + ".testEnabledInChild()";
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process child = new ProcessBuilder(java, "-D" + OperationCounters.PROPERTY + "=true", "-cp",
+                System.getProperty("java.class.path"), OperationCountersTest.class.getName())
+                .inheritIO()
+                .start();
+        assertEquals(testName, 0, child.waitFor());
+    }
+
+    private static void testRotationsAndCases() {
+        testName = TEST_CLASS_NAME + ".testRotationsAndCases()";
+        OperationCounters.reset();
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        for (int i = 0; i < 3; i++) {
+            tree.add(i);
+        }
+        check(testName + " - root", 1L, OperationCounters.get(Counter.INSERT_ROOT));
+        check(testName + " - black parent", 1L, OperationCounters.get(Counter.INSERT_BLACK_PARENT));
+        check(testName + " - ascending additions rotate once", 1L, OperationCounters.get(Counter.ROTATIONS));
+        check(testName + " - outer case", 1L, OperationCounters.get(Counter.INSERT_OUTER));
+        tree.add(3);
+        check(testName + " - red uncle", 1L, OperationCounters.get(Counter.INSERT_RED_UNCLE));
+
+        OperationCounters.reset();
+        for (int i = 4; i < 1_000; i++) {
+            tree.add(i);
+        }
+        for (int i = 0; i < 1_000; i += 2) {
+            tree.remove(i);
+        }
+        Map<Counter, Long> counters = OperationCounters.snapshot();
+        long removeCases = counters.get(Counter.REMOVE_CASE_2) + counters.get(Counter.REMOVE_CASES_3_4)
+                + counters.get(Counter.REMOVE_CASE_5) + counters.get(Counter.REMOVE_CASE_6);
+        check(testName + " - removal cases", true, removeCases > 0);
+        check(testName + " - recolors", true, counters.get(Counter.RECOLORS) > 0);
+        check(testName + " - tree stays valid", true, RedBlackTreeTest.isRedBlack(tree));
+
+        tree = new RedBlackTree<>();
+        for (int i : new int[]{10, 5, 15, 12}) {
+            tree.add(i);
+        }
+        OperationCounters.reset();
+        tree.remove(10);
+        check(testName + " - red successor takes black color", 1L, OperationCounters.get(Counter.RECOLORS));
+    }
+
+    private static void testSearchPaths() {
+        testName = TEST_CLASS_NAME + ".testSearchPaths()";
+        BinarySearchTree<Integer> tree = new BinarySearchTree<>();
+        for (int i = 0; i < 10; i++) {
+            tree.add(i);
+        }
+        OperationCounters.reset();
+        tree.search(9);
+        tree.search(-1);
+        check(testName + " - searches", 2L, OperationCounters.get(Counter.SEARCHES));
+        check(testName + " - path nodes", 11L, OperationCounters.get(Counter.SEARCH_PATH_NODES));
+        check(testName + " - longest path", 10L, OperationCounters.longestSearchPath());
+        check(testName + " - comparisons", 11L, OperationCounters.get(Counter.COMPARISONS));
+    }
+
+    private static void testReset() {
+        testName = TEST_CLASS_NAME + ".testReset()";
+        new RedBlackTree<Integer>().add(1);
+        OperationCounters.reset();
+        check(testName, 0L, OperationCounters.get(Counter.INSERT_ROOT) + OperationCounters.longestSearchPath());
+    }
+
+    /**
+     * {@link ru.spbstu.redblacktree.tree.utils.Assert#assertEquals}, which only prints, remembering a failure
+     */
+    private static void check(String name, Object expected, Object actual) {
+        assertEquals(name, expected, actual);
+        if (!Objects.deepEquals(expected, actual)) {
+            failed = true;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package ru.spbstu.redblacktree.tree;
+
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.OrderStatisticTree;
+import ru.spbstu.redblacktree.tree.utils.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static java.util.Objects.isNull;
+import static ru.spbstu.redblacktree.tree.utils.Assert.assertEquals;
+
+/**
+ * provides tests for {@link OrderStatisticTree}
+ */
+public class OrderStatisticTreeTest {
+    private static final String TEST_CLASS_NAME = "OrderStatisticTreeTest";
+    private static final String EXCEPTION_STR = " (exception)";
+    private static final String FAILED = "failed";
+    private static String testName;
+
+    public static void main(String[] args) {
+        testRankAndSelect();
+        testCountInRange();
+        testRandomOperations();
+        testLoadSorted();
+        testSetOperations();
+    }
+
+    private static void testSetOperations() {
+        testName = TEST_CLASS_NAME + ".testSetOperations()";
+        OrderStatisticTree<Integer> integers = new OrderStatisticTree<>();
+        OrderStatisticTree<Integer> other = new OrderStatisticTree<>();
+        for (int i = 0; i < 1_000; i++) {
+            integers.add(i * 2);
+            other.add(i * 3);
+        }
+        integers.union(other);
+        assertEquals(testName + " - union sizes", true, sizesValid(integers, integers.root()));
+        assertEquals(testName + " - union rank", 1_333, integers.rank(2_000));
+        integers.difference(other);
+        assertEquals(testName + " - difference sizes", true, sizesValid(integers, integers.root()));
+        assertEquals(testName + " - difference select", 10, integers.select(3));
+    }
+
+    private static void testLoadSorted() {
+        testName = TEST_CLASS_NAME + ".testLoadSorted()";
+        Integer[] elements = new Integer[1_000];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = i * 3;
+        }
+        OrderStatisticTree<Integer> integers = new OrderStatisticTree<>();
+        integers.loadSorted(elements);
+        assertEquals(testName + " - sizes", true, sizesValid(integers, integers.root()));
+        assertEquals(testName + " - select", 1_500, integers.select(500));
+        assertEquals(testName + " - rank", 334, integers.rank(1_000));
+        Integer[] unsorted = new Integer[50_000];
+        for (int i = 0; i < unsorted.length; i++) {
+            unsorted[i] = (i * 7919) % unsorted.length;
+        }
+        OrderStatisticTree<Integer> parallel = new OrderStatisticTree<>();
+        parallel.loadUnsorted(unsorted);
+        assertEquals(testName + " - parallel sizes", true, sizesValid(parallel, parallel.root()));
+        assertEquals(testName + " - parallel select", 12_345, parallel.select(12_345));
+    }
+
+    private static void testRankAndSelect() {
+        testName = TEST_CLASS_NAME + ".testRankAndSelect()";
+        OrderStatisticTree<Integer> integers = new OrderStatisticTree<>();
+        for (int i = 10; i <= 100; i += 10) {
+            integers.add(i);
+        }
+        assertEquals(testName + " - rank of present", 4, integers.rank(50));
+        assertEquals(testName + " - rank of absent", 5, integers.rank(55));
+        assertEquals(testName + " - rank below all", 0, integers.rank(1));
+        assertEquals(testName + " - select", 30, integers.select(2));
+        assertEquals(testName + " - select last", 100, integers.select(9));
+        assertEquals(testName + " - root size", 10, integers.subtreeSize(integers.root()));
+        try {
+            integers.select(10);
+            Assert.fail(FAILED);
+        } catch (IndexOutOfBoundsException e) {
+            assertEquals(testName + EXCEPTION_STR, "index 10 is out of [0, 10)", e.getMessage());
+        }
+    }
+
+    private static void testCountInRange() {
+        testName = TEST_CLASS_NAME + ".testCountInRange()";
+        OrderStatisticTree<Integer> integers = new OrderStatisticTree<>();
+        for (int i = 10; i <= 100; i += 10) {
+            integers.add(i);
+        }
+        assertEquals(testName + " - inclusive bounds", 3, integers.countInRange(20, 40));
+        assertEquals(testName + " - absent bounds", 3, integers.countInRange(15, 45));
+        assertEquals(testName + " - single", 1, integers.countInRange(40, 40));
+        assertEquals(testName + " - inverted", 0, integers.countInRange(40, 20));
+        assertEquals(testName + " - all", 10, integers.countInRange(0, 1000));
+    }
+
+    private static void testRandomOperations() {
+        testName = TEST_CLASS_NAME + ".testRandomOperations()";
+        Random random = new Random(11);
+        OrderStatisticTree<Integer> integers = new OrderStatisticTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        boolean valid = true;
+        for (int i = 0; i < 20_000; i++) {
+            Integer value = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(value);
+                integers.remove(value);
+            } else {
+                expected.add(value);
+                integers.add(value);
+            }
+            if (i % 100 == 0) {
+                valid &= sizesValid(integers, integers.root());
+                valid &= integers.rank(value) == expected.headSet(value).size();
+                valid &= integers.countInRange(value, value + 300) == expected.subSet(value, true, value + 300,
+                        true).size();
+            }
+        }
+        assertEquals(testName + " - sizes, ranks and counts", true, valid && sizesValid(integers, integers.root()));
+        List<Integer> selected = new ArrayList<>();
+        for (int k = 0; k < integers.size(); k++) {
+            selected.add(integers.select(k));
+        }
+        assertEquals(testName + " - select", new ArrayList<>(expected), selected);
+    }
+
+    private static <E> boolean sizesValid(OrderStatisticTree<E> tree, Node<E> node) {
+        if (isNull(node)) {
+            return true;
+        }
+        return tree.subtreeSize(node) == 1 + tree.subtreeSize(tree.left(node)) + tree.subtreeSize(tree.right(node))
+                && sizesValid(tree, tree.left(node)) && sizesValid(tree, tree.right(node));
+    }
+}
@@ -0,0 +1,109 @@
+package ru.spbstu.redblacktree.tree;
+
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.PersistentRedBlackTree;
+import ru.spbstu.redblacktree.tree.utils.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static java.util.Arrays.asList;
+import static java.util.Objects.isNull;
+import static ru.spbstu.redblacktree.tree.utils.Assert.assertEquals;
+
+/**
+ * provides tests for {@link PersistentRedBlackTree}
+ */
+public class PersistentRedBlackTreeTest {
+    private static final String TEST_CLASS_NAME = "PersistentRedBlackTreeTest";
+    private static final String FAILED = "failed";
+    private static String testName;
+
+    public static void main(String[] args) {
+        testVersions();
+        testRandomOperations();
+    }
+
+    private static void testVersions() {
+        testName = TEST_CLASS_NAME + ".testVersions()";
+        PersistentRedBlackTree<Integer> empty = new PersistentRedBlackTree<>();
+        PersistentRedBlackTree<Integer> version1 = empty.add(20).add(10).add(30);
+        PersistentRedBlackTree<Integer> version2 = version1.add(25).remove(10);
+        assertEquals(testName + " - empty stays empty", 0, empty.size());
+        assertEquals(testName + " - version1", "[10, 20, 30]", version1.toString());
+        assertEquals(testName + " - version2", "[20, 25, 30]", version2.toString());
+        PersistentRedBlackTree<Integer> version3 = version1.add(5);
+        assertEquals(testName + " - untouched subtree is shared", true,
+                version3.right(version3.root()) == version1.right(version1.root()));
+        assertEquals(testName + " - add present returns same version", true, version2.add(25) == version2);
+        assertEquals(testName + " - remove absent returns same version", true, version2.remove(10) == version2);
+        assertEquals(testName + " - first", 20, version2.first());
+        assertEquals(testName + " - last", 30, version2.last());
+        try {
+            empty.first();
+            Assert.fail(FAILED);
+        } catch (NoSuchElementException e) {
+            assertEquals(testName + " (exception)", null, e.getMessage());
+        }
+    }
+
+    private static void testRandomOperations() {
+        testName = TEST_CLASS_NAME + ".testRandomOperations()";
+        Random random = new Random(37);
+        PersistentRedBlackTree<Integer> tree = new PersistentRedBlackTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        List<PersistentRedBlackTree<Integer>> versions = new ArrayList<>();
+        List<List<Integer>> expectedVersions = new ArrayList<>();
+        boolean valid = true;
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                tree = tree.remove(value);
+                expected.remove(value);
+            } else {
+                tree = tree.add(value);
+                expected.add(value);
+            }
+            if (i % 1_000 == 0) {
+                versions.add(tree);
+                expectedVersions.add(new ArrayList<>(expected));
+                valid &= isRedBlack(tree);
+            }
+        }
+        for (int i = 0; i < versions.size(); i++) {
+            List<Integer> actual = new ArrayList<>();
+            versions.get(i).forEach(actual::add);
+            valid &= expectedVersions.get(i).equals(actual) && versions.get(i).size() == actual.size();
+        }
+        assertEquals(testName + " - versions and red-black properties", true, valid && isRedBlack(tree));
+        assertEquals(testName + " - contains", asList(true, false), asList(tree.contains(expected.first()),
+                tree.contains(-1)));
+    }
+
+    private static <E> boolean isRedBlack(PersistentRedBlackTree<E> tree) {
+        return isNull(tree.root()) || !isRed(tree.root()) && blackHeight(tree, tree.root()) > 0;
+    }
+
+    private static <E> int blackHeight(PersistentRedBlackTree<E> tree, Node<E> node) {
+        if (isNull(node)) {
+            return 1;
+        }
+        Node<E> left = tree.left(node);
+        Node<E> right = tree.right(node);
+        if (isRed(node) && (!isNull(left) && isRed(left) || !isNull(right) && isRed(right))) {
+            return -1;
+        }
+        int leftHeight = blackHeight(tree, left);
+        int rightHeight = blackHeight(tree, right);
+        if (leftHeight < 0 || leftHeight != rightHeight) {
+            return -1;
+        }
+        return isRed(node) ? leftHeight : leftHeight + 1;
+    }
+
+    private static <E> boolean isRed(Node<E> node) {
+        return node.toString().startsWith("(");
+    }
+}
@@ -0,0 +1,105 @@
+package ru.spbstu.redblacktree.tree;
+
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.primitive.DoubleRedBlackTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.primitive.IntRedBlackTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.primitive.LongRedBlackTreeMap;
+import ru.spbstu.redblacktree.tree.utils.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static ru.spbstu.redblacktree.tree.utils.Assert.assertEquals;
+
+/**
+ * provides tests for primitive red-black trees generated from templates
+ */
+public class PrimitiveRedBlackTreeTest {
+    private static final String TEST_CLASS_NAME = "PrimitiveRedBlackTreeTest";
+    private static final String FAILED = "failed";
+    private static String testName;
+
+    public static void main(String[] args) {
+        testIntTree();
+        testDoubleTree();
+        testLongMap();
+    }
+
+    private static void testIntTree() {
+        testName = TEST_CLASS_NAME + ".testIntTree()";
+        Random random = new Random(1);
+        IntRedBlackTree tree = new IntRedBlackTree();
+        TreeSet<Integer> expected = new TreeSet<>();
+        boolean sameResults = true;
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(1_000) - 500;
+            if (random.nextInt(3) == 0) {
+                sameResults &= expected.remove(key) == tree.remove(key);
+            } else {
+                sameResults &= expected.add(key) == tree.add(key);
+            }
+        }
+        assertEquals(testName + " - add and remove", true, sameResults);
+        assertEquals(testName + " - size", expected.size(), tree.size());
+        assertEquals(testName + " - elements", new ArrayList<>(expected), tree.stream().boxed()
+                .collect(Collectors.toList()));
+        assertEquals(testName + " - first", expected.first(), tree.first());
+        assertEquals(testName + " - last", expected.last(), tree.last());
+        assertEquals(testName + " - contains", expected.contains(7), tree.contains(7));
+        tree.clear();
+        try {
+            tree.first();
+            Assert.fail(FAILED);
+        } catch (NoSuchElementException e) {
+            assertEquals(testName + " - empty", true, tree.isEmpty());
+        }
+    }
+
+    private static void testDoubleTree() {
+        testName = TEST_CLASS_NAME + ".testDoubleTree()";
+        DoubleRedBlackTree tree = new DoubleRedBlackTree();
+        tree.add(2.5);
+        tree.add(-1.0);
+        tree.add(0.0);
+        tree.add(-0.0);
+        tree.add(Double.NaN);
+        assertEquals(testName + " - duplicate", false, tree.add(2.5));
+        assertEquals(testName, new double[]{-1.0, -0.0, 0.0, 2.5, Double.NaN}, tree.toArray());
+        assertEquals(testName + " - remove", true, tree.remove(0.0));
+        assertEquals(testName, "[-1.0, -0.0, 2.5, NaN]", tree.toString());
+    }
+
+    private static void testLongMap() {
+        testName = TEST_CLASS_NAME + ".testLongMap()";
+        Random random = new Random(2);
+        LongRedBlackTreeMap<String> map = new LongRedBlackTreeMap<>();
+        TreeMap<Long, String> expected = new TreeMap<>();
+        boolean sameResults = true;
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(1_000) * 1_000_000_007L;
+            if (random.nextInt(3) == 0) {
+                sameResults &= Objects.equals(expected.remove(key), map.remove(key));
+            } else {
+                String value = String.valueOf(i);
+                sameResults &= Objects.equals(expected.put(key, value), map.put(key, value));
+            }
+        }
+        assertEquals(testName + " - put and remove", true, sameResults);
+        List<Long> keys = new ArrayList<>();
+        for (PrimitiveIterator.OfLong iterator = map.keyIterator(); iterator.hasNext(); ) {
+            keys.add(iterator.nextLong());
+        }
+        assertEquals(testName + " - keys", new ArrayList<>(expected.keySet()), keys);
+        List<String> values = new ArrayList<>();
+        map.forEach((value, key) -> values.add(value));
+        assertEquals(testName + " - values", new ArrayList<>(expected.values()), values);
+        assertEquals(testName + " - get", expected.get(expected.firstKey()), map.get(map.firstKey()));
+        assertEquals(testName + " - missing", "none", map.getOrDefault(-1L, "none"));
+    }
+}
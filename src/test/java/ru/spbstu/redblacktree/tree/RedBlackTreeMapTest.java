@@ -0,0 +1,240 @@
+package ru.spbstu.redblacktree.tree;
+
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTreeMap;
+import ru.spbstu.redblacktree.tree.utils.Assert;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+
+import static java.util.Arrays.asList;
+import static ru.spbstu.redblacktree.tree.utils.Assert.assertEquals;
+
+/**
+ * provides tests for {@link RedBlackTreeMap}
+ */
+public class RedBlackTreeMapTest {
+    private static final String TEST_CLASS_NAME = "RedBlackTreeMapTest";
+    private static final String EXCEPTION_STR = " (exception)";
+    private static final String FAILED = "failed";
+    private static String testName;
+    private static int comparisons;
+
+    public static void main(String[] args) {
+        testPutAndGet();
+        testCompute();
+        testNullValue();
+        testReentrantCompute();
+        testSingleDescent();
+        testViews();
+        testRandomOperations();
+    }
+
+    private static void testPutAndGet() {
+        testName = TEST_CLASS_NAME + ".testPutAndGet()";
+        RedBlackTreeMap<String, Integer> map = new RedBlackTreeMap<>();
+        assertEquals(testName + " - put new", null, map.put("b", 2));
+        assertEquals(testName + " - put existing", 2, map.put("b", 20));
+        map.put("a", 1);
+        map.put("c", 3);
+        assertEquals(testName + " - get", 20, map.get("b"));
+        assertEquals(testName + " - get absent", null, map.get("d"));
+        assertEquals(testName + " - putIfAbsent present", 1, map.putIfAbsent("a", 10));
+        assertEquals(testName + " - putIfAbsent absent", null, map.putIfAbsent("d", 4));
+        assertEquals(testName + " - remove", 3, map.remove("c"));
+        assertEquals(testName + " - toString", "{a=1, b=20, d=4}", map.toString());
+        try {
+            map.get(null);
+            Assert.fail(FAILED);
+        } catch (NullPointerException e) {
+            assertEquals(testName + EXCEPTION_STR, "null keys are not supported", e.getMessage());
+        }
+    }
+
+    private static void testCompute() {
+        testName = TEST_CLASS_NAME + ".testCompute()";
+        RedBlackTreeMap<String, Integer> map = new RedBlackTreeMap<>();
+        assertEquals(testName + " - computeIfAbsent", 1, map.computeIfAbsent("a", key -> 1));
+        assertEquals(testName + " - computeIfAbsent present", 1, map.computeIfAbsent("a", key -> 2));
+        assertEquals(testName + " - computeIfAbsent null", null, map.computeIfAbsent("b", key -> null));
+        assertEquals(testName + " - no entry for null", false, map.containsKey("b"));
+        assertEquals(testName + " - compute", 11, map.compute("a", (key, value) -> value + 10));
+        assertEquals(testName + " - compute removes", null, map.compute("a", (key, value) -> null));
+        assertEquals(testName + " - merge absent", 5, map.merge("c", 5, Integer::sum));
+        assertEquals(testName + " - merge present", 8, map.merge("c", 3, Integer::sum));
+        assertEquals(testName + " - computeIfPresent", 16, map.computeIfPresent("c", (key, value) -> value * 2));
+        try {
+            map.compute("d", (key, value) -> {
+                throw new IllegalStateException("compute failed");
+            });
+            Assert.fail(FAILED);
+        } catch (IllegalStateException e) {
+            assertEquals(testName + EXCEPTION_STR, "compute failed", e.getMessage());
+        }
+        assertEquals(testName + " - failed compute leaves no entry", "{c=16}", map.toString());
+    }
+
+    private static void testNullValue() {
+        testName = TEST_CLASS_NAME + ".testNullValue()";
+        RedBlackTreeMap<String, Integer> map = new RedBlackTreeMap<>();
+        map.put("a", null);
+        assertEquals(testName + " - computeIfAbsent null", null, map.computeIfAbsent("a", key -> null));
+        assertEquals(testName + " - entry kept", true, map.containsKey("a"));
+        assertEquals(testName + " - computeIfAbsent sets value", 1, map.computeIfAbsent("a", key -> 1));
+        map.put("b", null);
+        assertEquals(testName + " - compute null", null, map.compute("b", (key, value) -> null));
+        assertEquals(testName + " - compute removes entry", "{a=1}", map.toString());
+    }
+
+    private static void testReentrantCompute() {
+        testName = TEST_CLASS_NAME + ".testReentrantCompute()";
+        RedBlackTreeMap<String, Integer> map = new RedBlackTreeMap<>();
+        map.put("a", 1);
+        map.put("b", null);
+        try {
+            map.computeIfAbsent("b", key -> {
+                map.remove(key);
+                return 2;
+            });
+            Assert.fail(FAILED);
+        } catch (ConcurrentModificationException e) {
+            assertEquals(testName + " - computeIfAbsent removing the entry", "{a=1}", map.toString());
+        }
+        try {
+            map.computeIfAbsent("c", key -> map.remove("a"));
+            Assert.fail(FAILED);
+        } catch (ConcurrentModificationException e) {
+            assertEquals(testName + " - computeIfAbsent nothing added", "{}", map.toString());
+        }
+        try {
+            map.compute("d", (key, value) -> {
+                map.put("e", 5);
+                return 4;
+            });
+            Assert.fail(FAILED);
+        } catch (ConcurrentModificationException e) {
+            assertEquals(testName + " - compute adding an entry", "{e=5}", map.toString());
+        }
+        try {
+            map.computeIfPresent("e", (key, value) -> {
+                map.clear();
+                return null;
+            });
+            Assert.fail(FAILED);
+        } catch (ConcurrentModificationException e) {
+            assertEquals(testName + " - computeIfPresent clearing the map", true, map.isEmpty());
+        }
+    }
+
+    private static void testSingleDescent() {
+        testName = TEST_CLASS_NAME + ".testSingleDescent()";
+        Comparator<Integer> counting = (i1, i2) -> {
+            comparisons++;
+            return Integer.compare(i1, i2);
+        };
+        RedBlackTreeMap<Integer, Integer> map = new RedBlackTreeMap<>(counting);
+        for (int i = 0; i < 1_000; i++) {
+            map.put(i, 0);
+        }
+        comparisons = 0;
+        map.get(700);
+        int lookup = comparisons;
+        comparisons = 0;
+        map.merge(700, 1, Integer::sum);
+        assertEquals(testName + " - merge", lookup, comparisons);
+        comparisons = 0;
+        map.compute(700, (key, value) -> value + 1);
+        assertEquals(testName + " - compute", lookup, comparisons);
+        comparisons = 0;
+        map.computeIfAbsent(700, key -> 0);
+        assertEquals(testName + " - computeIfAbsent", lookup, comparisons);
+        assertEquals(testName + " - value", 2, map.get(700));
+    }
+
+    private static void testViews() {
+        testName = TEST_CLASS_NAME + ".testViews()";
+        RedBlackTreeMap<Integer, String> map = new RedBlackTreeMap<>();
+        for (int i = 1; i <= 6; i++) {
+            map.put(i * 10, "v" + i);
+        }
+        NavigableMap<Integer, String> sub = map.subMap(20, true, 50, false);
+        assertEquals(testName + " - subMap", "{20=v2, 30=v3, 40=v4}", sub.toString());
+        assertEquals(testName + " - descending keys", asList(40, 30, 20), new ArrayList<>(sub.descendingKeySet()));
+        assertEquals(testName + " - get out of range", null, sub.get(50));
+        sub.put(25, "x");
+        assertEquals(testName + " - write through", "x", map.get(25));
+        try {
+            sub.put(60, "y");
+            Assert.fail(FAILED);
+        } catch (IllegalArgumentException e) {
+            assertEquals(testName + EXCEPTION_STR, "key out of range", e.getMessage());
+        }
+        assertEquals(testName + " - computeIfAbsent out of range yielding null", null,
+                sub.computeIfAbsent(60, key -> null));
+        assertEquals(testName + " - compute out of range yielding null", null, sub.compute(10, (key, value) -> null));
+        try {
+            sub.computeIfAbsent(60, key -> "y");
+            Assert.fail(FAILED);
+        } catch (IllegalArgumentException e) {
+            assertEquals(testName + " - computeIfAbsent out of range" + EXCEPTION_STR, "key out of range",
+                    e.getMessage());
+        }
+        try {
+            sub.merge(60, "y", (oldValue, value) -> value);
+            Assert.fail(FAILED);
+        } catch (IllegalArgumentException e) {
+            assertEquals(testName + " - merge out of range" + EXCEPTION_STR, "key out of range", e.getMessage());
+        }
+        assertEquals(testName + " - nothing added out of range", "{10=v1, 20=v2, 25=x, 30=v3, 40=v4, 50=v5, 60=v6}",
+                map.toString());
+        assertEquals(testName + " - floorKey", 30, map.floorKey(35));
+        assertEquals(testName + " - higherEntry", 40, map.higherEntry(30).getKey());
+        assertEquals(testName + " - descending headMap", "{60=v6, 50=v5}", map.descendingMap().headMap(40).toString());
+        map.keySet().remove(25);
+        map.entrySet().removeIf(entry -> entry.getKey() > 40);
+        assertEquals(testName + " - removal through views", "{10=v1, 20=v2, 30=v3, 40=v4}", map.toString());
+        TreeMap<Integer, String> expected = new TreeMap<>(map);
+        assertEquals(testName + " - equals", true, map.equals(expected) && expected.equals(map));
+    }
+
+    private static void testRandomOperations() {
+        testName = TEST_CLASS_NAME + ".testRandomOperations()";
+        Random random = new Random(3);
+        RedBlackTreeMap<Integer, Integer> map = new RedBlackTreeMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        boolean valid = true;
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(1_000);
+            int value = random.nextInt(10);
+            switch (random.nextInt(5)) {
+                case 0:
+                    valid &= Objects.equals(expected.put(key, value), map.put(key, value));
+                    break;
+                case 1:
+                    valid &= Objects.equals(expected.remove(key), map.remove(key));
+                    break;
+                case 2:
+                    valid &= Objects.equals(expected.merge(key, value, Integer::sum), map.merge(key, value,
+                            Integer::sum));
+                    break;
+                case 3:
+                    BiFunction<Integer, Integer, Integer> increment = (k, v) -> {
+                        if (v == null) {
+                            return value;
+                        }
+                        return v > 20 ? null : v + 1;
+                    };
+                    valid &= Objects.equals(expected.compute(key, increment), map.compute(key, increment));
+                    break;
+                default:
+                    valid &= Objects.equals(expected.ceilingEntry(key), map.ceilingEntry(key));
+            }
+        }
+        assertEquals(testName, true, valid && expected.equals(map) && expected.size() == map.size());
+    }
+}
@@ -2,9 +2,18 @@ package ru.spbstu.redblacktree.tree;
 
 import ru.spbstu.redblacktree.tree.binarytree.search.BinarySearchTree;
 import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTree;
+import ru.spbstu.redblacktree.tree.utils.Assert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static java.util.Objects.isNull;
 import static ru.spbstu.redblacktree.tree.utils.Assert.assertEquals;
 import static ru.spbstu.redblacktree.utils.CollectionUtils.transformIntoNew;
 
@@ -13,11 +22,202 @@ import static ru.spbstu.redblacktree.utils.CollectionUtils.transformIntoNew;
  */
 public class RedBlackTreeTest {
     private static final String TEST_CLASS_NAME = "RedBlackTreeTest";
+    private static final String FAILED = "failed";
     private static String testName;
 
     public static void main(String[] args) {
         testAdd();
+        testAddDuplicate();
         testRemove();
+        testRandomOperations();
+        testLoadSorted();
+        testLoadSortedRejects();
+        testLoadUnsorted();
+        testSetOperations();
+        testSmallDelta();
+        testParallelSetOperations();
+    }
+
+    private static void testParallelSetOperations() {
+        testName = TEST_CLASS_NAME + ".testParallelSetOperations()";
+        Random random = new Random(29);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        TreeSet<Integer> expected1 = randomSet(random, 200_000, 400_000);
+        TreeSet<Integer> expected2 = randomSet(random, 60_000, 400_000);
+        RedBlackTree<Integer> other = new RedBlackTree<>();
+        other.loadUnsorted(expected2.toArray(new Integer[0]), pool);
+        RedBlackTree<Integer> union = new RedBlackTree<>();
+        union.loadUnsorted(expected1.toArray(new Integer[0]), pool);
+        union.parallelUnion(other, pool);
+        TreeSet<Integer> expectedUnion = new TreeSet<>(expected1);
+        expectedUnion.addAll(expected2);
+        assertEquals(testName + " - union", true, sameElements(expectedUnion, union));
+        RedBlackTree<Integer> intersection = new RedBlackTree<>();
+        intersection.loadUnsorted(expected1.toArray(new Integer[0]), pool);
+        intersection.parallelIntersection(other, pool);
+        TreeSet<Integer> expectedIntersection = new TreeSet<>(expected1);
+        expectedIntersection.retainAll(expected2);
+        assertEquals(testName + " - intersection", true, sameElements(expectedIntersection, intersection));
+        RedBlackTree<Integer> difference = new RedBlackTree<>();
+        difference.loadUnsorted(expected1.toArray(new Integer[0]), pool);
+        difference.parallelDifference(other, pool);
+        TreeSet<Integer> expectedDifference = new TreeSet<>(expected1);
+        expectedDifference.removeAll(expected2);
+        assertEquals(testName + " - difference", true, sameElements(expectedDifference, difference));
+        assertEquals(testName + " - other unchanged", true, sameElements(expected2, other));
+        pool.shutdown();
+    }
+
+    private static void testSetOperations() {
+        testName = TEST_CLASS_NAME + ".testSetOperations()";
+        Random random = new Random(23);
+        boolean valid = true;
+        for (int i = 0; i < 300; i++) {
+            TreeSet<Integer> expected1 = randomSet(random, random.nextInt(300));
+            TreeSet<Integer> expected2 = randomSet(random, random.nextInt(300));
+            RedBlackTree<Integer> other = new RedBlackTree<>();
+            expected2.forEach(other::add);
+            RedBlackTree<Integer> union = new RedBlackTree<>();
+            RedBlackTree<Integer> intersection = new RedBlackTree<>();
+            RedBlackTree<Integer> difference = new RedBlackTree<>();
+            expected1.forEach(union::add);
+            expected1.forEach(intersection::add);
+            expected1.forEach(difference::add);
+            union.union(other);
+            intersection.intersection(other);
+            difference.difference(other);
+            TreeSet<Integer> expectedUnion = new TreeSet<>(expected1);
+            expectedUnion.addAll(expected2);
+            TreeSet<Integer> expectedIntersection = new TreeSet<>(expected1);
+            expectedIntersection.retainAll(expected2);
+            TreeSet<Integer> expectedDifference = new TreeSet<>(expected1);
+            expectedDifference.removeAll(expected2);
+            valid &= sameElements(expectedUnion, union) && sameElements(expectedIntersection, intersection)
+                    && sameElements(expectedDifference, difference) && sameElements(expected2, other);
+        }
+        assertEquals(testName + " - elements, sizes and red-black properties", true, valid);
+    }
+
+    private static void testSmallDelta() {
+        testName = TEST_CLASS_NAME + ".testSmallDelta()";
+        int[] comparisons = new int[1];
+        RedBlackTree<Integer> base = new RedBlackTree<>((i1, i2) -> {
+            comparisons[0]++;
+            return Integer.compare(i1, i2);
+        });
+        Integer[] elements = new Integer[100_000];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = i * 2;
+        }
+        base.loadSorted(elements);
+        RedBlackTree<Integer> delta = new RedBlackTree<>();
+        for (int i = 0; i < 10; i++) {
+            delta.add(i * 20_001);
+        }
+        comparisons[0] = 0;
+        base.union(delta);
+        assertEquals(testName + " - size", 100_005, base.size());
+        assertEquals(testName + " - comparisons far below re-inserting the base", true, comparisons[0] < 1_000);
+        assertEquals(testName + " - red-black", true, isRedBlack(base));
+    }
+
+    private static TreeSet<Integer> randomSet(Random random, int size) {
+        return randomSet(random, size, 500);
+    }
+
+    private static TreeSet<Integer> randomSet(Random random, int size, int bound) {
+        TreeSet<Integer> set = new TreeSet<>();
+        for (int i = 0; i < size; i++) {
+            set.add(random.nextInt(bound));
+        }
+        return set;
+    }
+
+    private static boolean sameElements(TreeSet<Integer> expected, RedBlackTree<Integer> actual) {
+        return new ArrayList<>(expected).equals(new ArrayList<>(actual.asNavigableSet()))
+                && expected.size() == actual.size() && isRedBlack(actual);
+    }
+
+    private static void testLoadUnsorted() {
+        testName = TEST_CLASS_NAME + ".testLoadUnsorted()";
+        Random random = new Random(17);
+        Integer[] elements = new Integer[100_000];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = random.nextInt(60_000);
+        }
+        Integer[] copy = elements.clone();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        RedBlackTree<Integer> integers = new RedBlackTree<>();
+        integers.loadUnsorted(elements, pool);
+        TreeSet<Integer> expected = new TreeSet<>(asList(elements));
+        assertEquals(testName + " - elements", new ArrayList<>(expected), new ArrayList<>(integers.asNavigableSet()));
+        assertEquals(testName + " - red-black", true, isRedBlack(integers));
+        assertEquals(testName + " - input untouched", true, Arrays.equals(copy, elements));
+        RedBlackTree<Integer> empty = new RedBlackTree<>();
+        empty.loadUnsorted(new Integer[0], pool);
+        assertEquals(testName + " - empty", 0, empty.size());
+        elements[50_000] = null;
+        try {
+            empty.loadUnsorted(elements, pool);
+            Assert.fail(FAILED);
+        } catch (IllegalArgumentException e) {
+            assertEquals(testName + " - null rejected", 0, empty.size());
+        }
+        pool.shutdown();
+    }
+
+    private static void testLoadSorted() {
+        testName = TEST_CLASS_NAME + ".testLoadSorted()";
+        boolean valid = true;
+        for (int size = 0; size <= 130; size++) {
+            Integer[] elements = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                elements[i] = i * 2;
+            }
+            RedBlackTree<Integer> integers = new RedBlackTree<>();
+            integers.loadSorted(elements);
+            valid &= integers.size() == size && isRedBlack(integers);
+            valid &= asList(elements).equals(new ArrayList<>(integers.asNavigableSet()));
+            integers.add(size * 2 + 1);
+            integers.remove(0);
+            valid &= isRedBlack(integers);
+        }
+        assertEquals(testName + " - sizes from 0 to 130", true, valid);
+        RedBlackTree<Integer> integers = new RedBlackTree<>();
+        integers.loadSorted(asList(1, 2, 3, 4, 5).iterator(), 5);
+        assertEquals(testName + " - iterator", asList("3", "1", "4", "(2)", "(5)"), transformIntoNew(integers.breadthFirst(),
+                Object::toString));
+    }
+
+    private static void testLoadSortedRejects() {
+        testName = TEST_CLASS_NAME + ".testLoadSortedRejects()";
+        RedBlackTree<Integer> integers = new RedBlackTree<>();
+        assertEquals(testName + " - unsorted", RedBlackTree.NOT_SORTED_MSG, loadFailure(integers, 1, 3, 2));
+        assertEquals(testName + " - duplicates", RedBlackTree.NOT_SORTED_MSG, loadFailure(integers, 1, 2, 2));
+        assertEquals(testName + " - null", BinarySearchTree.NULL_NODE_MSG, loadFailure(integers, 1, null));
+        assertEquals(testName + " - tree stays empty", 0, integers.size());
+        try {
+            integers.loadSorted(asList(1, 2).iterator(), 3);
+            Assert.fail(FAILED);
+        } catch (IllegalArgumentException e) {
+            assertEquals(testName + " - fewer elements", "fewer elements than size", e.getMessage());
+        }
+        integers.add(1);
+        try {
+            integers.loadSorted(new Integer[]{2});
+            Assert.fail(FAILED);
+        } catch (IllegalStateException e) {
+            assertEquals(testName + " - not empty", "tree is not empty", e.getMessage());
+        }
+    }
+
+    private static String loadFailure(RedBlackTree<Integer> tree, Integer... elements) {
+        try {
+            tree.loadSorted(elements);
+            return Assert.fail(FAILED);
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
     }
 
     private static void testAdd() {
@@ -43,6 +243,18 @@ public class RedBlackTreeTest {
                 nodes(), Node::getElement));
     }
 
+    private static void testAddDuplicate() {
+        testName = TEST_CLASS_NAME + ".testAddDuplicate()";
+        BinarySearchTree<Integer> integers = new RedBlackTree<>();
+        integers.add(1);
+        Node<Integer> two = integers.add(2);
+        integers.add(3);
+        assertEquals(testName + " - stored node", two, integers.treeSearch(integers.root(), 2));
+        assertEquals(testName + " - same node", true, two == integers.add(2));
+        assertEquals(testName + " - size", 3, integers.size());
+        assertEquals(testName, asList(2, 1, 3), transformIntoNew(integers.nodes(), Node::getElement));
+    }
+
     private static void testRemove() {
         testName = TEST_CLASS_NAME + ".testRemove()";
         BinarySearchTree<Integer> integers = new RedBlackTree<>();
@@ -76,4 +288,62 @@ public class RedBlackTreeTest {
         integers.remove(two);
         assertEquals(testName + " case 3", asList(5, 8), transformIntoNew(integers.nodes(), Node::getElement));
     }
+
+    private static void testRandomOperations() {
+        testName = TEST_CLASS_NAME + ".testRandomOperations()";
+        Random random = new Random(42);
+        BinarySearchTree<Integer> integers = new RedBlackTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        boolean valid = true;
+        for (int i = 0; i < 20_000; i++) {
+            Integer value = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                valid &= Objects.equals(expected.remove(value) ? value : null, integers.remove(value));
+            } else {
+                expected.add(value);
+                integers.add(value);
+            }
+            if (i % 100 == 0) {
+                valid &= isRedBlack(integers);
+            }
+        }
+        assertEquals(testName + " - removed elements and red-black properties", true, valid && isRedBlack(integers));
+        assertEquals(testName + " - size", expected.size(), integers.size());
+        assertEquals(testName + " - elements", new ArrayList<>(expected), transformIntoNew(integers.inOrder(),
+                Node::getElement));
+    }
+
+    /**
+     * checks red-black tree properties. Red nodes are recognized by their string representation
+     *
+     * @param tree tree to check
+     * @return true if root is black, red nodes have no red children and all paths have the same number of black nodes
+     */
+    static <E> boolean isRedBlack(BinarySearchTree<E> tree) {
+        return isNull(tree.root()) || !isRed(tree.root()) && blackHeight(tree, tree.root()) > 0;
+    }
+
+    private static <E> int blackHeight(BinarySearchTree<E> tree, Node<E> node) {
+        if (isNull(node)) {
+            return 1;
+        }
+        Node<E> left = tree.left(node);
+        Node<E> right = tree.right(node);
+        if (!isNull(left) && tree.parent(left) != node || !isNull(right) && tree.parent(right) != node) {
+            return -1;
+        }
+        if (isRed(node) && (!isNull(left) && isRed(left) || !isNull(right) && isRed(right))) {
+            return -1;
+        }
+        int leftHeight = blackHeight(tree, left);
+        int rightHeight = blackHeight(tree, right);
+        if (leftHeight < 0 || leftHeight != rightHeight) {
+            return -1;
+        }
+        return isRed(node) ? leftHeight : leftHeight + 1;
+    }
+
+    private static <E> boolean isRed(Node<E> node) {
+        return node.toString().startsWith("(");
+    }
 }
@@ -0,0 +1,195 @@
+package ru.spbstu.redblacktree.tree;
+
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.ShardedRedBlackTree;
+import ru.spbstu.redblacktree.tree.utils.Assert;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static ru.spbstu.redblacktree.tree.utils.Assert.assertEquals;
+
+/**
+ * provides tests for {@link ShardedRedBlackTree}
+ */
+public class ShardedRedBlackTreeTest {
+    private static final String TEST_CLASS_NAME = "ShardedRedBlackTreeTest";
+    private static final String FAILED = "failed";
+    private static String testName;
+
+    public static void main(String[] args) throws InterruptedException {
+        testNavigation();
+        testSplit();
+        testRangeScan();
+        testRandomOperations();
+        testConcurrentAccess();
+    }
+
+    private static void testNavigation() {
+        testName = TEST_CLASS_NAME + ".testNavigation()";
+        ShardedRedBlackTree<Integer> integers = new ShardedRedBlackTree<>(null, 2);
+        for (int i : asList(50, 20, 80, 10, 30, 60, 90)) {
+            integers.add(i);
+        }
+        assertEquals(testName + " - shards", true, integers.shardCount() > 1);
+        assertEquals(testName + " - add duplicate", false, integers.add(30));
+        assertEquals(testName + " - contains", true, integers.contains(20));
+        assertEquals(testName + " - search absent", null, integers.search(25));
+        assertEquals(testName + " - floor", 20, integers.floor(25));
+        assertEquals(testName + " - ceiling", 30, integers.ceiling(25));
+        assertEquals(testName + " - higher", 50, integers.higher(30));
+        assertEquals(testName + " - lower", 20, integers.lower(30));
+        assertEquals(testName + " - first", 10, integers.first());
+        assertEquals(testName + " - last", 90, integers.last());
+        assertEquals(testName + " - toString", "[10, 20, 30, 50, 60, 80, 90]", integers.toString());
+        for (int i : asList(50, 60, 80)) {
+            integers.remove(i);
+        }
+        assertEquals(testName + " - higher across empty shards", 90, integers.higher(30));
+        assertEquals(testName + " - lower across empty shards", 30, integers.lower(90));
+        assertEquals(testName + " - size", 4, integers.size());
+        for (int i : asList(10, 20, 30, 90)) {
+            integers.remove(i);
+        }
+        try {
+            integers.first();
+            Assert.fail(FAILED);
+        } catch (NoSuchElementException e) {
+            assertEquals(testName + " (exception)", true, integers.isEmpty());
+        }
+    }
+
+    private static void testSplit() {
+        testName = TEST_CLASS_NAME + ".testSplit()";
+        ShardedRedBlackTree<Integer> integers = new ShardedRedBlackTree<>(null, 100);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            integers.add(i);
+            expected.add(i);
+        }
+        assertEquals(testName + " - shard count", true, integers.shardCount() >= 10);
+        assertEquals(testName + " - size", 1_000, integers.size());
+        assertEquals(testName + " - order", expected, integers.stream().collect(Collectors.toList()));
+        try {
+            new ShardedRedBlackTree<Integer>(null, 1);
+            Assert.fail(FAILED);
+        } catch (IllegalArgumentException e) {
+            assertEquals(testName + " (exception)", "max shard size must be at least 2", e.getMessage());
+        }
+    }
+
+    private static void testRangeScan() {
+        testName = TEST_CLASS_NAME + ".testRangeScan()";
+        ShardedRedBlackTree<Integer> integers = new ShardedRedBlackTree<>(null, 50);
+        for (int i = 0; i < 1_000; i += 2) {
+            integers.add(i);
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 100; i < 700; i += 2) {
+            expected.add(i);
+        }
+        assertEquals(testName + " - inclusive from", expected,
+                integers.rangeStream(100, true, 700, false).collect(Collectors.toList()));
+        expected.remove(0);
+        expected.add(700);
+        assertEquals(testName + " - inclusive to", expected,
+                integers.rangeStream(100, false, 700, true).collect(Collectors.toList()));
+        assertEquals(testName + " - empty range", 0L, integers.rangeStream(101, true, 101, true).count());
+        List<Integer> odd = new ArrayList<>();
+        for (Iterator<Integer> iterator = integers.rangeIterator(null, true, 200, false); iterator.hasNext(); ) {
+            int element = iterator.next();
+            iterator.remove();
+            if (element == 100) {
+                integers.add(151);
+            }
+            if (element % 2 == 1) {
+                odd.add(element);
+            }
+        }
+        assertEquals(testName + " - added during scan", asList(151), odd);
+        assertEquals(testName + " - removed by iterator", 200, integers.first());
+    }
+
+    private static void testRandomOperations() {
+        testName = TEST_CLASS_NAME + ".testRandomOperations()";
+        Random random = new Random(17);
+        ShardedRedBlackTree<Integer> integers = new ShardedRedBlackTree<>((a, b) -> Integer.compare(b, a), 32);
+        TreeSet<Integer> expected = new TreeSet<>((a, b) -> Integer.compare(b, a));
+        boolean valid = true;
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                valid &= integers.remove(value) == expected.remove(value);
+            } else {
+                valid &= integers.add(value) == expected.add(value);
+            }
+            int probe = random.nextInt(2_100) - 50;
+            valid &= Objects.equals(integers.floor(probe), expected.floor(probe))
+                    && Objects.equals(integers.higher(probe), expected.higher(probe));
+        }
+        valid &= integers.size() == expected.size();
+        valid &= new ArrayList<>(expected).equals(integers.stream().collect(Collectors.toList()));
+        valid &= new ArrayList<>(expected.subSet(1_500, false, 500, true))
+                .equals(integers.rangeStream(1_500, false, 500, true).collect(Collectors.toList()));
+        assertEquals(testName, true, valid);
+    }
+
+    private static void testConcurrentAccess() throws InterruptedException {
+        testName = TEST_CLASS_NAME + ".testConcurrentAccess()";
+        ShardedRedBlackTree<Integer> integers = new ShardedRedBlackTree<>(null, 256);
+        for (int i = 0; i < 10_000; i += 2) {
+            integers.add(i);
+        }
+        AtomicBoolean valid = new AtomicBoolean(true);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int writer = t;
+            threads.add(new Thread(() -> {
+                for (int round = 0; round < 3; round++) {
+                    for (int i = 1 + writer * 2; i < 20_000; i += 8) {
+                        integers.add(i);
+                    }
+                    for (int i = 1 + writer * 2; i < 20_000; i += 8) {
+                        integers.remove(i);
+                    }
+                }
+            }));
+        }
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    int value = (i * 31) % 10_000;
+                    //even elements are never removed, so every read must find them
+                    Integer floor = integers.floor(value);
+                    if (!integers.contains(value - value % 2) || floor == null || floor > value
+                            || floor < value - value % 2) {
+                        valid.set(false);
+                    }
+                }
+                Integer previous = null;
+                for (Integer element : integers) {
+                    if (previous != null && previous >= element) {
+                        valid.set(false);
+                    }
+                    previous = element;
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(testName + " - reads during writes", true, valid.get());
+        assertEquals(testName + " - size", 5_000, integers.size());
+        assertEquals(testName + " - shards", true, integers.shardCount() > 1);
+    }
+}
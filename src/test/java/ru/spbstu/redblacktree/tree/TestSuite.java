@@ -1,5 +1,6 @@
 package ru.spbstu.redblacktree.tree;
 
+import java.io.IOException;
 import java.util.Date;
 
 import static java.lang.System.out;
@@ -7,22 +8,54 @@ import static java.lang.System.out;
 public class TestSuite {
     public static final String DELIMITER = "--------";
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException, IOException {
         out.println(new Date() + ": tests started...");
 
         out.println(DELIMITER);
         AbstractBinaryTreeTest.main(args);
         out.println(DELIMITER);
+        ArrayRedBlackTreeTest.main(args);
+        out.println(DELIMITER);
         BalanceAbleTreeTest.main(args);
         out.println(DELIMITER);
+        BinarySearchTreeSetTest.main(args);
+        out.println(DELIMITER);
         BinarySearchTreeTest.main(args);
         out.println(DELIMITER);
+        CheckpointableRedBlackTreeTest.main(args);
+        out.println(DELIMITER);
         CollectionUtilsTest.main(args);
         out.println(DELIMITER);
+        ConcurrentRedBlackTreeTest.main(args);
+        out.println(DELIMITER);
+        DurableRedBlackTreeTest.main(args);
+        out.println(DELIMITER);
+        FlatCombiningRedBlackTreeTest.main(args);
+        out.println(DELIMITER);
         LinkedBinaryTreeTest.main(args);
         out.println(DELIMITER);
+        MappedTreeSnapshotTest.main(args);
+        out.println(DELIMITER);
+        OffHeapLongRedBlackTreeTest.main(args);
+        out.println(DELIMITER);
+        OperationCountersTest.main(args);
+        out.println(DELIMITER);
+        OrderStatisticTreeTest.main(args);
+        out.println(DELIMITER);
+        PersistentRedBlackTreeTest.main(args);
+        out.println(DELIMITER);
+        PrimitiveRedBlackTreeTest.main(args);
+        out.println(DELIMITER);
+        RedBlackTreeMapTest.main(args);
+        out.println(DELIMITER);
         RedBlackTreeTest.main(args);
         out.println(DELIMITER);
+        ShardedRedBlackTreeTest.main(args);
+        out.println(DELIMITER);
+        TreeSnapshotTest.main(args);
+        out.println(DELIMITER);
+        WriteAheadLogTest.main(args);
+        out.println(DELIMITER);
 
         out.println(new Date() + ": tests completed");
     }
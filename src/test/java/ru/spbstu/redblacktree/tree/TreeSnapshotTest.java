@@ -0,0 +1,192 @@
+package ru.spbstu.redblacktree.tree;
+
+import ru.spbstu.redblacktree.storage.ElementCodec;
+import ru.spbstu.redblacktree.storage.TreeSnapshot;
+import ru.spbstu.redblacktree.tree.binarytree.search.BinarySearchTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTree;
+import ru.spbstu.redblacktree.tree.utils.Assert;
+import ru.spbstu.redblacktree.ui.Type;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static ru.spbstu.redblacktree.tree.utils.Assert.assertEquals;
+
+/**
+ * provides tests for {@link TreeSnapshot}
+ */
+public class TreeSnapshotTest {
+    private static final String TEST_CLASS_NAME = "TreeSnapshotTest";
+    private static final String EXCEPTION_STR = " (exception)";
+    private static final String FAILED = "failed";
+    private static String testName;
+
+    public static void main(String[] args) throws IOException {
+        testIntegers();
+        testDoubles();
+        testStrings();
+        testUnpairedSurrogate();
+        testEmpty();
+        testDamaged();
+    }
+
+    private static void testIntegers() throws IOException {
+        testName = TEST_CLASS_NAME + ".testIntegers()";
+        Path file = Files.createTempFile("snapshot", ".bin");
+        try {
+            RedBlackTree<Integer> exported = new RedBlackTree<>();
+            for (int i = 0; i < 100_000; i++) {
+                exported.add(i * 7 % 100_003);
+            }
+            TreeSnapshot.write(exported, ElementCodec.INTEGER, file);
+            RedBlackTree<Integer> imported = new RedBlackTree<>();
+            TreeSnapshot.read(file, ElementCodec.INTEGER, imported);
+            assertEquals(testName + " - elements", new ArrayList<>(exported.asNavigableSet()),
+                    new ArrayList<>(imported.asNavigableSet()));
+            assertEquals(testName + " - balanced", true, RedBlackTreeTest.isRedBlack(imported));
+            assertEquals(testName + " - file size", 4L * 4 + 8 + 100_000L * 4, Files.size(file));
+            try {
+                TreeSnapshot.read(file, ElementCodec.INTEGER, imported);
+                Assert.fail(FAILED);
+            } catch (IllegalStateException e) {
+                assertEquals(testName + " (exception)", "tree is not empty", e.getMessage());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void testDoubles() throws IOException {
+        testName = TEST_CLASS_NAME + ".testDoubles()";
+        Path file = Files.createTempFile("snapshot", ".bin");
+        try {
+            BinarySearchTree<Double> exported = new BinarySearchTree<>();
+            for (double d : new double[]{2.5, -1.0, Double.MAX_VALUE, 0.1, Double.NEGATIVE_INFINITY}) {
+                exported.add(d);
+            }
+            ElementCodec<Double> codec = (ElementCodec<Double>) Type.DOUBLE.getCodec();
+            TreeSnapshot.write(exported, codec, file);
+            RedBlackTree<Double> imported = new RedBlackTree<>();
+            TreeSnapshot.read(file, codec, imported);
+            assertEquals(testName, exported.asNavigableSet().toString(), imported.asNavigableSet().toString());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void testStrings() throws IOException {
+        testName = TEST_CLASS_NAME + ".testStrings()";
+        Path file = Files.createTempFile("snapshot", ".bin");
+        try {
+            char[] chars = new char[300_000];
+            Arrays.fill(chars, 'ж');
+            List<String> strings = Arrays.asList("", "apple", "кефир", "€uro", "🍒 cherry",
+                    new String(chars));
+            RedBlackTree<String> exported = new RedBlackTree<>();
+            for (String string : strings) {
+                exported.add(string);
+            }
+            ElementCodec<String> codec = (ElementCodec<String>) Type.STRING.getCodec();
+            TreeSnapshot.write(exported, codec, file);
+            RedBlackTree<String> imported = new RedBlackTree<>();
+            TreeSnapshot.read(file, codec, imported);
+            assertEquals(testName, new ArrayList<>(exported.asNavigableSet()),
+                    new ArrayList<>(imported.asNavigableSet()));
+            boolean sizesMatch = true;
+            for (String string : strings) {
+                sizesMatch &= codec.encodedSize(string) == string.getBytes("UTF-8").length;
+            }
+            assertEquals(testName + " - encoded sizes", true, sizesMatch);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void testUnpairedSurrogate() throws IOException {
+        testName = TEST_CLASS_NAME + ".testUnpairedSurrogate()";
+        Path file = Files.createTempFile("snapshot", ".bin");
+        try {
+            RedBlackTree<String> exported = new RedBlackTree<>();
+            exported.add("A");
+            exported.add("\uD800");
+            try {
+                TreeSnapshot.write(exported, ElementCodec.STRING, file);
+                Assert.fail(FAILED);
+            } catch (IllegalArgumentException e) {
+                assertEquals(testName + EXCEPTION_STR, "unpaired surrogate at index 0", e.getMessage());
+            }
+            try {
+                ElementCodec.STRING.encode("b\uDC00c", ByteBuffer.allocate(8));
+                Assert.fail(FAILED);
+            } catch (IllegalArgumentException e) {
+                assertEquals(testName + " - encode" + EXCEPTION_STR, "unpaired surrogate at index 1", e.getMessage());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void testEmpty() throws IOException {
+        testName = TEST_CLASS_NAME + ".testEmpty()";
+        Path file = Files.createTempFile("snapshot", ".bin");
+        try {
+            TreeSnapshot.write(new RedBlackTree<Long>(), ElementCodec.LONG, file);
+            RedBlackTree<Long> imported = new RedBlackTree<>();
+            TreeSnapshot.read(file, ElementCodec.LONG, imported);
+            assertEquals(testName, 0, imported.size());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void testDamaged() throws IOException {
+        testName = TEST_CLASS_NAME + ".testDamaged()";
+        Path file = Files.createTempFile("snapshot", ".bin");
+        try {
+            RedBlackTree<Integer> exported = new RedBlackTree<>();
+            for (int i = 0; i < 1_000; i++) {
+                exported.add(i);
+            }
+            TreeSnapshot.write(exported, ElementCodec.INTEGER, file);
+            RedBlackTree<Integer> imported = new RedBlackTree<>();
+            try {
+                TreeSnapshot.read(file, ElementCodec.LONG, new RedBlackTree<>());
+                Assert.fail(FAILED);
+            } catch (IOException e) {
+                assertEquals(testName + " - another codec", "snapshot was written with another codec",
+                        e.getMessage());
+            }
+            try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+                raw.seek(100);
+                raw.write(0x7f);
+            }
+            try {
+                TreeSnapshot.read(file, ElementCodec.INTEGER, imported);
+                Assert.fail(FAILED);
+            } catch (IOException e) {
+                assertEquals(testName + " - damaged element", 0, imported.size());
+            }
+            TreeSnapshot.write(exported, ElementCodec.INTEGER, file);
+            try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+                raw.setLength(raw.length() - 10);
+            }
+            try {
+                TreeSnapshot.read(file, ElementCodec.INTEGER, imported);
+                Assert.fail(FAILED);
+            } catch (IOException e) {
+                assertEquals(testName + " - truncated", "snapshot is truncated", e.getMessage());
+            }
+            assertEquals(testName + " - tree stays empty", 0, imported.size());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package ru.spbstu.redblacktree.tree;
+
+import ru.spbstu.redblacktree.storage.ElementCodec;
+import ru.spbstu.redblacktree.storage.FsyncPolicy;
+import ru.spbstu.redblacktree.storage.GroupCommit;
+import ru.spbstu.redblacktree.storage.WriteAheadLog;
+import ru.spbstu.redblacktree.tree.binarytree.search.BinarySearchTree;
+import ru.spbstu.redblacktree.tree.binarytree.search.balanced.redblacktree.RedBlackTree;
+import ru.spbstu.redblacktree.tree.utils.Assert;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import static ru.spbstu.redblacktree.tree.utils.Assert.assertEquals;
+
+/**
+ * provides tests for {@link WriteAheadLog}
+ */
+public class WriteAheadLogTest {
+    private static final String TEST_CLASS_NAME = "WriteAheadLogTest";
+    private static final String FAILED = "failed";
+    private static String testName;
+
+    public static void main(String[] args) throws IOException {
+        testReplay();
+        testAbsentRemoval();
+        testDurableWait();
+        testTruncatedTail();
+        testCorruptedRecord();
+        testSortedRuns();
+        testWrongFile();
+    }
+
+    private static void testReplay() throws IOException {
+        testName = TEST_CLASS_NAME + ".testReplay()";
+        Path file = Files.createTempFile("wal", ".log");
+        try {
+            try (WriteAheadLog<String> log = WriteAheadLog.open(file, ElementCodec.STRING, FsyncPolicy.ALWAYS,
+                    new BinarySearchTree<>())) {
+                for (String element : new String[]{"pear", "apple", "plum", "кефир"}) {
+                    log.logAdd(element);
+                }
+                log.logRemove("plum");
+                try {
+                    log.logAdd("x\uDBFF");
+                    Assert.fail(FAILED);
+                } catch (IllegalArgumentException e) {
+                    assertEquals(testName + " - unpaired surrogate (exception)", "unpaired surrogate at index 1",
+                            e.getMessage());
+                }
+            }
+            BinarySearchTree<String> strings = new BinarySearchTree<>();
+            try (WriteAheadLog<String> log = WriteAheadLog.open(file, ElementCodec.STRING, FsyncPolicy.NEVER,
+                    strings)) {
+                assertEquals(testName + " - replayed records", 5L, log.replayedRecords());
+                log.logAdd("fig");
+            }
+            assertEquals(testName + " - replayed tree", "[apple, pear, кефир]",
+                    strings.asNavigableSet().toString());
+            strings = new BinarySearchTree<>();
+            WriteAheadLog.open(file, ElementCodec.STRING, FsyncPolicy.INTERVAL, 0, strings).close();
+            assertEquals(testName + " - appended after replay", "[apple, fig, pear, кефир]",
+                    strings.asNavigableSet().toString());
+            try {
+                WriteAheadLog<String> log = WriteAheadLog.open(file, ElementCodec.STRING, FsyncPolicy.NEVER,
+                        new BinarySearchTree<>());
+                log.close();
+                log.logAdd("kiwi");
+                Assert.fail(FAILED);
+            } catch (IOException e) {
+                assertEquals(testName + " (exception)", "log is closed", e.getMessage());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void testAbsentRemoval() throws IOException {
+        testName = TEST_CLASS_NAME + ".testAbsentRemoval()";
+        Path file = Files.createTempFile("wal", ".log");
+        try {
+            try (WriteAheadLog<Integer> log = WriteAheadLog.open(file, ElementCodec.INTEGER, FsyncPolicy.NEVER,
+                    new BinarySearchTree<>())) {
+                log.logAdd(1);
+                log.logRemove(2);
+                log.logRemove(1);
+                log.logRemove(1);
+                log.logAdd(3);
+            }
+            BinarySearchTree<Integer> replayed = new BinarySearchTree<>();
+            try (WriteAheadLog<Integer> log = WriteAheadLog.open(file, ElementCodec.INTEGER, FsyncPolicy.NEVER,
+                    replayed)) {
+                assertEquals(testName + " - replayed records", 5L, log.replayedRecords());
+            }
+            assertEquals(testName, "[3]", replayed.asNavigableSet().toString());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void testDurableWait() throws IOException {
+        testName = TEST_CLASS_NAME + ".testDurableWait()";
+        Path file = Files.createTempFile("wal", ".log");
+        long maxDelayMillis = 300;
+        try (WriteAheadLog<Integer> log = WriteAheadLog.open(file, ElementCodec.INTEGER,
+                new GroupCommit(2, maxDelayMillis, TimeUnit.MILLISECONDS), new BinarySearchTree<>())) {
+            long position = log.appendAdd(1);
+            log.awaitDurable(position);
+            long start = System.nanoTime();
+            log.awaitDurable(position);
+            assertEquals(testName + " - durable position returns at once", true,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < maxDelayMillis / 2);
+            //a writer that did not wait is not counted, so a lone writer waits for the batch to fill
+            position = log.appendAdd(2);
+            start = System.nanoTime();
+            log.awaitDurable(position);
+            assertEquals(testName + " - lone writer waits for the batch", true,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= maxDelayMillis / 2);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void testTruncatedTail() throws IOException {
+        testName = TEST_CLASS_NAME + ".testTruncatedTail()";
+        Path file = Files.createTempFile("wal", ".log");
+        try {
+            long validSize;
+            try (WriteAheadLog<Integer> log = WriteAheadLog.open(file, ElementCodec.INTEGER, FsyncPolicy.NEVER,
+                    new RedBlackTree<>())) {
+                log.logAdd(1);
+                log.logAdd(2);
+                validSize = log.size();
+                log.logAdd(3);
+            }
+            try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+                raw.setLength(raw.length() - 2);
+            }
+            RedBlackTree<Integer> integers = new RedBlackTree<>();
+            try (WriteAheadLog<Integer> log = WriteAheadLog.open(file, ElementCodec.INTEGER, FsyncPolicy.NEVER,
+                    integers)) {
+                assertEquals(testName + " - torn record dropped", 2L, log.replayedRecords());
+                assertEquals(testName + " - file truncated", validSize, log.size());
+                log.logAdd(4);
+            }
+            integers = new RedBlackTree<>();
+            WriteAheadLog.open(file, ElementCodec.INTEGER, FsyncPolicy.NEVER, integers).close();
+            assertEquals(testName + " - appended after truncation", "[1, 2, 4]",
+                    integers.asNavigableSet().toString());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void testCorruptedRecord() throws IOException {
+        testName = TEST_CLASS_NAME + ".testCorruptedRecord()";
+        Path file = Files.createTempFile("wal", ".log");
+        try {
+            long validSize;
+            try (WriteAheadLog<Long> log = WriteAheadLog.open(file, ElementCodec.LONG, FsyncPolicy.NEVER,
+                    new RedBlackTree<>())) {
+                log.logAdd(10L);
+                validSize = log.size();
+                log.logAdd(20L);
+                log.logAdd(30L);
+            }
+            try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+                //last byte of the payload of the second record
+                raw.seek(validSize + Integer.BYTES + 1 + Long.BYTES - 1);
+                raw.write(21);
+            }
+            RedBlackTree<Long> longs = new RedBlackTree<>();
+            try (WriteAheadLog<Long> log = WriteAheadLog.open(file, ElementCodec.LONG, FsyncPolicy.NEVER, longs)) {
+                assertEquals(testName + " - replay stops at bad checksum", "[10]",
+                        longs.asNavigableSet().toString());
+                assertEquals(testName + " - file truncated", validSize, log.size());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void testSortedRuns() throws IOException {
+        testName = TEST_CLASS_NAME + ".testSortedRuns()";
+        Path file = Files.createTempFile("wal", ".log");
+        Random random = new Random(19);
+        TreeSet<Integer> expected = new TreeSet<>();
+        try {
+            try (WriteAheadLog<Integer> log = WriteAheadLog.open(file, ElementCodec.INTEGER, FsyncPolicy.NEVER,
+                    new RedBlackTree<>())) {
+                for (int run = 0; run < 50; run++) {
+                    int length = random.nextInt(300);
+                    int value = random.nextInt(10_000);
+                    for (int i = 0; i < length; i++) {
+                        value += 1 + random.nextInt(5);
+                        log.logAdd(value);
+                        expected.add(value);
+                    }
+                    for (int i = random.nextInt(3); i > 0; i--) {
+                        int removed = random.nextInt(12_000);
+                        log.logRemove(removed);
+                        expected.remove(removed);
+                    }
+                }
+            }
+            RedBlackTree<Integer> integers = new RedBlackTree<>();
+            WriteAheadLog.open(file, ElementCodec.INTEGER, FsyncPolicy.NEVER, integers).close();
+            List<Integer> actual = new ArrayList<>(integers.asNavigableSet());
+            assertEquals(testName + " - elements", new ArrayList<>(expected), actual);
+            assertEquals(testName + " - balanced", true, RedBlackTreeTest.isRedBlack(integers));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void testWrongFile() throws IOException {
+        testName = TEST_CLASS_NAME + ".testWrongFile()";
+        Path file = Files.createTempFile("wal", ".log");
+        try {
+            Files.write(file, "not a log".getBytes());
+            WriteAheadLog.open(file, ElementCodec.INTEGER, FsyncPolicy.NEVER, new RedBlackTree<>()).close();
+            Assert.fail(FAILED);
+        } catch (IOException e) {
+            assertEquals(testName + " (exception)", "not a write-ahead log", e.getMessage());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}